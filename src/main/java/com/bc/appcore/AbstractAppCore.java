@@ -32,6 +32,12 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import com.bc.appcore.actions.Action;
 import com.bc.appcore.jpa.SearchContext;
+import com.bc.appcore.jpa.PagePrefetcher;
+import com.bc.appcore.jpa.PagePrefetcherImpl;
+import com.bc.appcore.jpa.SearchResultCache;
+import com.bc.appcore.jpa.StreamingSearchResults;
+import com.bc.appcore.jpa.TextIndex;
+import com.bc.jpa.dao.search.SearchResults;
 import com.bc.appcore.functions.CreateActionFromClassName;
 import com.bc.appcore.exceptions.TaskExecutionException;
 import com.bc.appcore.exceptions.TargetNotFoundException;
@@ -44,11 +50,21 @@ import java.nio.file.Paths;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.function.Supplier;
+import java.util.concurrent.TimeUnit;
 import com.bc.appcore.properties.PropertiesContext;
 import com.bc.appcore.actions.ActionCommandsCore;
 import com.bc.appcore.actions.ActionQueue;
+import com.bc.appcore.actions.ActionExecutor;
+import com.bc.appcore.actions.ActionExecutorImpl;
 import com.bc.appcore.actions.ActionQueueImpl;
+import com.bc.appcore.util.CircuitBreaker;
+import com.bc.appcore.util.JournalTargetQueueStore;
+import com.bc.appcore.util.NotifyingTargetQueue;
+import com.bc.appcore.util.PartitionedTargetQueue;
+import com.bc.appcore.util.PendingDatabaseUpdate;
+import com.bc.appcore.util.PendingUpdateCoalescer;
 import com.bc.appcore.util.PendingUpdateConsumer;
+import com.bc.appcore.util.SnapshotTargetQueueStore;
 import com.bc.appcore.util.TargetQueue;
 import com.bc.appcore.util.TargetQueueImpl;
 import com.bc.config.Config;
@@ -60,6 +76,11 @@ import com.bc.jpa.sync.impl.JpaSyncImpl;
 import com.bc.jpa.sync.impl.MasterSlavePersistenceContextImpl;
 import com.bc.jpa.predicates.DatabaseCommunicationsFailureTest;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * @author Chinomso Bassey Ikwuagwu on Feb 7, 2017 11:26:00 PM
@@ -74,6 +95,10 @@ public abstract class AbstractAppCore implements AppCore {
     
     private final ActionQueue actionQueue;
     
+    private final ActionExecutor actionExecutor;
+    
+    private final PagePrefetcher pagePrefetcher;
+    
     private final TargetQueue pendingSlaveUpdatesManager;
     
     private User user;
@@ -90,9 +115,35 @@ public abstract class AbstractAppCore implements AppCore {
         
         this.attributes = new HashMap<>(); 
         
-        this.actionQueue = new ActionQueueImpl();
+        this.actionQueue = this.createActionQueue();
+        
+        this.actionExecutor = this.createActionExecutor();
+        
+        this.pagePrefetcher = this.createPagePrefetcher();
 
-        this.pendingSlaveUpdatesManager = this.createPendingSlaveUpdateQueue();
+        final TargetQueue pendingSlaveUpdateQueue = this.createPendingSlaveUpdateQueue();
+        this.pendingSlaveUpdatesManager = pendingSlaveUpdateQueue == TargetQueue.NO_OP ? 
+                pendingSlaveUpdateQueue : 
+                new NotifyingTargetQueue<>(pendingSlaveUpdateQueue, this::onPendingSlaveUpdateAdded);
+    }
+    
+    /**
+     * Each update pending to the slave was written to the master, so search 
+     * results of the entity's type are invalidated, and the entity re-indexed.
+     * @param update The update added to the pending slave update queue
+     */
+    protected void onPendingSlaveUpdateAdded(Object update) {
+        final Object entity = update instanceof PendingDatabaseUpdate ? 
+                ((PendingDatabaseUpdate)update).getEntity() : update;
+        if(entity != null) {
+            this.getSearchResultCache().invalidate(entity.getClass());
+            if(update instanceof PendingDatabaseUpdate && 
+                    ((PendingDatabaseUpdate)update).getUpdateType() == PendingDatabaseUpdate.UpdateType.REMOVE) {
+                this.getTextIndex().remove(entity);
+            }else{
+                this.getTextIndex().update(entity);
+            }
+        }
     }
     
     @Override
@@ -105,6 +156,37 @@ public abstract class AbstractAppCore implements AppCore {
         this.user = this.objectFactory.getOrException(User.class);
 
         logger.fine(() -> "Created user: " + this.user);
+        
+        this.rebuildTextIndex();
+    }
+    
+    /**
+     * Rebuild the index of each type in the {@link #getTextIndex() text index}, 
+     * in the background. Until the index of a type is rebuilt, text searches 
+     * of the type use the database.
+     */
+    protected void rebuildTextIndex() {
+        final TextIndex textIndex = this.getTextIndex();
+        for(Class entityType : textIndex.getEntityTypes()) {
+            this.getActionExecutor().runAsync(() -> {
+                final SearchResults searchResults = this.getSearchContext(entityType).searchAllStreaming(1000);
+                try{
+                    textIndex.rebuild(entityType, searchResults instanceof StreamingSearchResults ?
+                            (Iterable)() -> ((StreamingSearchResults)searchResults).iterateAll() :
+                            searchResults.getPages());
+                }catch(RuntimeException e) {
+                    logger.log(Level.WARNING, "Failed to index: " + entityType.getName(), e);
+                }finally{
+                    if(searchResults instanceof AutoCloseable) {
+                        try{
+                            ((AutoCloseable)searchResults).close();
+                        }catch(Exception e) {
+                            logger.log(Level.WARNING, "Error closing search results of: " + entityType.getName(), e);
+                        }
+                    }
+                }
+            });
+        }
     }
     
     @Override
@@ -114,6 +196,12 @@ public abstract class AbstractAppCore implements AppCore {
         
         this.attributes.clear();
         
+        this.actionExecutor.shutdown();
+        
+        logger.log(Level.FINE, "Page prefetcher: {0}", this.pagePrefetcher);
+        
+        this.pagePrefetcher.shutdown();
+        
         if(!this.getPendingSlaveUpdateQueue().isStopRequested()) {
             this.getPendingSlaveUpdateQueue().requestStop();
         }
@@ -122,6 +210,10 @@ public abstract class AbstractAppCore implements AppCore {
             this.getPersistenceContext().close();
         }
         
+        logger.log(Level.INFO, "Expirable cache stats: {0}", this.getExpirableCacheStats());
+        
+        logger.log(Level.INFO, "Search result cache: {0}", this.getSearchResultCache());
+        
         try{
             this.getExpirableCache().close();
         }catch(Exception e) {
@@ -175,16 +267,213 @@ public abstract class AbstractAppCore implements AppCore {
                         this.getOrException(DatabaseCommunicationsFailureTest.class));
     }
     
+    /**
+     * Override to change how the time left for running actions is estimated,
+     * e.g <code>new ActionQueueImpl(90)</code> to estimate 
+     * from the 90th percentile of the time spent by previous actions.
+     * @return The queue of running actions
+     */
+    protected ActionQueue createActionQueue() {
+        return new ActionQueueImpl();
+    }
+    
+    protected ActionExecutor createActionExecutor() {
+        final boolean virtualThreads = Boolean.parseBoolean(
+                this.getConfig().getString(ACTIONS_VIRTUAL_THREADS, "false"));
+        final int maxConcurrentPerType = Integer.parseInt(
+                this.getConfig().getString(ACTIONS_MAX_CONCURRENT_PER_TYPE, "4"));
+        return new ActionExecutorImpl(
+                ActionExecutorImpl.newExecutorService(
+                        this.getClass().getSimpleName() + "_ActionExecutor", virtualThreads),
+                maxConcurrentPerType);
+    }
+    
+    protected PagePrefetcher createPagePrefetcher() {
+        return new PagePrefetcherImpl();
+    }
+    
     protected TargetQueue createPendingSlaveUpdateQueue() {
-        return !this.isSyncEnabled() || !this.getPersistenceContextSwitch().getSlaveOptional().isPresent() ? 
-                TargetQueue.NO_OP :
-                new TargetQueueImpl(
-                        this.getPendingUpdatesFilePath(Names.PENDING_SLAVE_UPDATES_FILE_NAME).toFile(),
-                        new PendingUpdateConsumer(
-                                this.getPersistenceContextSwitch().getSlaveOptional()
-                                        .orElseThrow(() -> new NullPointerException())
-                        ),
-                        new DatabaseCommunicationsFailureTest());
+        if(!this.isSyncEnabled() || !this.getPersistenceContextSwitch().getSlaveOptional().isPresent()) {
+            return TargetQueue.NO_OP;
+        }
+        final PersistenceUnitContext slaveContext = this.getPersistenceContextSwitch()
+                .getSlaveOptional().orElseThrow(() -> new NullPointerException());
+        final PendingUpdateCoalescer coalescer = new PendingUpdateCoalescer(slaveContext);
+        final int workerCount = Math.max(1, this.getPendingSlaveUpdateWorkerCount());
+        final Function<PendingDatabaseUpdate, Object> partitionKey = (update) -> {
+            final Object key = coalescer.getKey(update);
+            return key != null ? key : update.getEntity().getClass();
+        };
+        this.repartitionPendingSlaveUpdates(workerCount, partitionKey);
+        if(workerCount < 2) {
+            return this.createPendingSlaveUpdateQueue(slaveContext, coalescer, 
+                    this.getPendingSlaveUpdatesJournalFileName(0));
+        }
+        final List<TargetQueue<PendingDatabaseUpdate>> partitions = new ArrayList<>(workerCount);
+        for(int i=0; i<workerCount; i++) {
+            partitions.add(this.createPendingSlaveUpdateQueue(slaveContext, coalescer, 
+                    this.getPendingSlaveUpdatesJournalFileName(i)));
+        }
+        return new PartitionedTargetQueue<>(partitions, partitionKey);
+    }
+    
+    private TargetQueue<PendingDatabaseUpdate> createPendingSlaveUpdateQueue(
+            PersistenceUnitContext slaveContext, PendingUpdateCoalescer coalescer, String journalFileName) {
+        return new TargetQueueImpl<>(
+                new JournalTargetQueueStore<>(
+                        this.getPendingUpdatesFilePath(journalFileName).toFile(), null, false, 1000),
+                new PendingUpdateConsumer(slaveContext),
+                new DatabaseCommunicationsFailureTest(),
+                100, 100,
+                coalescer,
+                this.createPendingSlaveUpdateCircuitBreaker());
+    }
+    
+    private String getPendingSlaveUpdatesJournalFileName(int partition) {
+        return partition == 0 ? Names.PENDING_SLAVE_UPDATES_JOURNAL_FILE_NAME : 
+                Names.PENDING_SLAVE_UPDATES_JOURNAL_FILE_NAME + '.' + partition;
+    }
+    
+    /**
+     * @param fname The name of a file in the pending updates directory
+     * @return The partition whose journal has the name, or -1 if the name is
+     * not that of a pending slave updates journal
+     */
+    private int getPendingSlaveUpdatesJournalPartition(String fname) {
+        final String prefix = Names.PENDING_SLAVE_UPDATES_JOURNAL_FILE_NAME;
+        if(fname.equals(prefix)) {
+            return 0;
+        }
+        if(!fname.startsWith(prefix + '.')) {
+            return -1;
+        }
+        try{
+            return Integer.parseInt(fname.substring(prefix.length() + 1));
+        }catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Move the updates pending in every journal, whatever the number of 
+     * workers which wrote them, and in the snapshot file of earlier versions, 
+     * to the journals of the workers about to start. Each update is assigned 
+     * to a worker by its key, as when it is added. 
+     * <p>
+     * The hash of a key may differ between runs, so this is done at each 
+     * start up. All updates are first written to a single file, which is 
+     * read along with the journals and deleted only once every journal is 
+     * written. If interrupted, some updates may thus be applied to the slave 
+     * database twice, but none are lost.
+     * </p>
+     * @param workerCount The number of workers about to start
+     * @param partitionKey Returns the key by which each update is assigned
+     */
+    private void repartitionPendingSlaveUpdates(int workerCount, 
+            Function<PendingDatabaseUpdate, Object> partitionKey) {
+        
+        final File combined = this.getPendingUpdatesFilePath(
+                Names.PENDING_SLAVE_UPDATES_REPARTITION_FILE_NAME).toFile();
+        final File snapshot = this.getPendingUpdatesFilePath(
+                Names.PENDING_SLAVE_UPDATES_FILE_NAME).toFile();
+        final File [] journals = combined.getParentFile().listFiles(
+                (dir, name) -> this.getPendingSlaveUpdatesJournalPartition(name) != -1);
+        
+        if(journals == null || (journals.length == 0 && !combined.exists() && !snapshot.exists())) {
+            return;
+        }
+        
+        Arrays.sort(journals, Comparator.comparingInt(
+                (file) -> this.getPendingSlaveUpdatesJournalPartition(file.getName())));
+        
+        if(workerCount == 1 && !combined.exists() && !snapshot.exists() && 
+                (journals.length == 0 || (journals.length == 1 && 
+                this.getPendingSlaveUpdatesJournalPartition(journals[0].getName()) == 0))) {
+            return;
+        }
+        
+        final List<PendingDatabaseUpdate> pending = new ArrayList<>();
+        if(combined.exists()) {
+            pending.addAll(this.loadPendingSlaveUpdates(combined));
+        }
+        for(File journal : journals) {
+            pending.addAll(this.loadPendingSlaveUpdates(journal));
+        }
+        if(snapshot.exists()) {
+            pending.addAll(new SnapshotTargetQueueStore<PendingDatabaseUpdate>(snapshot).load());
+        }
+        
+        logger.log(Level.INFO, "Assigning {0} pending slave updates from {1} journals to {2} workers", 
+                new Object[]{pending.size(), journals.length, workerCount});
+        
+        if(!this.writePendingSlaveUpdates(combined, pending)) {
+            return;
+        }
+        
+        if(snapshot.exists() && !snapshot.delete()) {
+            logger.warning(() -> "Failed to delete: " + snapshot);
+        }
+        for(File journal : journals) {
+            if(this.getPendingSlaveUpdatesJournalPartition(journal.getName()) >= workerCount && !journal.delete()) {
+                logger.warning(() -> "Failed to delete: " + journal);
+            }
+        }
+        
+        final List<List<PendingDatabaseUpdate>> partitions = 
+                PartitionedTargetQueue.partition(pending, workerCount, partitionKey);
+        for(int i=0; i<workerCount; i++) {
+            final File journal = this.getPendingUpdatesFilePath(
+                    this.getPendingSlaveUpdatesJournalFileName(i)).toFile();
+            if(!this.writePendingSlaveUpdates(journal, partitions.get(i))) {
+                return;
+            }
+        }
+        
+        if(!combined.delete()) {
+            logger.warning(() -> "Failed to delete: " + combined);
+        }
+    }
+    
+    private List<PendingDatabaseUpdate> loadPendingSlaveUpdates(File journal) {
+        final JournalTargetQueueStore<PendingDatabaseUpdate> store = new JournalTargetQueueStore<>(journal);
+        try{
+            return store.load();
+        }finally{
+            store.close();
+        }
+    }
+    
+    private boolean writePendingSlaveUpdates(File journal, List<PendingDatabaseUpdate> updates) {
+        final JournalTargetQueueStore<PendingDatabaseUpdate> store = new JournalTargetQueueStore<>(journal);
+        try{
+            if(store.compact(updates)) {
+                return true;
+            }
+            logger.warning(() -> "Failed to write pending slave updates to: " + journal);
+            return false;
+        }finally{
+            store.close();
+        }
+    }
+    
+    /**
+     * Called once per worker of the pending slave update queue.
+     * @return A circuit breaker which backs off from a slave database that
+     * is unreachable, rather than retrying continuously.
+     */
+    protected CircuitBreaker createPendingSlaveUpdateCircuitBreaker() {
+        return new CircuitBreaker(3, 1000, TimeUnit.MINUTES.toMillis(5), 0.2);
+    }
+    
+    /**
+     * Updates to the slave database are partitioned by entity type and id 
+     * between this number of workers. There is no ordering of updates 
+     * between workers, so only return a value greater than 1 if updates 
+     * to different entities do not depend on each other, e.g. no foreign keys.
+     * @return The number of workers which update the slave database
+     */
+    protected int getPendingSlaveUpdateWorkerCount() {
+        return 1;
     }
 
     protected Path getPendingUpdatesFilePath(String fname) {
@@ -261,6 +550,8 @@ public abstract class AbstractAppCore implements AppCore {
         final Expirable<T> expirable = getNotRemove ? expirableCache.get(key) : expirableCache.remove(key);
 
         if(expirable == null) {
+            logger.log(Level.FINE, "Expirable not found for key: {0}, cache stats: {1}", 
+                    new Object[]{key, expirableCache.getStats()});
             throw new TargetNotFoundException("Session has expired. Begin process afresh");
         }
 
@@ -280,6 +571,16 @@ public abstract class AbstractAppCore implements AppCore {
         return this.actionQueue;
     }
 
+    @Override
+    public ActionExecutor getActionExecutor() {
+        return this.actionExecutor;
+    }
+
+    @Override
+    public PagePrefetcher getPagePrefetcher() {
+        return this.pagePrefetcher;
+    }
+
     @Override
     public Action getAction(String actionCommand) {
         return this.getAction(actionCommand, Level.FINER);
@@ -370,6 +671,16 @@ public abstract class AbstractAppCore implements AppCore {
         return appContext.getExpirableCache();
     }
 
+    @Override
+    public SearchResultCache getSearchResultCache() {
+        return appContext.getSearchResultCache();
+    }
+
+    @Override
+    public TextIndex getTextIndex() {
+        return appContext.getTextIndex();
+    }
+
     public AppContext getAppContext() {
         return appContext;
     }
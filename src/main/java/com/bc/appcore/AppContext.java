@@ -19,6 +19,8 @@ package com.bc.appcore;
 import com.authsvc.client.AppAuthenticationSession;
 import com.bc.appcore.jpa.SearchContext;
 import com.bc.appcore.jpa.SearchContextImpl;
+import com.bc.appcore.jpa.SearchResultCache;
+import com.bc.appcore.jpa.TextIndex;
 import com.bc.appcore.util.ExpirableCache;
 import java.util.Properties;
 import com.bc.appcore.properties.PropertiesContext;
@@ -91,4 +93,19 @@ public interface AppContext {
     }
 
     ExpirableCache<Object> getExpirableCache();
+
+    /**
+     * @return The cache of the ids found by text searches. Report writes to 
+     * entities via {@link com.bc.appcore.jpa.SearchResultCache#invalidate(java.lang.Class)}
+     */
+    default SearchResultCache getSearchResultCache() {
+        return SearchResultCache.NO_OP;
+    }
+
+    /**
+     * @return The in-memory index used for text searches of the types it indexes
+     */
+    default TextIndex getTextIndex() {
+        return TextIndex.NO_OP;
+    }
 }    
@@ -17,11 +17,16 @@
 package com.bc.appcore;
 
 import com.authsvc.client.AppAuthenticationSession;
+import com.bc.appcore.jpa.SearchResultCache;
+import com.bc.appcore.jpa.SearchResultCacheImpl;
+import com.bc.appcore.jpa.TextIndex;
+import com.bc.appcore.jpa.TextIndexImpl;
 import com.bc.appcore.util.ExpirableCache;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.Properties;
 import com.bc.appcore.properties.PropertiesContext;
-import com.bc.appcore.util.ExpirableCacheImpl;
+import com.bc.appcore.util.ConcurrentExpirableCacheImpl;
 import com.bc.config.Config;
 import com.bc.jpa.context.PersistenceContext;
 import com.bc.jpa.context.PersistenceUnitContext;
@@ -52,6 +57,10 @@ public class AppContextBuilder implements AppContext {
     private MasterSlaveSwitch<PersistenceUnitContext> persistenceContextSwitch;
     private boolean syncEnabled;
     private ExpirableCache<Object> expirableCache;
+    private long expirableCacheMaximumSize;
+    private SearchResultCache searchResultCache;
+    private Collection<Class> textIndexEntityTypes;
+    private TextIndex textIndex;
     private AppAuthenticationSession authenticationSession;
     
     private boolean buildAttempted;
@@ -65,7 +74,13 @@ public class AppContextBuilder implements AppContext {
         this.buildAttempted = true;
         
         if(expirableCache == null) {
-            expirableCache = new ExpirableCacheImpl(30, TimeUnit.MINUTES);
+            expirableCache = expirableCacheMaximumSize > 0 ? 
+                    new ConcurrentExpirableCacheImpl<>(30, TimeUnit.MINUTES, 16, expirableCacheMaximumSize) :
+                    new ConcurrentExpirableCacheImpl<>(30, TimeUnit.MINUTES);
+        }
+        
+        if(searchResultCache == null) {
+            searchResultCache = new SearchResultCacheImpl();
         }
         
         if(this.masterPersistenceUnitTest == null) {
@@ -99,6 +114,10 @@ public class AppContextBuilder implements AppContext {
         
         this.persistenceContextSwitch.switchToMaster();
         
+        this.textIndex = this.textIndexEntityTypes == null || this.textIndexEntityTypes.isEmpty() ?
+                TextIndex.NO_OP : 
+                new TextIndexImpl(this.persistenceContextSwitch.getMaster(), this.textIndexEntityTypes);
+        
         return this;
     }
 
@@ -142,6 +161,16 @@ public class AppContextBuilder implements AppContext {
         return syncEnabled;
     }
 
+    @Override
+    public SearchResultCache getSearchResultCache() {
+        return searchResultCache;
+    }
+
+    @Override
+    public TextIndex getTextIndex() {
+        return textIndex;
+    }
+
     @Override
     public ExpirableCache<Object> getExpirableCache() {
         return expirableCache;
@@ -211,6 +240,43 @@ public class AppContextBuilder implements AppContext {
         return this;
     }
 
+    /**
+     * Bound the default {@link com.bc.appcore.util.ExpirableCache ExpirableCache}.
+     * Has no effect if an ExpirableCache is set via {@link #expirableCache(com.bc.appcore.util.ExpirableCache)}
+     * @param arg The maximum number of entries in the cache. Values less than 1 mean unbounded.
+     * @return This builder
+     */
+    public AppContextBuilder expirableCacheMaximumSize(long arg) {
+        this.requireBuildNotYetAttemptedBeforeFieldUpdate();
+        this.expirableCacheMaximumSize = arg;
+        return this;
+    }
+
+    /**
+     * @param arg The cache of the ids found by text searches. Use 
+     * {@link com.bc.appcore.jpa.SearchResultCache#NO_OP} to disable caching.
+     * @return This builder
+     */
+    public AppContextBuilder searchResultCache(SearchResultCache arg) {
+        this.requireBuildNotYetAttemptedBeforeFieldUpdate();
+        this.searchResultCache = Objects.requireNonNull(arg);
+        return this;
+    }
+
+    /**
+     * Index the text columns of these entity types in memory, so that text 
+     * searches of them do not scan the database. The index of each type holds 
+     * the words of every row, so only index types of moderate size.
+     * @param arg The entity types to index
+     * @return This builder
+     * @see com.bc.appcore.jpa.TextIndexImpl
+     */
+    public AppContextBuilder textIndexEntityTypes(Collection<Class> arg) {
+        this.requireBuildNotYetAttemptedBeforeFieldUpdate();
+        this.textIndexEntityTypes = Objects.requireNonNull(arg);
+        return this;
+    }
+
     public void requireBuildNotYetAttemptedBeforeFieldUpdate() {
         this.requireBuildNotYetAttempted("This method or any update methods may not be called after build() method is called");
     }
@@ -19,11 +19,15 @@ package com.bc.appcore;
 import com.bc.appcore.user.User;
 import com.bc.appcore.actions.Action;
 import com.bc.appcore.actions.ActionCommandsCore;
+import com.bc.appcore.actions.ActionExecutor;
+import com.bc.appcore.actions.ActionExecutorImpl;
 import com.bc.appcore.actions.ActionQueue;
 import com.bc.appcore.exceptions.TargetNotFoundException;
 import com.bc.appcore.html.HtmlBuilderFactory;
+import com.bc.appcore.jpa.PagePrefetcher;
 import java.text.DateFormat;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
@@ -33,6 +37,7 @@ import java.text.SimpleDateFormat;
 import java.util.Comparator;
 import com.bc.appcore.jpa.model.EntityResultModel;
 import com.bc.appcore.jpa.model.EntityResultModelImpl;
+import com.bc.appcore.util.ExpirableCacheStats;
 import com.bc.appcore.util.ListedOrder;
 import com.bc.appcore.util.TargetQueue;
 import com.bc.jpa.sync.JpaSync;
@@ -41,6 +46,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -57,6 +63,14 @@ public interface AppCore extends AppContext, ActionCommandsCore, ObjectFactory {
     
     String SERIAL_COLUMNNAME = "columnNames.serial";
     
+    /**
+     * If true, actions executed asynchronously run on virtual threads, 
+     * where the JVM supports them.
+     */
+    String ACTIONS_VIRTUAL_THREADS = "actions.virtualThreads";
+    
+    String ACTIONS_MAX_CONCURRENT_PER_TYPE = "actions.maxConcurrentPerType";
+    
     default String getRandomId() {
         return UUID.randomUUID().toString();
     }
@@ -69,6 +83,37 @@ public interface AppCore extends AppContext, ActionCommandsCore, ObjectFactory {
     
     ActionQueue getActionQueue();
     
+    /**
+     * Apps which do not own an executor share one, which is never shut down.
+     * Override to return an executor owned by, and shut down with, the app.
+     * @return The executor of the app's asynchronous actions
+     */
+    default ActionExecutor getActionExecutor() {
+        return ActionExecutorImpl.getShared();
+    }
+    
+    default PagePrefetcher getPagePrefetcher() {
+        return PagePrefetcher.NO_OP;
+    }
+    
+    default <R> CompletableFuture<R> executeAsync(String actionCommand) {
+        return this.executeAsync(actionCommand, Collections.EMPTY_MAP);
+    }
+    
+    /**
+     * Execute the action on a thread owned by the app.
+     * @param <R> The type of the result of the action
+     * @param actionCommand The command of the action to execute
+     * @param params The parameters of the action
+     * @return A future completed with the result of the action, or 
+     * exceptionally with the exception thrown by the action.
+     * @see com.bc.appcore.actions.ActionExecutor
+     */
+    default <R> CompletableFuture<R> executeAsync(String actionCommand, Map<String, Object> params) {
+        final Action<AppCore, R> action = (Action<AppCore, R>)this.getAction(actionCommand);
+        return this.getActionExecutor().executeAsync(this, action, params);
+    }
+    
     default ResultHandler getResultHandler(String name) {
         return new ResultHandlerImpl(Objects.requireNonNull(name));
     }
@@ -83,6 +128,16 @@ public interface AppCore extends AppContext, ActionCommandsCore, ObjectFactory {
     
     <T> T getExpirable(Class<T> type, Object key) throws TargetNotFoundException;
     
+    /**
+     * Use these statistics to size the timeout and bounds of the 
+     * {@link #getExpirableCache() expirable cache}. A high miss rate, for 
+     * example, means sessions are expiring before users complete them.
+     * @return The statistics of the expirable cache
+     */
+    default ExpirableCacheStats getExpirableCacheStats() {
+        return this.getExpirableCache().getStats();
+    }
+    
     User getUser();
     
     Class getUserEntityType();
@@ -30,4 +30,6 @@ public interface Names {
     
     String PENDING_MASTER_UPDATES_FILE_NAME = "master_updates.pending";
     String PENDING_SLAVE_UPDATES_FILE_NAME = "slave_updates.pending";
+    String PENDING_SLAVE_UPDATES_JOURNAL_FILE_NAME = "slave_updates.journal";
+    String PENDING_SLAVE_UPDATES_REPARTITION_FILE_NAME = "slave_updates.journal.repartition";
 }
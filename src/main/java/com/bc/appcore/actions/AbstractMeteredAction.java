@@ -79,6 +79,12 @@ public abstract class AbstractMeteredAction<A extends AppCore, O> implements Met
                 this.actionQueue.getAverageTimeSpentMillis(this.getClass(), outputIfNone);
     }
     
+    @Override
+    public long getEstimatedTimeSpentMillis(long outputIfNone) {
+        return this.actionQueue == null ? outputIfNone : 
+                this.actionQueue.getEstimatedTimeSpentMillis(this.getClass(), outputIfNone);
+    }
+    
     @Override
     public boolean isStarted() {
         return started;
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.actions;
+
+import com.bc.appcore.AppCore;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Executes {@link com.bc.appcore.actions.Action Actions}, and other
+ * background work of the app, on threads owned by the app.
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 9:05:41 AM
+ */
+public interface ActionExecutor {
+
+    /**
+     * @param <A> The type of the app
+     * @param <R> The type of the result of the action
+     * @param app The app
+     * @param action The action to execute
+     * @param params The parameters of the action
+     * @return A future completed with the result of the action, or
+     * exceptionally with the exception thrown by the action.
+     */
+    <A extends AppCore, R> CompletableFuture<R> executeAsync(
+            A app, Action<A, R> action, Map<String, Object> params);
+
+    /**
+     * Run background work which is not an action. Not subject to limits on
+     * the number of concurrent actions per type.
+     * @param task The work to run
+     * @return A future completed when the task completes
+     */
+    CompletableFuture<Void> runAsync(Runnable task);
+
+    /**
+     * @param actionType The type of action
+     * @return The number of actions of the type submitted but not yet started
+     */
+    int getWaitingCount(Class actionType);
+
+    boolean isShutdown();
+
+    void shutdown();
+}
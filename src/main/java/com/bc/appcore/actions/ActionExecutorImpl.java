@@ -0,0 +1,239 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.actions;
+
+import com.bc.appcore.AppCore;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An {@link com.bc.appcore.actions.ActionExecutor ActionExecutor} which runs
+ * at most <code>maxConcurrentPerType</code> actions of each type at a time.
+ * Further actions of the type wait in a queue, without holding a thread,
+ * until one completes.
+ * <p>
+ * Actions which are not {@link com.bc.appcore.actions.MeteredAction MeteredActions}
+ * are registered with the app's {@link com.bc.appcore.actions.ActionQueue ActionQueue}
+ * while they run, so that their time spent is recorded like that of metered actions.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 9:17:03 AM
+ */
+public class ActionExecutorImpl implements ActionExecutor {
+
+    private transient static final Logger logger = Logger.getLogger(ActionExecutorImpl.class.getName());
+
+    private static final class Task {
+        private final Runnable body;
+        private final CompletableFuture<?> future;
+        private Task(Runnable body, CompletableFuture<?> future) {
+            this.body = body;
+            this.future = future;
+        }
+    }
+
+    private static final class TypeLimiter {
+        private final AtomicInteger running = new AtomicInteger();
+        private final Queue<Task> waiting = new ConcurrentLinkedQueue<>();
+    }
+
+    private static final class SharedHolder {
+        private static final ActionExecutor SHARED = new ActionExecutorImpl(
+                newExecutorService(ActionExecutorImpl.class.getSimpleName() + "_shared", false), 4) {
+            @Override
+            public void shutdown() { 
+                logger.fine("The shared action executor is never shut down");
+            }
+        };
+    }
+
+    private final ExecutorService executorService;
+
+    private final int maxConcurrentPerType;
+
+    private final ConcurrentMap<Class, TypeLimiter> limiters;
+
+    /**
+     * @param executorService The executor on which actions run. Owned by
+     * this object, and shut down with it.
+     * @param maxConcurrentPerType The maximum number of actions of the same
+     * type to run at a time.
+     */
+    public ActionExecutorImpl(ExecutorService executorService, int maxConcurrentPerType) {
+        if(maxConcurrentPerType < 1) {
+            throw new IllegalArgumentException("Max concurrent per type < 1");
+        }
+        this.executorService = Objects.requireNonNull(executorService);
+        this.maxConcurrentPerType = maxConcurrentPerType;
+        this.limiters = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param name The name prefix of the threads
+     * @param virtualThreads If true, and the JVM supports virtual threads,
+     * each task runs on a new virtual thread. Otherwise tasks run on a pool
+     * of daemon threads, created as needed and discarded after a minute idle.
+     * @return A new executor service
+     */
+    public static ExecutorService newExecutorService(String name, boolean virtualThreads) {
+        if(virtualThreads) {
+            try{
+                final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService)method.invoke(null);
+            }catch(ReflectiveOperationException e) {
+                logger.log(Level.INFO, "Virtual threads not supported by this JVM, using platform threads");
+            }
+        }
+        final AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool((runnable) -> {
+            final Thread thread = new Thread(runnable, name + '_' + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return An executor, of daemon threads, shared by apps which do not
+     * own one. Calls to its {@link #shutdown()} method are ignored.
+     */
+    public static ActionExecutor getShared() {
+        return SharedHolder.SHARED;
+    }
+
+    @Override
+    public <A extends AppCore, R> CompletableFuture<R> executeAsync(
+            A app, Action<A, R> action, Map<String, Object> params) {
+
+        Objects.requireNonNull(app);
+        Objects.requireNonNull(params);
+
+        final CompletableFuture<R> future = new CompletableFuture<>();
+
+        final boolean metered = action instanceof MeteredAction;
+
+        final Runnable body = () -> {
+            final ActionQueue actionQueue = app.getActionQueue();
+            if(!metered) {
+                actionQueue.onStarted(action);
+            }
+            R result = null;
+            Throwable failure = null;
+            try{
+                result = action.execute(app, params);
+            }catch(Exception | Error e) {
+                failure = e;
+            }finally{
+                if(!metered) {
+                    actionQueue.onCompleted(action);
+                }
+            }
+            // Completed after the queue is updated, so that callers see the
+            // action's time recorded once the future completes
+            if(failure == null) {
+                future.complete(result);
+            }else{
+                future.completeExceptionally(failure);
+            }
+        };
+
+        final TypeLimiter limiter = limiters.computeIfAbsent(action.getClass(), (k) -> new TypeLimiter());
+        limiter.waiting.add(new Task(body, future));
+        this.drain(limiter);
+
+        return future;
+    }
+
+    /**
+     * Start waiting tasks while fewer than the maximum are running.
+     */
+    private void drain(TypeLimiter limiter) {
+        while(true) {
+            final int running = limiter.running.get();
+            if(running >= maxConcurrentPerType || limiter.waiting.isEmpty()) {
+                return;
+            }
+            if(!limiter.running.compareAndSet(running, running + 1)) {
+                continue;
+            }
+            final Task task = limiter.waiting.poll();
+            if(task == null) {
+                limiter.running.decrementAndGet();
+                continue;
+            }
+            try{
+                executorService.execute(() -> {
+                    try{
+                        task.body.run();
+                    }finally{
+                        limiter.running.decrementAndGet();
+                        this.drain(limiter);
+                    }
+                });
+            }catch(RejectedExecutionException e) {
+                limiter.running.decrementAndGet();
+                task.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> runAsync(Runnable task) {
+        return CompletableFuture.runAsync(task, executorService);
+    }
+
+    @Override
+    public int getWaitingCount(Class actionType) {
+        final TypeLimiter limiter = limiters.get(actionType);
+        return limiter == null ? 0 : limiter.waiting.size();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executorService.isShutdown();
+    }
+
+    @Override
+    public void shutdown() {
+        try{
+            com.bc.util.Util.shutdownAndAwaitTermination(this.executorService, 1, TimeUnit.SECONDS);
+        }catch(Exception e) {
+            logger.log(Level.WARNING, "Error shutting down action executor", e);
+        }
+        for(TypeLimiter limiter : limiters.values()) {
+            Task task;
+            while((task = limiter.waiting.poll()) != null) {
+                task.future.completeExceptionally(new RejectedExecutionException("Shut down"));
+            }
+        }
+    }
+
+    public int getMaxConcurrentPerType() {
+        return maxConcurrentPerType;
+    }
+}
@@ -16,9 +16,13 @@
 
 package com.bc.appcore.actions;
 
+import com.bc.appcore.util.CancellationToken;
+import com.bc.appcore.util.LatencyHistogram;
 import java.util.Iterator;
 import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
@@ -30,11 +34,30 @@ public interface ActionQueue {
         if(!isRunning(action)) {
             throw new IllegalStateException(Action.class.getSimpleName()+" must be running before calling getEstimatedTimeLeftMillis()");
         }
-        final long averageTimeForThisAction = this.getAverageTimeSpentMillis(action.getClass(), -1L);
-        if(averageTimeForThisAction == -1L) {
+        final long estimatedTimeForThisAction = this.getEstimatedTimeSpentMillis(action.getClass(), -1L);
+        if(estimatedTimeForThisAction == -1L) {
             return outputIfNone;
         }
-        return averageTimeForThisAction - (System.currentTimeMillis() - getStartTimeMillis(action));
+        return estimatedTimeForThisAction - (System.currentTimeMillis() - getStartTimeMillis(action));
+    }
+    
+    /**
+     * @param type The type of action
+     * @param outputIfNone The value to return if no action of the type has completed
+     * @return The time an action of the specified type is expected to take. 
+     * By default the average time spent.
+     */
+    default long getEstimatedTimeSpentMillis(Class type, long outputIfNone) {
+        return this.getAverageTimeSpentMillis(type, outputIfNone);
+    }
+    
+    /**
+     * @param type The type of action
+     * @return The distribution of the time spent by completed actions of the 
+     * specified type, or null if not available
+     */
+    default LatencyHistogram getLatencyHistogram(Class type) {
+        return null;
     }
     
     long getAverageTimeSpentMillis(Class type, long outputIfNone);
@@ -49,6 +72,59 @@ public interface ActionQueue {
     
     void onCompleted(Action action);
     
+    /**
+     * @param action The action
+     * @return A future completed when the action completes, or an already 
+     * completed future if the action is not running.
+     */
+    CompletableFuture<Void> getCompletionFuture(Action action);
+    
+    /**
+     * @param type The type of action
+     * @return A future completed once no action of the type, or a sub-type, 
+     * is running.
+     */
+    CompletableFuture<Void> getCompletionFuture(Class type);
+    
+    /**
+     * @param listener Notified of each action that completes, on the thread
+     * which completed it. Must not block.
+     */
+    void addCompletionListener(Consumer<Action> listener);
+    
+    boolean removeCompletionListener(Consumer<Action> listener);
+    
+    /**
+     * @param action The action
+     * @return The token via which the running action may be cancelled, or 
+     * {@link com.bc.appcore.util.CancellationToken#NONE} if the action is not 
+     * running, or cancellation is not supported. Closed once the action completes.
+     */
+    default CancellationToken getCancellationToken(Action action) {
+        return CancellationToken.NONE;
+    }
+    
+    /**
+     * Cancel the running actions of a type. Each action stops only once it 
+     * next checks its {@link #getCancellationToken(com.bc.appcore.actions.Action) token}.
+     * @param type The type of action, sub-types included
+     * @param except An action not to cancel, e.g the caller. May be null.
+     * @return The number of actions cancelled
+     */
+    default int cancel(Class type, Action except) {
+        return this.cancel((action) -> action != except && type.isAssignableFrom(action.getClass()));
+    }
+    
+    /**
+     * Cancel the running actions which pass the test. Each action stops only
+     * once it next checks its {@link #getCancellationToken(com.bc.appcore.actions.Action) token}.
+     * @param test Selects the actions to cancel
+     * @return The number of actions cancelled
+     */
+    default int cancel(Predicate<Action> test) {
+        return 0;
+    }
+    
     boolean isRunning(Action action);
 
     boolean contains(Action action);
@@ -16,83 +16,359 @@
 
 package com.bc.appcore.actions;
 
+import com.bc.appcore.util.CancellationToken;
+import com.bc.appcore.util.LatencyHistogram;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 /**
+ * A thread safe {@link com.bc.appcore.actions.ActionQueue ActionQueue}.
+ * <p>
+ * Running actions are looked up in a concurrent map, so starting, completing
+ * and checking an action take constant time whatever the number of actions 
+ * running. The order in which actions started is kept in a concurrent queue 
+ * from which completed actions are removed lazily: from the head as it is 
+ * read, and by a sweep of the whole queue once completed actions outnumber 
+ * running actions.
+ * </p>
+ * <p>
+ * Each execution is tracked separately, so an action instance may run more 
+ * than once at a time, e.g a shared {@link com.bc.appcore.actions.Stateless Stateless} 
+ * action. {@link #onCompleted(com.bc.appcore.actions.Action)} completes the 
+ * execution started by the calling thread, if any, otherwise the earliest. 
+ * An action is running while any of its executions is.
+ * </p>
  * @author Chinomso Bassey Ikwuagwu on Aug 26, 2017 8:27:46 PM
  */
 public class ActionQueueImpl implements ActionQueue {
 
-    private final Queue<Action> queue;
+    /**
+     * Completed entries are swept from the queue only after at least this many
+     */
+    private static final int MIN_COMPLETED_BEFORE_SWEEP = 64;
     
-    private final Map<String, long[]> averageTimes;
+    private transient static final Logger logger = Logger.getLogger(ActionQueueImpl.class.getName());
+
+    private static final class Entry {
+        private final Action action;
+        private final long startTime;
+        private final Thread thread;
+        private volatile boolean completed;
+        /**
+         * Created on demand, so that actions nobody waits for cost nothing
+         */
+        private CompletableFuture<Void> completion;
+        /**
+         * Created on demand, like the completion future
+         */
+        private CancellationToken cancellation;
+        private Entry(Action action, long startTime, Thread thread) {
+            this.action = action;
+            this.startTime = startTime;
+            this.thread = thread;
+        }
+        private synchronized CompletableFuture<Void> getCompletion() {
+            if(completion == null) {
+                completion = new CompletableFuture<>();
+                if(completed) {
+                    completion.complete(null);
+                }
+            }
+            return completion;
+        }
+        private synchronized CancellationToken getCancellation() {
+            if(cancellation == null) {
+                cancellation = new CancellationToken();
+            }
+            return cancellation;
+        }
+        /**
+         * @return The completion future, if any, to be completed by the caller
+         */
+        private synchronized CompletableFuture<Void> complete() {
+            completed = true;
+            if(cancellation != null) {
+                cancellation.close();
+            }
+            return completion;
+        }
+    }
+    
+    /**
+     * The running executions of each action, in the order started. Each 
+     * list is replaced rather than modified, so it may be read without locking.
+     */
+    private final ConcurrentMap<Action, List<Entry>> running;
     
-    private final Map<Action, Long> startTimes;
+    private final AtomicInteger runningCount;
+    
+    private final Queue<Entry> queue;
+    
+    private final AtomicInteger completedInQueue;
+    
+    private final AtomicBoolean sweeping;
+    
+    private final ConcurrentMap<String, LatencyHistogram> timesSpent;
+    
+    private final List<Consumer<Action>> completionListeners;
+    
+    private final double estimatePercentile;
 
     public ActionQueueImpl() {
-        this(new LinkedList());
+        this(50);
     }
 
-    public ActionQueueImpl(Queue<Action> queue) {
-        this.queue = Objects.requireNonNull(queue);
-        this.averageTimes = new HashMap<>();
-        this.startTimes = new HashMap<>();
+    /**
+     * @param estimatePercentile The percentile, from 0 to 100, of the time 
+     * spent by previous actions of the same type, used to estimate the time 
+     * an action will take. Higher percentiles give more pessimistic estimates.
+     */
+    public ActionQueueImpl(double estimatePercentile) {
+        if(estimatePercentile < 0 || estimatePercentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, found: " + estimatePercentile);
+        }
+        this.running = new ConcurrentHashMap<>();
+        this.runningCount = new AtomicInteger();
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.completedInQueue = new AtomicInteger();
+        this.sweeping = new AtomicBoolean();
+        this.timesSpent = new ConcurrentHashMap<>();
+        this.completionListeners = new CopyOnWriteArrayList<>();
+        this.estimatePercentile = estimatePercentile;
     }
     
     @Override
     public void onStarted(Action action) {
-        startTimes.put(action, System.currentTimeMillis());
-        queue.add(action);
+        final Entry entry = new Entry(action, System.currentTimeMillis(), Thread.currentThread());
+        running.merge(action, Collections.singletonList(entry), (executions, added) -> {
+            final List<Entry> update = new ArrayList<>(executions.size() + 1);
+            update.addAll(executions);
+            update.add(entry);
+            return Collections.unmodifiableList(update);
+        });
+        runningCount.incrementAndGet();
+        queue.add(entry);
     }
     
     @Override
     public void onCompleted(Action action) {
-        final Long startTime = startTimes.remove(action);
-        if(startTime != null) {
-            updateAverageTime(getTypeKey(action), startTime);
+        final Entry [] removed = new Entry[1];
+        running.computeIfPresent(action, (k, executions) -> {
+            final int index = this.indexOfExecution(executions, Thread.currentThread());
+            removed[0] = executions.get(index);
+            if(executions.size() == 1) {
+                return null;
+            }
+            final List<Entry> update = new ArrayList<>(executions);
+            update.remove(index);
+            return Collections.unmodifiableList(update);
+        });
+        final Entry entry = removed[0];
+        if(entry != null) {
+            runningCount.decrementAndGet();
+            updateAverageTime(getTypeKey(action), entry.startTime);
+            final CompletableFuture<Void> completion = entry.complete();
+            this.onEntryCompleted();
+            if(completion != null) {
+                completion.complete(null);
+            }
+            for(Consumer<Action> listener : completionListeners) {
+                try{
+                    listener.accept(action);
+                }catch(RuntimeException e) {
+                    logger.log(Level.WARNING, "Exception notifying listener of completion of: " + action, e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @param executions The running executions of an action
+     * @param thread The thread
+     * @return The index of the latest execution started by the thread, or 
+     * if none, of the earliest execution
+     */
+    private int indexOfExecution(List<Entry> executions, Thread thread) {
+        for(int i = executions.size() - 1; i >= 0; i--) {
+            if(executions.get(i).thread == thread) {
+                return i;
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * @param action The action
+     * @return The latest execution of the action started by the calling 
+     * thread, if any, otherwise the earliest execution, or null if the action
+     * is not running
+     */
+    private Entry getExecution(Action action) {
+        final List<Entry> executions = running.get(action);
+        return executions == null ? null : 
+                executions.get(this.indexOfExecution(executions, Thread.currentThread()));
+    }
+    
+    /**
+     * @param action The action
+     * @return A future completed once no execution of the action is running
+     */
+    @Override
+    public CompletableFuture<Void> getCompletionFuture(Action action) {
+        final List<Entry> executions = running.get(action);
+        if(executions == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final CompletableFuture [] completions = executions.stream()
+                .map((entry) -> entry.getCompletion())
+                .toArray(CompletableFuture[]::new);
+        // The action may have been started again meanwhile
+        return CompletableFuture.allOf(completions).thenCompose((none) -> this.getCompletionFuture(action));
+    }
+    
+    @Override
+    public CompletableFuture<Void> getCompletionFuture(Class type) {
+        final CompletableFuture [] running = this.queue.stream()
+                .filter((entry) -> !entry.completed && type.isAssignableFrom(entry.action.getClass()))
+                .map((entry) -> entry.getCompletion())
+                .toArray(CompletableFuture[]::new);
+        if(running.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Actions of the type may have started meanwhile
+        return CompletableFuture.allOf(running).thenCompose((none) -> this.getCompletionFuture(type));
+    }
+
+    @Override
+    public void addCompletionListener(Consumer<Action> listener) {
+        completionListeners.add(Objects.requireNonNull(listener));
+    }
+
+    @Override
+    public boolean removeCompletionListener(Consumer<Action> listener) {
+        return completionListeners.remove(listener);
+    }
+    
+    /**
+     * @param action The action
+     * @return The token of the execution of the action started by the 
+     * calling thread, if any, otherwise of the earliest execution
+     */
+    @Override
+    public CancellationToken getCancellationToken(Action action) {
+        final Entry entry = this.getExecution(action);
+        return entry == null ? CancellationToken.NONE : entry.getCancellation();
+    }
+
+    @Override
+    public int cancel(Predicate<Action> test) {
+        int count = 0;
+        for(List<Entry> executions : running.values()) {
+            for(Entry entry : executions) {
+                if(test.test(entry.action) && entry.getCancellation().cancel()) {
+                    ++count;
+                }
+            }
+        }
+        if(count > 0) {
+            logger.log(Level.FINE, "Cancelled {0} running actions", count);
+        }
+        return count;
+    }
+    
+    private void onEntryCompleted() {
+        final int completed = completedInQueue.incrementAndGet();
+        if(completed >= MIN_COMPLETED_BEFORE_SWEEP && completed > runningCount.get()) {
+            this.sweep();
+        }
+    }
+    
+    /**
+     * Remove completed entries from the queue. Only one thread sweeps at a
+     * time; others carry on without waiting.
+     */
+    private void sweep() {
+        if(!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try{
+            int removed = 0;
+            final Iterator<Entry> iter = queue.iterator();
+            while(iter.hasNext()) {
+                if(iter.next().completed) {
+                    iter.remove();
+                    ++removed;
+                }
+            }
+            final int count = removed;
+            completedInQueue.updateAndGet((n) -> Math.max(0, n - count));
+        }finally{
+            sweeping.set(false);
         }
-        queue.remove(action);
     }
 
+    /**
+     * @param action The action
+     * @return The start time of the execution of the action started by the 
+     * calling thread, if any, otherwise of the earliest execution
+     */
     @Override
     public long getStartTimeMillis(Action action) {
-        final Long startTime = startTimes.get(action);
-        return startTime == null ? -1 : startTime;
+        final Entry entry = this.getExecution(action);
+        return entry == null ? -1 : entry.startTime;
     }
     
     @Override
     public boolean isRunning(Action action) {
-        return getStartTimeMillis(action) != -1;
+        return running.containsKey(action);
     }
 
     @Override
     public long getAverageTimeSpentMillis(Class type, long outputIfNone) {
-        synchronized(averageTimes) {
-            final long [] arr = averageTimes.get(getKey(type));
-            return arr == null || arr[0] == 0 || arr[1] == 0 ? outputIfNone : arr[0] / arr[1];
-        }
+        final LatencyHistogram histogram = timesSpent.get(getKey(type));
+        return histogram == null ? outputIfNone : histogram.getMean(outputIfNone);
+    }
+
+    @Override
+    public long getEstimatedTimeSpentMillis(Class type, long outputIfNone) {
+        return this.getTimeSpentMillisAtPercentile(type, estimatePercentile, outputIfNone);
+    }
+    
+    public long getTimeSpentMillisAtPercentile(Class type, double percentile, long outputIfNone) {
+        final LatencyHistogram histogram = timesSpent.get(getKey(type));
+        return histogram == null ? outputIfNone : histogram.getValueAtPercentile(percentile, outputIfNone);
+    }
+
+    @Override
+    public LatencyHistogram getLatencyHistogram(Class type) {
+        return timesSpent.get(getKey(type));
     }
     
     public void updateAverageTime(String className, Long startTime) {
-        synchronized(averageTimes) {
-            long [] arr = averageTimes.get(className);
-            if(arr == null) {
-                arr = new long[]{0, 0};
-                averageTimes.put(className, arr);
-            }
-            final long timeTaken = System.currentTimeMillis() - startTime;
-            arr[0] += timeTaken;
-            arr[1] += 1;
-        }
+        final long timeTaken = System.currentTimeMillis() - startTime;
+        timesSpent.computeIfAbsent(className, (k) -> new LatencyHistogram()).record(timeTaken);
+    }
+
+    public double getEstimatePercentile() {
+        return estimatePercentile;
     }
     
     public String getTypeKey(Action action) {
@@ -105,51 +381,71 @@ public class ActionQueueImpl implements ActionQueue {
 
     @Override
     public Action element() {
-        return queue.element();
+        final Action action = this.peek();
+        if(action == null) {
+            throw new NoSuchElementException();
+        }
+        return action;
     }
 
     @Override
     public Action peek() {
-        return queue.peek();
+        Entry head;
+        while((head = queue.peek()) != null) {
+            if(!head.completed) {
+                return head.action;
+            }
+            if(queue.remove(head)) {
+                completedInQueue.updateAndGet((n) -> Math.max(0, n - 1));
+            }
+        }
+        return null;
     }
 
+    /**
+     * @return The number of running executions
+     */
     @Override
     public int size() {
-        return queue.size();
+        return runningCount.get();
     }
 
     @Override
     public boolean isEmpty() {
-        return queue.isEmpty();
+        return running.isEmpty();
     }
 
     @Override
     public boolean contains(Action action) {
-        return queue.contains(action);
+        return running.containsKey(action);
     }
 
+    /**
+     * @return A weakly consistent iterator over the running actions, in the 
+     * order they started. It does not support removal.
+     */
     @Override
     public Iterator<Action> iterator() {
-        return Collections.unmodifiableCollection(queue).iterator();
+        return this.stream().iterator();
     }
 
     @Override
     public Spliterator<Action> spliterator() {
-        return Collections.unmodifiableCollection(queue).spliterator();
+        return this.stream().spliterator();
     }
 
     @Override
     public Stream<Action> stream() {
-        return queue.stream();
+        return queue.stream().filter((entry) -> !entry.completed).map((entry) -> entry.action);
     }
 
     @Override
     public Stream<Action> parallelStream() {
-        return queue.parallelStream();
+        return queue.parallelStream().filter((entry) -> !entry.completed).map((entry) -> entry.action);
     }
 
     @Override
     public void forEach(Consumer<? super Action> action) {
-        queue.forEach(action);
+        this.stream().forEach(action);
     }
 }
@@ -28,6 +28,7 @@ import com.bc.appcore.AppCore;
 /**
  * @author Chinomso Bassey Ikwuagwu on Mar 22, 2017 8:29:08 AM
  */
+@Stateless
 public class DeleteAllTempFilesInDir implements Action<AppCore, List<File>>{
 
     public static final String RECURSIVE = "recursive";
@@ -26,6 +26,7 @@ import com.bc.appcore.exceptions.TaskExecutionException;
 /**
  * @author Chinomso Bassey Ikwuagwu on Mar 31, 2017 10:31:53 AM
  */
+@Stateless
 public class Exit implements Action<AppCore, Boolean> {
 
     @Override
@@ -27,11 +27,15 @@ public interface MeteredAction<A extends AppCore, O> extends Action<A, O> {
         if(!isRunning()) {
             throw new IllegalStateException(Action.class.getSimpleName()+" must be running before calling getEstimatedTimeLeftMillis()");
         }
-        final long averageTimeForThisAction = this.getAverageTimeSpentMillis(-1L);
-        if(averageTimeForThisAction == -1L) {
+        final long estimatedTimeForThisAction = this.getEstimatedTimeSpentMillis(-1L);
+        if(estimatedTimeForThisAction == -1L) {
             return outputIfNone;
         }
-        return getAverageTimeSpentMillis(outputIfNone) - (System.currentTimeMillis() - getStartTimeMillis());
+        return estimatedTimeForThisAction - (System.currentTimeMillis() - getStartTimeMillis());
+    }
+    
+    default long getEstimatedTimeSpentMillis(long outputIfNone) {
+        return this.getAverageTimeSpentMillis(outputIfNone);
     }
     
     default boolean isRunning() {
@@ -27,6 +27,7 @@ import java.util.Map;
 /**
  * @author Chinomso Bassey Ikwuagwu on Aug 19, 2017 4:39:27 PM
  */
+@Stateless
 public class RefreshSearchResults implements Action<AppCore, Boolean> {
 
     @Override
@@ -39,7 +40,13 @@ public class RefreshSearchResults implements Action<AppCore, Boolean> {
         
         final SearchResults searchResults = pe.getFirstValue(params, SearchResults.class);
         
-        return this.execute(persistenceUnitContext, searchResults);
+        app.getPagePrefetcher().cancel(searchResults);
+        
+        final Boolean output = this.execute(persistenceUnitContext, searchResults);
+        
+        app.getPagePrefetcher().onPageViewed(searchResults, searchResults.getPageNumber());
+        
+        return output;
     }
     
     public Boolean execute(PersistenceUnitContext context, SearchResults searchResults) {
@@ -21,10 +21,12 @@ import com.bc.appcore.exceptions.TaskExecutionException;
 import com.bc.appcore.jpa.SearchContext;
 import com.bc.appcore.parameter.ParameterException;
 import com.bc.appcore.parameter.ParameterExtractor;
+import com.bc.appcore.util.CancellationToken;
 import com.bc.jpa.dao.search.SearchResults;
 import com.bc.jpa.dao.search.SingleSearchResult;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,6 +37,27 @@ public class Search implements Action<AppCore, SearchResults> {
 
     private static final Logger logger = Logger.getLogger(Search.class.getName());
     
+    /**
+     * If the value of this parameter is true, a search of all rows pages by 
+     * key rather than by offset
+     * @see com.bc.appcore.jpa.SearchContext#searchAllByKeyset() 
+     */
+    public static final String PARAM_KEYSET_PAGING = "keysetPaging";
+    
+    /**
+     * The maximum time, in milliseconds, a search may take. Applied to the 
+     * queries of the search as the query timeout.
+     */
+    public static final String PARAM_TIMEOUT_MILLIS = "timeoutMillis";
+    
+    /**
+     * A native query to execute rather than a search of the query text
+     * @see com.bc.appcore.jpa.SearchContext#executeNativeQuery(java.lang.String, com.bc.appcore.util.CancellationToken) 
+     */
+    public static final String PARAM_NATIVE_QUERY = "nativeQuery";
+    
+    private volatile Class resultType;
+    
     @Override
     public SearchResults execute(AppCore app, Map<String, Object> params) 
             throws ParameterException, TaskExecutionException {
@@ -51,31 +74,102 @@ public class Search implements Action<AppCore, SearchResults> {
         
         final boolean hasQuery = textToFind != null && !textToFind.isEmpty();
         
+        final String nativeQuery = (String)params.get(PARAM_NATIVE_QUERY);
+        
+        final ActionQueue actionQueue = app.getActionQueue();
+        
+        this.resultType = entityType;
+        
+        final boolean register = !actionQueue.isRunning(this);
+        
+        if(register) {
+            actionQueue.onStarted(this);
+        }
+        
+        // Outlives this action, to close the resources of the search results
+        // if cancelled while this action runs, and is closed with them
+        final CancellationToken token = new CancellationToken();
+        
         SearchResults searchResults;
         
-        if(hasQuery) {
+        final int pageCount;
+        
+        try{
             
-            try{
-                
-                final Integer ID = Integer.parseInt(textToFind);
-                final Object entity = searchContext.getSelectDao().find(searchContext.getResultType(), ID);
-                searchResults = entity == null ? SearchResults.EMPTY_INSTANCE : new SingleSearchResult<>(entity);
+            // A new search supersedes those still running for the same type
+            actionQueue.cancel((action) -> action != this && 
+                    action instanceof Search && ((Search)action).getResultType() == entityType);
+            
+            actionQueue.getCancellationToken(this).onCancel(token::cancel);
+            
+            final long timeoutMillis = this.getTimeoutMillis(params, -1L);
+            if(timeoutMillis > 0) {
+                token.timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            
+            if(nativeQuery != null) {
                 
-            }catch(NumberFormatException ignored) {
+                logger.finer(() -> "Executing native query: " + nativeQuery);
+                searchResults = searchContext.executeNativeQuery(nativeQuery, token);
                 
-                logger.finer(() -> "Beginning search for " + textToFind);
-                searchResults = searchContext.searchAll(textToFind);
-                logger.finer(() -> "Completed search for " + textToFind);
+            }else if(hasQuery) {
+
+                try{
+
+                    final Integer ID = Integer.parseInt(textToFind);
+                    final Object entity = searchContext.getSelectDao().find(searchContext.getResultType(), ID);
+                    searchResults = entity == null ? SearchResults.EMPTY_INSTANCE : new SingleSearchResult<>(entity);
+
+                }catch(NumberFormatException ignored) {
+
+                    logger.finer(() -> "Beginning search for " + textToFind);
+                    searchResults = searchContext.searchAll(textToFind, token);
+                    logger.finer(() -> "Completed search for " + textToFind);
+                }
+            }else{
+                logger.finer("Beginning search");
+                if(Boolean.TRUE.equals(params.get(PARAM_KEYSET_PAGING))) {
+                    token.throwIfCancelled();
+                    searchResults = searchContext.searchAllByKeyset();
+                }else{
+                    searchResults = searchContext.searchAll(token);
+                }
+                logger.finer("Completed search");
+            } 
+            
+            // Runs the first query of lazily loaded results while cancellable
+            pageCount = searchResults.getPageCount();
+            
+            token.throwIfCancelled();
+            
+            // Pages loaded later have the timeout of their queries
+            token.clearTimeout();
+            
+        }catch(RuntimeException e) {
+            token.cancel();
+            throw e;
+        }finally{
+            if(register) {
+                actionQueue.onCompleted(this);
             }
-        }else{
-            logger.finer("Beginning search");
-            searchResults = searchContext.searchAll();
-            logger.finer("Completed search");
-        } 
+        }
+        
+        // The current page is viewed first, so the pages after it are prefetched
+        if(pageCount > 1) {
+            app.getPagePrefetcher().onPageViewed(searchResults, searchResults.getPageNumber());
+        }
         
         return searchResults;
     }
 
+    /**
+     * @return The type of entity searched by the latest execution of this 
+     * action, or null if not yet executed
+     */
+    public Class getResultType() {
+        return resultType;
+    }
+
     public SearchContext getSearchContext(AppCore app, Map<String, Object> params) {
         final ParameterExtractor pe = app.getOrException(ParameterExtractor.class);
         SearchContext searchContext = pe.getFirstValue(params, SearchContext.class, null);
@@ -92,6 +186,11 @@ public class Search implements Action<AppCore, SearchResults> {
 //        return textToFind == null ? outputIfNone : '%' + textToFind + '%';
 //    }
     
+    public long getTimeoutMillis(Map<String, Object> params, long outputIfNone) {
+        final Object value = params.get(PARAM_TIMEOUT_MILLIS);
+        return value == null ? outputIfNone : ((Number)value).longValue();
+    }
+    
     public String getTextToFind(Map<String, Object> params, String outputIfNone) {
         final String textToFind = (String)params.get("query");
         return textToFind;
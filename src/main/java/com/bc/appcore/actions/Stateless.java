@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.actions;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link com.bc.appcore.actions.Action Action} which keeps no state
+ * between, or during, executions, so that one instance may be shared by all
+ * callers. Not inherited: each sub-class must be marked separately.
+ * <p>
+ * Concurrent executions of a shared instance are tracked separately by 
+ * {@link com.bc.appcore.actions.ActionQueueImpl ActionQueueImpl}, but waiting 
+ * on the instance, e.g via 
+ * {@link com.bc.appcore.actions.ActionQueue#getCompletionFuture(com.bc.appcore.actions.Action)},
+ * waits for all its executions.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 11:22:40 AM
+ * @see com.bc.appcore.functions.CreateActionFromClassName
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Stateless { }
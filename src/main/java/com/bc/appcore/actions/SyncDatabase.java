@@ -24,10 +24,12 @@ import java.util.logging.Logger;
 import com.bc.appcore.AppCore;
 import com.bc.appcore.Names;
 import com.bc.appcore.ResultHandler;
+import com.bc.appcore.util.TargetQueue;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Chinomso Bassey Ikwuagwu on Mar 8, 2017 10:29:57 PM
@@ -46,6 +48,8 @@ public class SyncDatabase implements Action<AppCore, Boolean> {
         final ResultHandler resultHandler = (ResultHandler)
                 params.getOrDefault(Names.RESULT_HANDLER, app.getResultHandler("Sync"));
                 
+        // A dedicated, non daemon thread, so that the sync is not interrupted 
+        // when the app's action executor is shut down, and is completed before the JVM exits
         new Thread(this.getClass().getName()+"_Thread") {
             @Override
             public void run() {
@@ -59,7 +63,15 @@ public class SyncDatabase implements Action<AppCore, Boolean> {
                     
                     Collections.sort(masterTypes, app.getEntityOrderComparator());
                     
-                    app.getPendingSlaveUpdateQueue().pause();
+                    final TargetQueue pendingUpdates = app.getPendingSlaveUpdateQueue();
+                    
+                    if(pendingUpdates.isSuspended()) {
+                        Logger.getLogger(this.getClass().getName()).log(Level.WARNING, 
+                                "Updates to slave database suspended after repeated failures, next retry in {0} seconds. Pending updates: {1}",
+                                new Object[]{pendingUpdates.getRetryDelay(TimeUnit.SECONDS), pendingUpdates.getElementCount()});
+                    }
+                    
+                    pendingUpdates.pause();
 
                     jpaSync.sync(new LinkedHashSet(masterTypes));
 
@@ -20,12 +20,15 @@ import com.bc.appcore.AppCore;
 import com.bc.appcore.exceptions.TaskExecutionException;
 import com.bc.appcore.parameter.ParameterException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * @author Chinomso Bassey Ikwuagwu on Aug 26, 2017 5:52:39 PM
  */
+@Stateless
 public class WaitTillActionCompletes implements Action<AppCore, Boolean>{
 
     private transient static final Logger logger = Logger.getLogger(WaitTillActionCompletes.class.getName());
@@ -42,7 +45,7 @@ public class WaitTillActionCompletes implements Action<AppCore, Boolean>{
         Boolean interrupted = Boolean.FALSE;
         
         try{
-            this.waitTillActionCompletes(app, firstValue, 100);
+            this.waitTillActionCompletes(app, firstValue);
         }catch(InterruptedException e) {
             interrupted = Boolean.TRUE;
             logger.log(Level.WARNING, "", e);
@@ -51,16 +54,29 @@ public class WaitTillActionCompletes implements Action<AppCore, Boolean>{
         return interrupted;
     }
     
-    public synchronized void waitTillActionCompletes(
-            AppCore app, Object obj, long interval) 
+    /**
+     * @param app The app
+     * @param obj The action, or type of action, to wait for
+     * @param interval Ignored. Completion is signalled, rather than polled
+     * @throws InterruptedException
+     * @throws ParameterException
+     * @deprecated Use {@link #waitTillActionCompletes(com.bc.appcore.AppCore, java.lang.Object)}
+     */
+    @Deprecated
+    public void waitTillActionCompletes(AppCore app, Object obj, long interval) 
+            throws InterruptedException, ParameterException {
+        this.waitTillActionCompletes(app, obj);
+    }
+    
+    public void waitTillActionCompletes(AppCore app, Object obj) 
             throws InterruptedException, ParameterException {
         if(obj instanceof Class) {
         
-            this.waitTillActionCompletes(app, (Class)obj, interval);
+            this.waitTillActionCompletes(app, (Class)obj);
             
         }else if (obj instanceof Action) {
             
-            this.waitTillActionCompletes(app, (Action)obj, interval);
+            this.waitTillActionCompletes(app, (Action)obj);
             
         }else{
             
@@ -68,29 +84,49 @@ public class WaitTillActionCompletes implements Action<AppCore, Boolean>{
         }
     }
     
-    public synchronized void waitTillActionCompletes(
-            AppCore app, Class clazz, long interval) 
+    /**
+     * @param app The app
+     * @param clazz The type of action to wait for
+     * @param interval Ignored. Completion is signalled, rather than polled
+     * @throws InterruptedException
+     * @deprecated Use {@link #waitTillActionCompletes(com.bc.appcore.AppCore, java.lang.Class)}
+     */
+    @Deprecated
+    public void waitTillActionCompletes(AppCore app, Class clazz, long interval) 
+            throws InterruptedException {
+        this.waitTillActionCompletes(app, clazz);
+    }
+    
+    public void waitTillActionCompletes(AppCore app, Class clazz) 
             throws InterruptedException {
         
-        try{
-            while(app.getActionQueue().isAnyRunning(clazz)) {
-                this.wait(interval);
-            }
-        }finally{
-            this.notifyAll();
-        }
+        this.await(app.getActionQueue().getCompletionFuture(clazz));
     }
 
-    public synchronized void waitTillActionCompletes(
-            AppCore app, Action action, long interval) 
+    /**
+     * @param app The app
+     * @param action The action to wait for
+     * @param interval Ignored. Completion is signalled, rather than polled
+     * @throws InterruptedException
+     * @deprecated Use {@link #waitTillActionCompletes(com.bc.appcore.AppCore, com.bc.appcore.actions.Action)}
+     */
+    @Deprecated
+    public void waitTillActionCompletes(AppCore app, Action action, long interval) 
+            throws InterruptedException {
+        this.waitTillActionCompletes(app, action);
+    }
+    
+    public void waitTillActionCompletes(AppCore app, Action action) 
             throws InterruptedException {
         
+        this.await(app.getActionQueue().getCompletionFuture(action));
+    }
+    
+    private void await(CompletableFuture<Void> completion) throws InterruptedException {
         try{
-            while(app.getActionQueue().isRunning(action)) {
-                this.wait(interval);
-            }
-        }finally{
-            this.notifyAll();
+            completion.get();
+        }catch(ExecutionException e) {
+            logger.log(Level.WARNING, "Unexpected exception waiting for action to complete", e.getCause());
         }
     }
     
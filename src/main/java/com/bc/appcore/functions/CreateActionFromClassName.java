@@ -17,18 +17,36 @@
 package com.bc.appcore.functions;
 
 import com.bc.appcore.actions.Action;
-import java.lang.reflect.InvocationTargetException;
+import com.bc.appcore.actions.Stateless;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Creates actions from the names of their classes. Each class name is 
+ * resolved once, to a supplier which invokes the public no-arg constructor 
+ * via a cached {@link java.lang.invoke.MethodHandle MethodHandle}. Classes 
+ * marked {@link com.bc.appcore.actions.Stateless Stateless} are instantiated 
+ * once, and the instance shared.
  * @author Chinomso Bassey Ikwuagwu on Jul 29, 2017 9:46:53 AM
  */
 public class CreateActionFromClassName implements Function<String, Action> {
 
     private static final Logger logger = Logger.getLogger(CreateActionFromClassName.class.getName());
     
+    private static final MethodType NO_ARG_CONSTRUCTOR = MethodType.methodType(void.class);
+    
+    /**
+     * Shared by all instances, as the classes of actions do not change
+     */
+    private static final ConcurrentMap<String, Supplier<Action>> SUPPLIERS = new ConcurrentHashMap<>();
+    
     private final Level logLevel;
 
     public CreateActionFromClassName() {
@@ -41,15 +59,48 @@ public class CreateActionFromClassName implements Function<String, Action> {
 
     @Override
     public Action apply(String className) {
+        // If resolution fails nothing is cached, so it is retried next time
+        final Supplier<Action> supplier = SUPPLIERS.computeIfAbsent(className, this::createSupplier);
+        final Action action = supplier.get();
+        logger.log(logLevel, "Created action: {0}", action);
+        return action;
+    }
+    
+    private Supplier<Action> createSupplier(String className) {
+        final Class aClass;
+        final MethodHandle constructor;
         try{
-            final Class aClass = Class.forName(className);
-            final Action action = (Action)aClass.getConstructor().newInstance();
-            logger.log(logLevel, "Created action: {0}", action);
-            return action;
-        }catch(ClassNotFoundException | NoSuchMethodException | SecurityException | 
-                InstantiationException | IllegalAccessException | 
-                IllegalArgumentException | InvocationTargetException e) {
+            aClass = Class.forName(className);
+            constructor = MethodHandles.publicLookup().findConstructor(aClass, NO_ARG_CONSTRUCTOR)
+                    .asType(MethodType.methodType(Action.class));
+        }catch(ClassNotFoundException | NoSuchMethodException | 
+                IllegalAccessException | ClassCastException | SecurityException e) {
             throw new RuntimeException("Exception create instance of " + className, e);
         }
+        
+        final Supplier<Action> supplier = () -> {
+            try{
+                return (Action)constructor.invokeExact();
+            }catch(RuntimeException | Error e) {
+                throw e;
+            }catch(Throwable t) {
+                throw new RuntimeException("Exception create instance of " + className, t);
+            }
+        };
+        
+        if(aClass.isAnnotationPresent(Stateless.class)) {
+            final Action instance = supplier.get();
+            logger.log(Level.FINE, "Sharing instance of stateless action: {0}", className);
+            return () -> instance;
+        }
+        
+        return supplier;
+    }
+    
+    /**
+     * Forget all resolved classes, e.g after the classes have been reloaded
+     */
+    public static void clearCache() {
+        SUPPLIERS.clear();
     }
 }
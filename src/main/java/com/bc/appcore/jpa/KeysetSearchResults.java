@@ -0,0 +1,311 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa;
+
+import com.bc.jpa.dao.SelectDao;
+import com.bc.jpa.dao.search.BaseSearchResults;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+
+/**
+ * Search results which page by key rather than by offset. Each page is
+ * selected as the rows whose key is greater than the last key of the previous
+ * page, in key order, so the database seeks to the page via the key's index
+ * instead of reading and skipping all the rows before it.
+ * <p>
+ * The last key of each page loaded is remembered. Moving to the next or the
+ * previous page, or to any page already visited, costs the same as loading
+ * the first page. Jumping to a page not yet visited first finds the last key
+ * of the page before it with a single index-only query for one key, at an
+ * offset from the nearest key known: forward from a page visited before it,
+ * backward from a page visited after it, or backward from the last row. So
+ * the offset is never more than the rows between the nearest known keys.
+ * </p>
+ * <p>
+ * Results are in key order; any ordering of the select dao is not used for
+ * paging. The key must be unique, non-null and sortable, e.g the entity id.
+ * The size and page count are those of the select dao, which must therefore
+ * select all rows of the entity type.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 4:12:45 PM
+ * @param <T> The type of the entity
+ */
+public class KeysetSearchResults<T> extends BaseSearchResults<T> implements AutoCloseable {
+
+    private transient static final Logger logger = Logger.getLogger(KeysetSearchResults.class.getName());
+
+    private static final int MAX_CACHED_PAGES = 16;
+
+    private final EntityManager entityManager;
+
+    private final Class<T> entityType;
+
+    private final String keyAttribute;
+
+    private final int pageSize;
+
+    private final Function<Query, Query> queryFormatter;
+
+    /**
+     * The last key of each page loaded
+     */
+    private final TreeMap<Integer, Object> lastKeys;
+
+    private final Map<Integer, List<T>> pages;
+
+    /**
+     * Page by the entity's id
+     */
+    public KeysetSearchResults(SelectDao<T> dao, EntityManager entityManager,
+            Class<T> entityType, int pageSize, boolean useCache,
+            Function<Query, Query> queryFormatter) {
+        this(dao, entityManager, entityType, getIdAttribute(entityManager, entityType),
+                pageSize, useCache, queryFormatter);
+    }
+
+    /**
+     * @param dao Selects all rows of the entity type. Provides the size.
+     * @param entityManager Used to load pages. Closed when these results are closed.
+     * @param entityType The type of the entity
+     * @param keyAttribute The name of a unique, non-null, sortable attribute of the entity
+     * @param pageSize The number of results per page
+     * @param useCache If true the most recently viewed pages are kept in memory
+     * @param queryFormatter Applied to the query of each page, e.g to add hints
+     */
+    public KeysetSearchResults(SelectDao<T> dao, EntityManager entityManager,
+            Class<T> entityType, String keyAttribute, int pageSize, boolean useCache,
+            Function<Query, Query> queryFormatter) {
+        super(dao, pageSize, useCache);
+        this.entityManager = Objects.requireNonNull(entityManager);
+        this.entityType = Objects.requireNonNull(entityType);
+        this.keyAttribute = Objects.requireNonNull(keyAttribute);
+        this.pageSize = pageSize;
+        this.queryFormatter = Objects.requireNonNull(queryFormatter);
+        this.lastKeys = new TreeMap<>();
+        this.pages = !useCache ? null : new LinkedHashMap<Integer, List<T>>(MAX_CACHED_PAGES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return this.size() > MAX_CACHED_PAGES;
+            }
+        };
+    }
+
+    public static String getIdAttribute(EntityManager entityManager, Class entityType) {
+        for(Object attribute : entityManager.getMetamodel().entity(entityType).getSingularAttributes()) {
+            final SingularAttribute singular = (SingularAttribute)attribute;
+            if(singular.isId()) {
+                return singular.getName();
+            }
+        }
+        throw new IllegalArgumentException("No single id attribute for: " + entityType.getName());
+    }
+
+    @Override
+    public synchronized List<T> getPage(int pageNumber) {
+
+        if(pageNumber < 0) {
+            throw new IndexOutOfBoundsException("Page number: " + pageNumber);
+        }
+
+        if(pages != null) {
+            final List<T> page = pages.get(pageNumber);
+            if(page != null) {
+                return page;
+            }
+        }
+
+        final Object keyBefore = pageNumber == 0 ? null : this.getLastKey(pageNumber - 1);
+
+        final List<T> page;
+        if(pageNumber > 0 && keyBefore == null) {
+            page = Collections.emptyList();
+        }else{
+            page = this.loadPageAfter(keyBefore, pageNumber);
+        }
+
+        if(pages != null) {
+            pages.put(pageNumber, page);
+        }
+
+        return page;
+    }
+
+    /**
+     * @param keyBefore The key after which to select, or null to select from the first row
+     * @param maxResults The maximum number of rows to select
+     * @return Rows of <code>[entity, key]</code>, in key order
+     */
+    protected List<Object[]> selectAfter(Object keyBefore, int maxResults) {
+
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        final Root<T> root = cq.from(entityType);
+        final Path<Comparable> key = root.get(keyAttribute);
+        cq.multiselect(root, key);
+        if(keyBefore != null) {
+            cq.where(cb.greaterThan(key, (Comparable)keyBefore));
+        }
+        cq.orderBy(cb.asc(key));
+
+        final Query query = queryFormatter.apply(entityManager.createQuery(cq));
+        query.setFirstResult(0);
+        query.setMaxResults(maxResults);
+
+        return (List<Object[]>)query.getResultList();
+    }
+
+    /**
+     * @param bound The key from which to seek, or null to seek from the first
+     * row if <code>forward</code>, or from the last row if not
+     * @param forward If true seek the keys greater than the bound in ascending
+     * order, otherwise the keys less than the bound in descending order
+     * @param offset The number of keys to skip
+     * @return The key at the offset, or null if there is no such key
+     */
+    protected Object selectKey(Object bound, boolean forward, int offset) {
+
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Comparable> cq = cb.createQuery(Comparable.class);
+        final Root<T> root = cq.from(entityType);
+        final Path<Comparable> key = root.get(keyAttribute);
+        cq.select(key);
+        if(bound != null) {
+            cq.where(forward ? cb.greaterThan(key, (Comparable)bound) : cb.lessThan(key, (Comparable)bound));
+        }
+        cq.orderBy(forward ? cb.asc(key) : cb.desc(key));
+
+        final Query query = queryFormatter.apply(entityManager.createQuery(cq));
+        query.setFirstResult(offset);
+        query.setMaxResults(1);
+
+        final List keys = query.getResultList();
+        return keys.isEmpty() ? null : keys.get(0);
+    }
+
+    private List<T> loadPageAfter(Object keyBefore, int pageNumber) {
+
+        final List<Object[]> rows = this.selectAfter(keyBefore, pageSize);
+
+        final List<T> page = new ArrayList<>(rows.size());
+        for(Object[] row : rows) {
+            page.add((T)row[0]);
+        }
+        if(!rows.isEmpty()) {
+            lastKeys.put(pageNumber, rows.get(rows.size() - 1)[1]);
+        }
+
+        logger.log(Level.FINER, "Loaded page {0} of {1} after key: {2}",
+                new Object[]{pageNumber, entityType.getSimpleName(), keyBefore});
+
+        return Collections.unmodifiableList(page);
+    }
+
+    /**
+     * @return The last key of the page, or null if the page is beyond the last
+     */
+    private Object getLastKey(int pageNumber) {
+
+        final Object known = lastKeys.get(pageNumber);
+        if(known != null) {
+            return known;
+        }
+
+        final int size = this.getSize();
+        if((long)pageNumber * pageSize >= size) {
+            return null;
+        }
+
+        final int row = (int)Math.min((long)(pageNumber + 1) * pageSize, size) - 1;
+
+        // Seek backward from the last row, unless a known key is nearer
+        Object bound = null;
+        boolean forward = false;
+        int offset = size - 1 - row;
+
+        final Map.Entry<Integer, Object> before = lastKeys.lowerEntry(pageNumber);
+        final int rowBefore = before == null ? -1 : (before.getKey() + 1) * pageSize - 1;
+        if(row - rowBefore - 1 < offset) {
+            bound = before == null ? null : before.getValue();
+            forward = true;
+            offset = row - rowBefore - 1;
+        }
+
+        final Map.Entry<Integer, Object> after = lastKeys.higherEntry(pageNumber);
+        if(after != null) {
+            final int rowAfter = (int)Math.min((long)(after.getKey() + 1) * pageSize, size) - 1;
+            if(rowAfter - row - 1 < offset) {
+                bound = after.getValue();
+                forward = false;
+                offset = rowAfter - row - 1;
+            }
+        }
+
+        final Object lastKey = this.selectKey(bound, forward, offset);
+
+        logger.log(Level.FINER, "Last key of page {0}: {1}, seeking {2} keys {3} key: {4}",
+                new Object[]{pageNumber, lastKey, offset, forward ? "after" : "before", bound});
+
+        if(lastKey != null) {
+            lastKeys.put(pageNumber, lastKey);
+        }
+
+        return lastKey;
+    }
+
+    @Override
+    public synchronized void reset() {
+        lastKeys.clear();
+        if(pages != null) {
+            pages.clear();
+        }
+        super.reset();
+    }
+
+    @Override
+    public void close() {
+        if(entityManager.isOpen()) {
+            entityManager.close();
+        }
+    }
+
+    public String getKeyAttribute() {
+        return keyAttribute;
+    }
+
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+}
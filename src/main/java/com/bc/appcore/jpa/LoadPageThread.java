@@ -22,7 +22,11 @@ import java.util.logging.Logger;
 
 /**
  * @author Chinomso Bassey Ikwuagwu on Feb 24, 2017 9:07:35 AM
+ * @deprecated Creates a thread per page. Use {@link com.bc.appcore.AppCore#getPagePrefetcher()}
+ * and call {@link com.bc.appcore.jpa.PagePrefetcher#onPageViewed(com.bc.jpa.dao.search.SearchResults, int)}
+ * for each page viewed.
  */
+@Deprecated
 public class LoadPageThread extends Thread {
 
     private final SearchResults searchResults;
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa;
+
+import com.bc.jpa.dao.search.SearchResults;
+
+/**
+ * Loads the pages of {@link com.bc.jpa.dao.search.SearchResults SearchResults}
+ * likely to be viewed next, in the background, so that they are available
+ * when viewed.
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 2:08:51 PM
+ */
+public interface PagePrefetcher {
+
+    PagePrefetcher NO_OP = new PagePrefetcher() {
+        @Override
+        public void onPageViewed(SearchResults searchResults, int pageNumber) { }
+        @Override
+        public void cancel(SearchResults searchResults) { }
+        @Override
+        public long getHitCount() { return 0; }
+        @Override
+        public long getMissCount() { return 0; }
+        @Override
+        public void shutdown() { }
+    };
+
+    /**
+     * Notify that the specified page is being viewed. Prefetches of pages no
+     * longer likely to be viewed are cancelled, and pages likely to be viewed
+     * next are prefetched.
+     * @param searchResults The search results being viewed
+     * @param pageNumber The page being viewed
+     */
+    void onPageViewed(SearchResults searchResults, int pageNumber);
+
+    /**
+     * Cancel all prefetches of the search results, and forget them. Call
+     * when the search results are reset or closed.
+     * @param searchResults The search results
+     */
+    void cancel(SearchResults searchResults);
+
+    /**
+     * Each page of a search results is counted once, however often viewed.
+     * @return The number of pages viewed after being prefetched
+     */
+    long getHitCount();
+
+    /**
+     * Each page of a search results is counted once, however often viewed.
+     * @return The number of pages viewed, other than the first of each search
+     * results, which had not been prefetched
+     */
+    long getMissCount();
+
+    default double getHitRate() {
+        final long total = this.getHitCount() + this.getMissCount();
+        return total == 0 ? 0 : (double)this.getHitCount() / total;
+    }
+
+    void shutdown();
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa;
+
+import com.bc.appcore.util.BlockingQueueThreadPoolExecutor;
+import com.bc.jpa.dao.search.SearchResults;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prefetches pages on a bounded pool shared by all search results.
+ * <p>
+ * Pages are prefetched in the direction of the most recent move. The number
+ * of pages prefetched grows with the paging speed: up to <code>maxPagesAhead</code>
+ * when pages are viewed less than a second apart on average, down to one
+ * page when they are viewed more than {@link #SLOW_PAGING_MILLIS} apart.
+ * </p>
+ * <p>
+ * The pages of each search results are loaded one at a time, by a single
+ * task which loads the pages waiting in turn, as page loads run on the
+ * EntityManager of the search results. A page load is not interrupted once
+ * started; cancelling only removes the pages waiting. When the pool's queue
+ * is full the oldest waiting task is discarded, along with its pages.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 2:21:37 PM
+ */
+public class PagePrefetcherImpl implements PagePrefetcher {
+
+    private transient static final Logger logger = Logger.getLogger(PagePrefetcherImpl.class.getName());
+
+    public static final long FAST_PAGING_MILLIS = 1000;
+
+    public static final long SLOW_PAGING_MILLIS = 5000;
+
+    /**
+     * Weight of the latest interval in the moving average of intervals
+     */
+    private static final double INTERVAL_WEIGHT = 0.3;
+
+    /**
+     * Discards the oldest waiting task, so that the search results it would
+     * prefetch for are no longer held by the queue, and may be prefetched for
+     * again.
+     */
+    private static final RejectedExecutionHandler DISCARD_OLDEST_TASK = (task, executor) -> {
+        if(executor.isShutdown()) {
+            discard(task);
+        }else{
+            discard(executor.getQueue().poll());
+            executor.execute(task);
+        }
+    };
+
+    private static final class PagingState {
+        private int lastPage = -1;
+        private long lastViewTime;
+        private double averageIntervalMillis = -1;
+        private int direction = 1;
+        /**
+         * The pages waiting to be prefetched, in order
+         */
+        private final Set<Integer> pending = new LinkedHashSet<>();
+        /**
+         * The page being prefetched, or -1 if none
+         */
+        private int loading = -1;
+        /**
+         * The pages prefetched and not yet viewed
+         */
+        private final Set<Integer> prefetched = new HashSet<>();
+        /**
+         * The task loading the pending pages, or null if none is queued or running
+         */
+        private PrefetchTask task;
+        /**
+         * The pages viewed, so that each page is counted as a hit or miss once
+         */
+        private final Set<Integer> viewed = new HashSet<>();
+    }
+
+    /**
+     * Loads the pending pages of one search results, one at a time, until
+     * none is left or the task is no longer that of the search results.
+     */
+    private final class PrefetchTask implements Runnable {
+
+        private final SearchResults searchResults;
+
+        private final PagingState state;
+
+        private PrefetchTask(SearchResults searchResults, PagingState state) {
+            this.searchResults = searchResults;
+            this.state = state;
+        }
+
+        @Override
+        public void run() {
+            while(true) {
+                final int pageNumber;
+                synchronized(state) {
+                    if(state.task != this || state.pending.isEmpty()) {
+                        if(state.task == this) {
+                            state.task = null;
+                        }
+                        return;
+                    }
+                    final Iterator<Integer> iter = state.pending.iterator();
+                    pageNumber = iter.next();
+                    iter.remove();
+                    state.loading = pageNumber;
+                }
+                final boolean loaded = load(searchResults, pageNumber);
+                synchronized(state) {
+                    state.loading = -1;
+                    if(loaded && state.task == this && !state.viewed.contains(pageNumber)) {
+                        state.prefetched.add(pageNumber);
+                    }
+                }
+            }
+        }
+
+        private void discard() {
+            synchronized(state) {
+                if(state.task == this) {
+                    state.task = null;
+                    state.pending.clear();
+                }
+            }
+            logger.log(Level.FINE, "Discarded prefetch of search results");
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    private final int maxPagesAhead;
+
+    /**
+     * Weak keys, so that search results no longer viewed are forgotten
+     */
+    private final Map<SearchResults, PagingState> states;
+
+    private final LongAdder hits;
+
+    private final LongAdder misses;
+
+    public PagePrefetcherImpl() {
+        this(2, 3);
+    }
+
+    /**
+     * @param threads The maximum number of pages loaded at a time, for all
+     * search results. The pages of each search results load one at a time.
+     * @param maxPagesAhead The maximum number of pages prefetched ahead of the page viewed
+     */
+    public PagePrefetcherImpl(int threads, int maxPagesAhead) {
+        if(maxPagesAhead < 1) {
+            throw new IllegalArgumentException("Max pages ahead < 1");
+        }
+        this.executor = new BlockingQueueThreadPoolExecutor(
+                this.getClass().getSimpleName() + "_Thread", 
+                Math.max(16, threads * 2), threads, threads, DISCARD_OLDEST_TASK);
+        this.executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+        this.executor.allowCoreThreadTimeOut(true);
+        this.maxPagesAhead = maxPagesAhead;
+        this.states = Collections.synchronizedMap(new WeakHashMap<>());
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    @Override
+    public void onPageViewed(SearchResults searchResults, int pageNumber) {
+
+        final PagingState state = states.computeIfAbsent(searchResults, (k) -> new PagingState());
+
+        final int pageCount = searchResults.getPageCount();
+
+        synchronized(state) {
+
+            final long now = System.currentTimeMillis();
+
+            state.pending.remove(pageNumber);
+            final boolean prefetched = state.prefetched.remove(pageNumber);
+            if(state.viewed.add(pageNumber) && state.lastPage != -1) {
+                if(prefetched) {
+                    hits.increment();
+                }else{
+                    misses.increment();
+                }
+            }
+
+            if(state.lastPage != -1 && pageNumber != state.lastPage) {
+                state.direction = pageNumber > state.lastPage ? 1 : -1;
+                final long interval = now - state.lastViewTime;
+                state.averageIntervalMillis = state.averageIntervalMillis < 0 ? interval :
+                        INTERVAL_WEIGHT * interval + (1 - INTERVAL_WEIGHT) * state.averageIntervalMillis;
+            }
+            state.lastPage = pageNumber;
+            state.lastViewTime = now;
+
+            final int pagesAhead = this.getPagesAhead(state.averageIntervalMillis);
+            final Set<Integer> targets = new LinkedHashSet<>(pagesAhead);
+            for(int i=1; i<=pagesAhead; i++) {
+                final int target = pageNumber + state.direction * i;
+                if(target >= 0 && target < pageCount) {
+                    targets.add(target);
+                }
+            }
+
+            state.pending.retainAll(targets);
+            state.prefetched.retainAll(targets);
+
+            for(Integer target : targets) {
+                if(target != state.loading && !state.prefetched.contains(target)) {
+                    state.pending.add(target);
+                }
+            }
+
+            if(state.task == null && !state.pending.isEmpty()) {
+                state.task = new PrefetchTask(searchResults, state);
+                executor.execute(state.task);
+            }
+
+            logger.log(Level.FINER, "Viewed page: {0}, prefetching: {1}", new Object[]{pageNumber, targets});
+        }
+    }
+
+    /**
+     * @param averageIntervalMillis The average time between page views, or -1 if unknown
+     * @return The number of pages to prefetch
+     */
+    protected int getPagesAhead(double averageIntervalMillis) {
+        if(averageIntervalMillis < 0 || averageIntervalMillis >= SLOW_PAGING_MILLIS) {
+            return 1;
+        }
+        if(averageIntervalMillis < FAST_PAGING_MILLIS) {
+            return maxPagesAhead;
+        }
+        final double fraction = (SLOW_PAGING_MILLIS - averageIntervalMillis) / (SLOW_PAGING_MILLIS - FAST_PAGING_MILLIS);
+        return Math.max(1, (int)Math.round(fraction * maxPagesAhead));
+    }
+
+    private static void discard(Runnable task) {
+        if(task instanceof PrefetchTask) {
+            ((PrefetchTask)task).discard();
+        }
+    }
+
+    private boolean load(SearchResults searchResults, int pageNumber) {
+        try{
+            searchResults.getPage(pageNumber);
+            logger.log(Level.FINE, "Pre-emptively loaded page {0} for search results", pageNumber);
+            return true;
+        }catch(RuntimeException e) {
+            logger.log(Level.WARNING, "Unexpected exception", e);
+            return false;
+        }
+    }
+
+    @Override
+    public void cancel(SearchResults searchResults) {
+        final PagingState state = states.remove(searchResults);
+        if(state != null) {
+            synchronized(state) {
+                if(state.task != null) {
+                    executor.remove(state.task);
+                    state.task = null;
+                }
+                state.pending.clear();
+                state.prefetched.clear();
+            }
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        try{
+            com.bc.util.Util.shutdownAndAwaitTermination(this.executor, 1, TimeUnit.SECONDS);
+        }catch(Exception e) {
+            logger.log(Level.WARNING, "Error shutting down page prefetcher", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{hits=" + this.getHitCount() + 
+                ", misses=" + this.getMissCount() + ", hitRate=" + this.getHitRate() + '}';
+    }
+}
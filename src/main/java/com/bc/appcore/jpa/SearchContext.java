@@ -16,6 +16,7 @@
 
 package com.bc.appcore.jpa;
 
+import com.bc.appcore.util.CancellationToken;
 import com.bc.jpa.dao.SelectDao;
 import com.bc.jpa.dao.search.SearchResults;
 import java.util.function.Function;
@@ -44,18 +45,82 @@ public interface SearchContext<T> {
         return this.getSearchResults(this.getSelectDao(), queryFormatter);
     }
 
+    /**
+     * Search all rows of the result type, paging by key rather than by 
+     * offset, so that deep pages cost as little as the first page.
+     * By default, the same as {@link #searchAll()}.
+     * @return The search results, in key order
+     * @see com.bc.appcore.jpa.KeysetSearchResults
+     */
+    default SearchResults<T> searchAllByKeyset() {
+        return this.searchAll();
+    }
+
+    /**
+     * Search all rows of the result type, for reading from start to end in 
+     * constant memory, e.g for exports and aggregations. By default, the 
+     * same as {@link #searchAll()}.
+     * @param chunkSize The number of rows loaded at a time
+     * @return The search results, in key order
+     * @see com.bc.appcore.jpa.StreamingSearchResults
+     */
+    default SearchResults<T> searchAllStreaming(int chunkSize) {
+        return this.searchAll();
+    }
+
+    /**
+     * Search all rows, applying the token's timeout, if any, to the queries.
+     * By default, only checks the token before searching.
+     * @param token Cancels the search, including queries run later to load 
+     * pages of the results, until the results are closed.
+     * @return The search results
+     * @throws java.util.concurrent.CancellationException If the token is cancelled
+     */
+    default SearchResults<T> searchAll(CancellationToken token) {
+        token.throwIfCancelled();
+        return this.searchAll();
+    }
+
     default SearchResults<T> searchAll(String textToFind) {
         return this.searchAll(textToFind, (query) -> query);
     }
     
     SearchResults<T> searchAll(String textToFind, Function<Query, Query> queryFormatter);
 
+    /**
+     * Search the rows containing the text, applying the token's timeout, if
+     * any, to the queries. By default, only checks the token before and after 
+     * searching.
+     * @param textToFind The text to find
+     * @param token Cancels the search
+     * @return The search results
+     * @throws java.util.concurrent.CancellationException If the token is cancelled
+     */
+    default SearchResults<T> searchAll(String textToFind, CancellationToken token) {
+        token.throwIfCancelled();
+        final SearchResults<T> searchResults = this.searchAll(textToFind);
+        token.throwIfCancelled();
+        return searchResults;
+    }
+
     default SearchResults<T> executeNativeQuery(String sql) {
         return this.executeNativeQuery(sql, (query) -> query);
     }
     
     SearchResults<T> executeNativeQuery(String sql, Function<Query, Query> queryFormatter);
 
+    /**
+     * @param sql The native query
+     * @param token Cancels the query, until the results are closed. By 
+     * default, only checked before the query.
+     * @return The search results
+     * @throws java.util.concurrent.CancellationException If the token is cancelled
+     */
+    default SearchResults<T> executeNativeQuery(String sql, CancellationToken token) {
+        token.throwIfCancelled();
+        return this.executeNativeQuery(sql);
+    }
+
     SelectDao<T> getSelectDao();
     
     default SearchResults<T> getSearchResults(SelectDao<T> dao) {
@@ -17,6 +17,7 @@
 package com.bc.appcore.jpa;
 
 import com.bc.appcore.AppContext;
+import com.bc.appcore.util.CancellationToken;
 import com.bc.jpa.dao.SelectDao;
 import com.bc.jpa.dao.search.BaseSearchResults;
 import com.bc.jpa.dao.search.SearchResults;
@@ -30,6 +31,15 @@ import java.util.Objects;
 import com.bc.jpa.dao.search.ListSearchResults;
 import java.io.Serializable;
 import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
 import java.util.function.Function;
 import com.bc.jpa.dao.Select;
 import com.bc.jpa.paging.PagingUtil;
@@ -44,18 +54,58 @@ public class SearchContextImpl<T> implements SearchContext<T>, Serializable {
     private static class AutoCloseableQuerySearchResults 
             extends QuerySearchResults implements AutoCloseable {
         private final EntityManager em;
+        private final CancellationToken token;
         public AutoCloseableQuerySearchResults(EntityManager em, Query query, int batchSize, boolean useCache) {
+            this(em, query, batchSize, useCache, CancellationToken.NONE);
+        }
+        public AutoCloseableQuerySearchResults(EntityManager em, Query query, int batchSize, boolean useCache,
+                CancellationToken token) {
             super(query, batchSize, useCache);
             this.em = Objects.requireNonNull(em);
+            this.token = Objects.requireNonNull(token);
+        }
+        @Override
+        public void close() {
+            token.close();
+            if(em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    private static class AutoCloseableBaseSearchResults<T>
+            extends BaseSearchResults<T> implements AutoCloseable {
+        private final EntityManager em;
+        private final CancellationToken token;
+        public AutoCloseableBaseSearchResults(EntityManager em, Class<T> resultType, int batchSize, boolean useCache,
+                CancellationToken token) {
+            super(new SelectImpl(em, resultType), batchSize, useCache);
+            this.em = Objects.requireNonNull(em);
+            this.token = Objects.requireNonNull(token);
         }
         @Override
         public void close() {
+            token.close();
             if(em.isOpen()) {
                 em.close();
             }
         }
     }
 
+    /**
+     * The standard hint for the query timeout in milliseconds. Providers apply 
+     * it via the JDBC query timeout, which drivers enforce by cancelling the 
+     * statement.
+     */
+    public static final String HINT_QUERY_TIMEOUT = "javax.persistence.query.timeout";
+    
+    private static final Function<Query, Query> NO_FORMAT = (query) -> query;
+
+    /**
+     * Keeps the IN lists of queries by id within the limits of most databases
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
     private final AppContext context;
     
     private final Class<T> resultType;
@@ -63,13 +113,31 @@ public class SearchContextImpl<T> implements SearchContext<T>, Serializable {
     private final int pageSize;
     
     private final boolean useCache;
+    
+    private final boolean keysetPaging;
 
     public SearchContextImpl(
             AppContext context, Class<T> resultType, int pageSize, boolean useCache) {
+        this(context, resultType, pageSize, useCache, false);
+    }
+    
+    /**
+     * @param context The app context
+     * @param resultType The type of entity searched
+     * @param pageSize The number of results per page
+     * @param useCache If true, pages loaded are kept in memory
+     * @param keysetPaging If true, searches of all rows page by the entity's id, 
+     * rather than by offset. 
+     * @see #searchAllByKeyset() 
+     */
+    public SearchContextImpl(
+            AppContext context, Class<T> resultType, int pageSize, boolean useCache, 
+            boolean keysetPaging) {
         this.context = Objects.requireNonNull(context);
         this.resultType = Objects.requireNonNull(resultType);
         this.pageSize = pageSize;
         this.useCache = useCache;
+        this.keysetPaging = keysetPaging;
     }
 
     @Override
@@ -96,13 +164,197 @@ public class SearchContextImpl<T> implements SearchContext<T>, Serializable {
         return builder.toString();
     }
 
+    @Override
+    public SearchResults<T> searchAll(Function<Query, Query> queryFormatter) {
+        return this.keysetPaging ? this.searchAllByKeyset(queryFormatter) : 
+                this.getSearchResults(this.getSelectDao(), queryFormatter);
+    }
+    
+    @Override
+    public SearchResults<T> searchAllByKeyset() {
+        return this.searchAllByKeyset((query) -> query);
+    }
+    
+    public SearchResults<T> searchAllByKeyset(Function<Query, Query> queryFormatter) {
+        Objects.requireNonNull(resultType);
+        final EntityManager em = context.getActivePersistenceUnitContext().getEntityManager();
+        return new KeysetSearchResults<>(new SelectImpl(em, resultType), em, 
+                resultType, this.pageSize, this.useCache, queryFormatter);
+    }
+
+    @Override
+    public SearchResults<T> searchAllStreaming(int chunkSize) {
+        return this.searchAllStreaming(chunkSize, (query) -> query);
+    }
+    
+    public SearchResults<T> searchAllStreaming(int chunkSize, Function<Query, Query> queryFormatter) {
+        Objects.requireNonNull(resultType);
+        final EntityManager em = context.getActivePersistenceUnitContext().getEntityManager();
+        return new StreamingSearchResults<>(new SelectImpl(em, resultType), em, 
+                resultType, this.pageSize, chunkSize, queryFormatter);
+    }
+
+    /**
+     * The results load their pages through an EntityManager of their own,
+     * which is closed if the token is cancelled. Closing the results closes 
+     * the token. The token's timeout, if any, is applied to the queries.
+     */
+    @Override
+    public SearchResults<T> searchAll(CancellationToken token) {
+        token.throwIfCancelled();
+        final Function<Query, Query> queryFormatter = this.withTimeout(NO_FORMAT, token);
+        final EntityManager em = context.getActivePersistenceUnitContext().getEntityManager();
+        final AutoCloseable searchResults;
+        if(this.keysetPaging) {
+            searchResults = new KeysetSearchResults<T>(new SelectImpl(em, resultType), em, 
+                    resultType, this.pageSize, this.useCache, queryFormatter) {
+                @Override
+                public void close() {
+                    token.close();
+                    super.close();
+                }
+            };
+        }else{
+            final AutoCloseableBaseSearchResults<T> baseSearchResults = new AutoCloseableBaseSearchResults<>(
+                    em, resultType, this.pageSize, this.useCache, token);
+            queryFormatter.apply(baseSearchResults.getQuery());
+            searchResults = baseSearchResults;
+        }
+        this.closeOnCancel(searchResults, token);
+        return (SearchResults<T>)searchResults;
+    }
+    
+    private void closeOnCancel(AutoCloseable closeable, CancellationToken token) {
+        token.onCancel(() -> {
+            try{
+                closeable.close();
+            }catch(Exception e) {
+                logger.log(Level.WARNING, "Exception closing: " + closeable, e);
+            }
+        });
+    }
+
+    @Override
+    public SearchResults<T> searchAll(String textToFind) {
+        return this.searchAll(textToFind, CancellationToken.NONE);
+    }
+
+    /**
+     * If the app context's {@link com.bc.appcore.jpa.TextIndex TextIndex} 
+     * finds the ids of the matching entities, only those entities are loaded.
+     * Otherwise the same as {@link #searchAll(java.lang.String, java.util.function.Function)},
+     * with the token's timeout applied to the query.
+     */
+    @Override
+    public SearchResults<T> searchAll(String textToFind, CancellationToken token) {
+        token.throwIfCancelled();
+        final List ids = context.getTextIndex().search(resultType, textToFind);
+        if(ids == null) {
+            return this.searchAll(textToFind, NO_FORMAT, token);
+        }
+        logger.log(Level.FINE, "Indexed search of {0} for: {1}, found: {2}", 
+                new Object[]{resultType.getSimpleName(), textToFind, ids.size()});
+        return new ListSearchResults(this.findAllById(ids), this.pageSize, this.useCache);
+    }
+
+    /**
+     * The ids found are cached in the app context's 
+     * {@link com.bc.appcore.jpa.SearchResultCache SearchResultCache}. Repeated
+     * searches, with the same query formatter instance, load the entities by id.
+     */
     @Override
     public SearchResults<T> searchAll(String textToFind, Function<Query, Query> queryFormatter) {
-        final List<T> found = context.getActivePersistenceUnitContext().getTextSearch().search(
-                this.getResultType(), textToFind, queryFormatter);
+        return this.searchAll(textToFind, queryFormatter, CancellationToken.NONE);
+    }
+    
+    private SearchResults<T> searchAll(String textToFind, 
+            Function<Query, Query> queryFormatter, CancellationToken token) {
+        final SearchResultCache cache = context.getSearchResultCache();
+        final List ids = cache.getIds(resultType, textToFind, queryFormatter);
+        final List<T> found;
+        if(ids != null) {
+            found = this.findAllById(ids);
+            logger.log(Level.FINE, "Cached search of {0} for: {1}, found: {2}", 
+                    new Object[]{resultType.getSimpleName(), textToFind, found.size()});
+        }else{
+            final long version = cache.getVersion();
+            found = context.getActivePersistenceUnitContext().getTextSearch().search(
+                    this.getResultType(), textToFind, this.withTimeout(queryFormatter, token));
+            token.throwIfCancelled();
+            if(cache != SearchResultCache.NO_OP) {
+                cache.putIds(resultType, textToFind, queryFormatter, this.getIds(found), version);
+            }
+        }
         return new ListSearchResults(found, this.pageSize, this.useCache);
     }
     
+    /**
+     * @param queryFormatter The query formatter
+     * @param token The token whose timeout, if any, is to be applied
+     * @return A query formatter which also sets the query timeout to the 
+     * time remaining, now, before the token times out. The same timeout 
+     * applies to each query formatted, e.g to each page loaded later.
+     */
+    private Function<Query, Query> withTimeout(Function<Query, Query> queryFormatter, CancellationToken token) {
+        final long timeoutMillis = token.getRemaining(TimeUnit.MILLISECONDS, -1L);
+        if(timeoutMillis < 0) {
+            return queryFormatter;
+        }
+        final Integer hintValue = (int)Math.min(Integer.MAX_VALUE, Math.max(1L, timeoutMillis));
+        return queryFormatter.andThen((query) -> query.setHint(HINT_QUERY_TIMEOUT, hintValue));
+    }
+    
+    private List getIds(List<T> entities) {
+        final EntityManager em = context.getActivePersistenceUnitContext().getEntityManager();
+        try{
+            final PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+            final List ids = new ArrayList(entities.size());
+            for(T entity : entities) {
+                ids.add(util.getIdentifier(entity));
+            }
+            return ids;
+        }finally{
+            em.close();
+        }
+    }
+    
+    /**
+     * @param ids The ids of the entities to find
+     * @return The entities found, in the order of the ids. Entities removed 
+     * since the ids were cached are not returned.
+     */
+    private List<T> findAllById(List ids) {
+        if(ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final EntityManager em = context.getActivePersistenceUnitContext().getEntityManager();
+        try{
+            final String idAttribute = KeysetSearchResults.getIdAttribute(em, resultType);
+            final PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+            final Map<Object, T> byId = new HashMap<>(ids.size() * 4 / 3 + 1);
+            final CriteriaBuilder cb = em.getCriteriaBuilder();
+            for(int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+                final List chunk = ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_QUERY));
+                final CriteriaQuery<T> cq = cb.createQuery(resultType);
+                final Root<T> root = cq.from(resultType);
+                cq.select(root).where(root.get(idAttribute).in(chunk));
+                for(T entity : em.createQuery(cq).getResultList()) {
+                    byId.put(util.getIdentifier(entity), entity);
+                }
+            }
+            final List<T> found = new ArrayList<>(byId.size());
+            for(Object id : ids) {
+                final T entity = byId.get(id);
+                if(entity != null) {
+                    found.add(entity);
+                }
+            }
+            return found;
+        }finally{
+            em.close();
+        }
+    }
+    
     @Override
     public SearchResults<T> executeNativeQuery(String sql, Function<Query, Query> queryFormatter) {
         final EntityManager em = context.getActivePersistenceUnitContext().getEntityManager();
@@ -113,6 +365,24 @@ public class SearchContextImpl<T> implements SearchContext<T>, Serializable {
         return searchResults;
     }
 
+    /**
+     * The query runs through an EntityManager of its own, which is closed if 
+     * the token is cancelled, so that a long running query frees its 
+     * resources at once. Closing the results closes the token. The token's 
+     * timeout, if any, is applied to the query.
+     */
+    @Override
+    public SearchResults<T> executeNativeQuery(String sql, CancellationToken token) {
+        token.throwIfCancelled();
+        final EntityManager em = context.getActivePersistenceUnitContext().getEntityManager();
+        final Query query = resultType == null ? em.createNativeQuery(sql) : em.createNativeQuery(sql, resultType);
+        this.withTimeout(NO_FORMAT, token).apply(query);
+        final AutoCloseableQuerySearchResults searchResults = new AutoCloseableQuerySearchResults(
+                em, query, this.pageSize, this.useCache, token);
+        this.closeOnCancel(searchResults, token);
+        return searchResults;
+    }
+
     @Override
     public SelectDao<T> getSelectDao() {
         Objects.requireNonNull(resultType);
@@ -140,4 +410,8 @@ public class SearchContextImpl<T> implements SearchContext<T>, Serializable {
     public boolean isUseCache() {
         return useCache;
     }
+
+    public boolean isKeysetPaging() {
+        return keysetPaging;
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa;
+
+import java.util.List;
+
+/**
+ * Caches the ids of the entities found by text searches, keyed by the result 
+ * type, the text searched and the identity of the query formatter, so that 
+ * repeated searches load the entities by id instead of searching again.
+ * <p>
+ * Entries of a type are invalidated when entities of the type are written, 
+ * via {@link #invalidate(java.lang.Class)}. 
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 8:05:17 PM
+ */
+public interface SearchResultCache {
+
+    SearchResultCache NO_OP = new SearchResultCache() {
+        @Override
+        public long getVersion() { return 0; }
+        @Override
+        public List getIds(Class resultType, String text, Object queryFormatter) { return null; }
+        @Override
+        public boolean putIds(Class resultType, String text, Object queryFormatter, List ids, long version) { return false; }
+        @Override
+        public void invalidate(Class entityType) { }
+        @Override
+        public void invalidateAll() { }
+        @Override
+        public int size() { return 0; }
+        @Override
+        public long getHitCount() { return 0; }
+        @Override
+        public long getMissCount() { return 0; }
+    };
+
+    /**
+     * @return A number which changes each time entries are invalidated. Read 
+     * before searching, and pass to {@link #putIds(java.lang.Class, java.lang.String, java.lang.Object, java.util.List, long) putIds}.
+     */
+    long getVersion();
+
+    /**
+     * @param resultType The type of entity searched
+     * @param text The text searched
+     * @param queryFormatter The query formatter of the search, compared by identity
+     * @return The ids of the entities found, in the order found, or null if not cached
+     */
+    List getIds(Class resultType, String text, Object queryFormatter);
+
+    /**
+     * @param resultType The type of entity searched
+     * @param text The text searched
+     * @param queryFormatter The query formatter of the search, compared by identity
+     * @param ids The ids of the entities found, in the order found
+     * @param version The {@link #getVersion() version} read before the search
+     * @return true if cached, false if entries were invalidated since the 
+     * version was read, in which case the ids may be stale and are not cached.
+     */
+    boolean putIds(Class resultType, String text, Object queryFormatter, List ids, long version);
+
+    /**
+     * Invalidate the entries whose result type is the same as, a super type 
+     * of or a sub type of the entity type.
+     * @param entityType The type of entity written
+     */
+    void invalidate(Class entityType);
+
+    void invalidateAll();
+
+    int size();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    default double getHitRatio() {
+        final long hits = this.getHitCount();
+        final long total = hits + this.getMissCount();
+        return total == 0 ? 0 : (double)hits / total;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded {@link com.bc.appcore.jpa.SearchResultCache SearchResultCache}
+ * which evicts the least recently used entry when full. Entries also expire 
+ * after a maximum age, to bound the staleness of results after writes which 
+ * are not reported, e.g by other apps using the same database.
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 8:19:42 PM
+ */
+public class SearchResultCacheImpl implements SearchResultCache {
+
+    private static final class Key {
+        private final Class resultType;
+        private final String text;
+        private final Object queryFormatter;
+        private final int hashCode;
+        private Key(Class resultType, String text, Object queryFormatter) {
+            this.resultType = Objects.requireNonNull(resultType);
+            this.text = Objects.requireNonNull(text);
+            this.queryFormatter = Objects.requireNonNull(queryFormatter);
+            this.hashCode = 31 * (31 * resultType.hashCode() + text.hashCode()) + 
+                    System.identityHashCode(queryFormatter);
+        }
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key)o;
+            return this.resultType == other.resultType && this.queryFormatter == other.queryFormatter &&
+                    this.text.equals(other.text);
+        }
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class Entry {
+        private final List ids;
+        private final long timeCreated;
+        private Entry(List ids, long timeCreated) {
+            this.ids = ids;
+            this.timeCreated = timeCreated;
+        }
+    }
+
+    private final int maximumSize;
+
+    private final long maxAgeMillis;
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final LongAdder hits;
+
+    private final LongAdder misses;
+
+    private long version;
+
+    public SearchResultCacheImpl() {
+        this(100, 2, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param maximumSize The maximum number of searches cached
+     * @param maxAge The maximum age of a cached search
+     * @param timeUnit The time unit of maxAge
+     */
+    public SearchResultCacheImpl(int maximumSize, long maxAge, TimeUnit timeUnit) {
+        if(maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size < 1");
+        }
+        this.maximumSize = maximumSize;
+        this.maxAgeMillis = timeUnit.toMillis(maxAge);
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return this.size() > SearchResultCacheImpl.this.maximumSize;
+            }
+        };
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    @Override
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    @Override
+    public List getIds(Class resultType, String text, Object queryFormatter) {
+        final Key key = new Key(resultType, text, queryFormatter);
+        final Entry entry;
+        synchronized(this) {
+            final Entry found = entries.get(key);
+            if(found != null && System.currentTimeMillis() - found.timeCreated > maxAgeMillis) {
+                entries.remove(key);
+                entry = null;
+            }else{
+                entry = found;
+            }
+        }
+        if(entry == null) {
+            misses.increment();
+            return null;
+        }else{
+            hits.increment();
+            return entry.ids;
+        }
+    }
+
+    @Override
+    public synchronized boolean putIds(Class resultType, String text, Object queryFormatter, List ids, long version) {
+        if(version != this.version) {
+            return false;
+        }
+        entries.put(new Key(resultType, text, queryFormatter), 
+                new Entry(Collections.unmodifiableList(new ArrayList(ids)), System.currentTimeMillis()));
+        return true;
+    }
+
+    @Override
+    public synchronized void invalidate(Class entityType) {
+        Objects.requireNonNull(entityType);
+        ++version;
+        final Iterator<Key> iter = entries.keySet().iterator();
+        while(iter.hasNext()) {
+            final Class resultType = iter.next().resultType;
+            if(resultType.isAssignableFrom(entityType) || entityType.isAssignableFrom(resultType)) {
+                iter.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        ++version;
+        entries.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getMaxAge(TimeUnit timeUnit) {
+        return timeUnit.convert(maxAgeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{size=" + this.size() + 
+                ", hits=" + this.getHitCount() + ", misses=" + this.getMissCount() + 
+                ", hitRatio=" + String.format("%.3f", this.getHitRatio()) + '}';
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa;
+
+import com.bc.jpa.dao.SelectDao;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+/**
+ * {@link com.bc.appcore.jpa.KeysetSearchResults KeysetSearchResults} which 
+ * may also be read from start to end, one chunk at a time, in constant memory. 
+ * Use for exports and aggregations over all rows, via {@link #iterateAll()},
+ * {@link #streamAll()} or {@link #forEachChunk(java.util.function.Consumer)}.
+ * <p>
+ * Each chunk is selected by key, with the JDBC fetch size set to the chunk 
+ * size. Before each chunk is loaded, the entity manager is cleared, so 
+ * the entities of earlier chunks are detached and may be garbage collected.
+ * Hence, the entity manager must not be shared, and lazy relations of 
+ * entities from earlier chunks are not available.
+ * </p>
+ * Pages are not cached, as that would defeat the purpose.
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 6:40:03 PM
+ * @param <T> The type of the entity
+ */
+public class StreamingSearchResults<T> extends KeysetSearchResults<T> {
+
+    private transient static final Logger logger = Logger.getLogger(StreamingSearchResults.class.getName());
+
+    public static final String HINT_FETCH_SIZE = "eclipselink.jdbc.fetch-size";
+
+    private final int chunkSize;
+
+    /**
+     * @param dao Selects all rows of the entity type. Provides the size.
+     * @param entityManager Used only by this object. Cleared between chunks 
+     * and closed when this object is closed.
+     * @param entityType The type of the entity
+     * @param pageSize The number of results per page, when read by page
+     * @param chunkSize The number of results per chunk, when read from start to end
+     * @param queryFormatter Applied to each query, e.g to add hints
+     */
+    public StreamingSearchResults(SelectDao<T> dao, EntityManager entityManager,
+            Class<T> entityType, int pageSize, int chunkSize,
+            Function<Query, Query> queryFormatter) {
+        super(dao, entityManager, entityType, pageSize, false,
+                queryFormatter.andThen((query) -> query.setHint(HINT_FETCH_SIZE, chunkSize)));
+        if(chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size < 1");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Pass each chunk of results, in key order, to the consumer. The entities
+     * of each chunk are detached once the consumer returns.
+     * @param consumer The consumer of the chunks
+     * @return The total number of results
+     */
+    public long forEachChunk(Consumer<List<T>> consumer) {
+        long total = 0;
+        Object lastKey = null;
+        while(true) {
+            this.getEntityManager().clear();
+            final List<Object[]> rows = this.selectAfter(lastKey, chunkSize);
+            if(rows.isEmpty()) {
+                break;
+            }
+            final List<T> chunk = new ArrayList<>(rows.size());
+            for(Object[] row : rows) {
+                chunk.add((T)row[0]);
+            }
+            lastKey = rows.get(rows.size() - 1)[1];
+            total += chunk.size();
+            consumer.accept(Collections.unmodifiableList(chunk));
+            if(rows.size() < chunkSize) {
+                break;
+            }
+        }
+        this.getEntityManager().clear();
+        logger.log(Level.FINE, "Streamed {0} {1}", new Object[]{total, this.getEntityType().getSimpleName()});
+        return total;
+    }
+
+    /**
+     * @return An iterator over all the results, in key order, loading one 
+     * chunk at a time. Each call returns a new iterator, which starts a new 
+     * pass over the rows.
+     */
+    public Iterator<T> iterateAll() {
+        return new Iterator<T>() {
+            private Iterator<T> chunk = Collections.emptyIterator();
+            private Object lastKey;
+            private boolean exhausted;
+            @Override
+            public boolean hasNext() {
+                if(chunk.hasNext()) {
+                    return true;
+                }
+                if(exhausted) {
+                    return false;
+                }
+                getEntityManager().clear();
+                final List<Object[]> rows = selectAfter(lastKey, chunkSize);
+                exhausted = rows.size() < chunkSize;
+                if(rows.isEmpty()) {
+                    return false;
+                }
+                lastKey = rows.get(rows.size() - 1)[1];
+                final List<T> entities = new ArrayList<>(rows.size());
+                for(Object[] row : rows) {
+                    entities.add((T)row[0]);
+                }
+                chunk = entities.iterator();
+                return true;
+            }
+            @Override
+            public T next() {
+                if(!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+    }
+
+    /**
+     * @return A sequential stream of all the results, in key order
+     * @see #iterateAll() 
+     */
+    public Stream<T> streamAll() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                this.iterateAll(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An in-memory index of the words in the text columns of entities, so that 
+ * text searches of indexed types may be answered without a scan of the 
+ * database.
+ * <p>
+ * Keep the index current by reporting each entity written, via 
+ * {@link #update(java.lang.Object)} and {@link #remove(java.lang.Object)}.
+ * Entities of types not indexed are ignored.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 9:31:08 PM
+ */
+public interface TextIndex {
+
+    TextIndex NO_OP = new TextIndex() {
+        @Override
+        public Set<Class> getEntityTypes() { return Collections.EMPTY_SET; }
+        @Override
+        public boolean isReady(Class entityType) { return false; }
+        @Override
+        public List search(Class entityType, String text) { return null; }
+        @Override
+        public void rebuild(Class entityType, Iterable entities) { }
+        @Override
+        public void update(Object entity) { }
+        @Override
+        public void remove(Object entity) { }
+    };
+
+    /**
+     * @return The entity types indexed
+     */
+    Set<Class> getEntityTypes();
+
+    /**
+     * @param entityType The entity type
+     * @return true if the entity type is indexed, and its index has been built
+     */
+    boolean isReady(Class entityType);
+
+    /**
+     * @param entityType The type of entity to search
+     * @param text The text to search for
+     * @return The ids of the entities with a text column containing the 
+     * text, as a database search by <code>LIKE '%text%'</code> would find 
+     * them, or null if the search should be left to the database: e.g if the
+     * type's index is not {@link #isReady(java.lang.Class) ready}, or the 
+     * text has no words.
+     */
+    List search(Class entityType, String text);
+
+    /**
+     * Replace the index of the entity type with one of the entities. Entities 
+     * reported written while the index is rebuilt are applied after.
+     * @param entityType The entity type
+     * @param entities All the entities of the type. Read once.
+     */
+    void rebuild(Class entityType, Iterable entities);
+
+    /**
+     * @param entity An entity persisted or merged
+     */
+    void update(Object entity);
+
+    /**
+     * @param entity An entity removed
+     */
+    void remove(Object entity);
+}
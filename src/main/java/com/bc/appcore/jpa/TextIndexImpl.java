@@ -0,0 +1,447 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa;
+
+import com.bc.appcore.typeprovider.ColumnNamesProvider;
+import com.bc.jpa.context.PersistenceUnitContext;
+import com.bc.jpa.dao.util.EntityMemberAccess;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link com.bc.appcore.jpa.TextIndex TextIndex} of the String valued
+ * columns of each entity type, as named by the
+ * {@link com.bc.appcore.typeprovider.ColumnNamesProvider ColumnNamesProvider}.
+ * <p>
+ * The text of each column is kept, in lower case, along with the words of
+ * the text. Words are split at each character which is neither a letter nor
+ * a digit. A column containing the text searched contains each word of the
+ * text within one of its words, so the rows having a word which contains
+ * any one word of the text are the candidates. Of these, the rows with a
+ * column containing the whole text are found, as by <code>LIKE '%text%'</code>
+ * on each column, with a case insensitive collation.
+ * </p>
+ * <p>
+ * The candidates are those of the word of the text which the fewest rows
+ * contain. If those are more than <code>maxCandidates</code>, e.g for a
+ * text of only short words, the search is left to the database. The words
+ * containing a word of the text are found through the distinct sequences of
+ * up to {@value #GRAM_LENGTH} characters of each indexed word, rather than by
+ * a scan of all the words.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 9:48:50 PM
+ */
+public class TextIndexImpl implements TextIndex {
+
+    private transient static final Logger logger = Logger.getLogger(TextIndexImpl.class.getName());
+
+    /**
+     * The longest sequence of characters by which words are looked up
+     */
+    public static final int GRAM_LENGTH = 3;
+
+    public static final int DEFAULT_MAX_CANDIDATES = 10_000;
+
+    private static final class Postings {
+
+        private final Map<String, Set<Object>> idsByWord = new HashMap<>();
+
+        /**
+         * The words containing each sequence of 1 to GRAM_LENGTH characters
+         */
+        private final Map<String, Set<String>> wordsByGram = new HashMap<>();
+
+        /**
+         * The text of each column, in lower case, or null if not text
+         */
+        private final Map<Object, String[]> textsById = new HashMap<>();
+
+        private void put(Object id, String [] texts) {
+            this.remove(id);
+            final Set<String> words = getWords(texts);
+            if(words.isEmpty()) {
+                return;
+            }
+            textsById.put(id, texts);
+            for(String word : words) {
+                Set<Object> ids = idsByWord.get(word);
+                if(ids == null) {
+                    ids = new HashSet<>(4);
+                    idsByWord.put(word, ids);
+                    for(String gram : getGrams(word)) {
+                        wordsByGram.computeIfAbsent(gram, (k) -> new HashSet<>(4)).add(word);
+                    }
+                }
+                ids.add(id);
+            }
+        }
+
+        private void remove(Object id) {
+            final String [] texts = textsById.remove(id);
+            if(texts == null) {
+                return;
+            }
+            for(String word : getWords(texts)) {
+                final Set<Object> ids = idsByWord.get(word);
+                if(ids != null && ids.remove(id) && ids.isEmpty()) {
+                    idsByWord.remove(word);
+                    for(String gram : getGrams(word)) {
+                        final Set<String> gramWords = wordsByGram.get(gram);
+                        if(gramWords != null && gramWords.remove(word) && gramWords.isEmpty()) {
+                            wordsByGram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param queryWord A word, in lower case
+         * @return The indexed words containing the word
+         */
+        private Collection<String> getWordsContaining(String queryWord) {
+            if(queryWord.length() <= GRAM_LENGTH) {
+                final Set<String> words = wordsByGram.get(queryWord);
+                return words == null ? Collections.emptySet() : words;
+            }
+            Set<String> fewest = null;
+            for(int i = 0; i + GRAM_LENGTH <= queryWord.length(); i++) {
+                final Set<String> words = wordsByGram.get(queryWord.substring(i, i + GRAM_LENGTH));
+                if(words == null) {
+                    return Collections.emptySet();
+                }
+                if(fewest == null || words.size() < fewest.size()) {
+                    fewest = words;
+                }
+            }
+            final List<String> output = new ArrayList<>();
+            for(String word : fewest) {
+                if(word.contains(queryWord)) {
+                    output.add(word);
+                }
+            }
+            return output;
+        }
+
+        private boolean contains(Object id, String lowerCaseText) {
+            final String [] texts = textsById.get(id);
+            if(texts != null) {
+                for(String text : texts) {
+                    if(text != null && text.contains(lowerCaseText)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private final class TypeIndex {
+
+        private final Class entityType;
+
+        private final String [] columnNames;
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private Postings postings;
+
+        /**
+         * Entities written while the index is rebuilt. Null if not rebuilding.
+         * The value is null for entities removed.
+         */
+        private Map<Object, Object> writtenDuringRebuild;
+
+        private TypeIndex(Class entityType, Collection<String> columnNames) {
+            this.entityType = entityType;
+            this.columnNames = columnNames.toArray(new String[0]);
+        }
+
+        private String [] getTexts(EntityMemberAccess access, Object entity) {
+            final String [] texts = new String[columnNames.length];
+            for(int i=0; i<columnNames.length; i++) {
+                final Object value = access.getValue(entity, columnNames[i]);
+                if(value instanceof String) {
+                    texts[i] = ((String)value).toLowerCase(Locale.ROOT);
+                }
+            }
+            return texts;
+        }
+
+        private void write(Object entity, boolean removed) {
+            final EntityMemberAccess access = getMemberAccess(entityType);
+            final Object id = access.getId(entity);
+            if(id == null) {
+                return;
+            }
+            final String [] texts = removed ? null : this.getTexts(access, entity);
+            lock.writeLock().lock();
+            try{
+                if(writtenDuringRebuild != null) {
+                    writtenDuringRebuild.put(id, removed ? null : entity);
+                }
+                if(postings != null) {
+                    if(removed) {
+                        postings.remove(id);
+                    }else{
+                        postings.put(id, texts);
+                    }
+                }
+            }finally{
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private final PersistenceUnitContext puContext;
+
+    private final Map<Class, TypeIndex> indexes;
+
+    private final int maxCandidates;
+
+    public TextIndexImpl(PersistenceUnitContext puContext, Collection<Class> entityTypes) {
+        this(puContext, entityTypes, DEFAULT_MAX_CANDIDATES);
+    }
+
+    /**
+     * @param puContext The persistence unit of the entities
+     * @param entityTypes The entity types to index
+     * @param maxCandidates The most rows to test for the text searched. If
+     * more are candidates, the search is left to the database.
+     */
+    public TextIndexImpl(PersistenceUnitContext puContext, Collection<Class> entityTypes, int maxCandidates) {
+        this.puContext = Objects.requireNonNull(puContext);
+        this.maxCandidates = maxCandidates;
+        final ColumnNamesProvider columnNamesProvider = new ColumnNamesProvider(puContext);
+        final Map<Class, TypeIndex> map = new LinkedHashMap<>();
+        for(Class entityType : entityTypes) {
+            final Set<String> columnNames = columnNamesProvider.get(entityType);
+            if(columnNames == null) {
+                throw new IllegalArgumentException("Not an entity type of " +
+                        puContext.getName() + ": " + entityType.getName());
+            }
+            map.put(entityType, new TypeIndex(entityType, columnNames));
+        }
+        this.indexes = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Add the words of the text, in lower case, to the set
+     * @param text The text to split into words
+     * @param addTo The set of words to add to
+     */
+    public static void addWords(String text, Set<String> addTo) {
+        final int len = text.length();
+        int start = -1;
+        for(int i=0; i<=len; i++) {
+            final boolean inWord = i < len && Character.isLetterOrDigit(text.charAt(i));
+            if(inWord) {
+                if(start == -1) {
+                    start = i;
+                }
+            }else if(start != -1) {
+                addTo.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    private static Set<String> getWords(String [] texts) {
+        final Set<String> words = new HashSet<>();
+        for(String text : texts) {
+            if(text != null) {
+                addWords(text, words);
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> getGrams(String word) {
+        final Set<String> grams = new HashSet<>();
+        for(int len = 1; len <= GRAM_LENGTH; len++) {
+            for(int i = 0; i + len <= word.length(); i++) {
+                grams.add(word.substring(i, i + len));
+            }
+        }
+        return grams;
+    }
+
+    @Override
+    public Set<Class> getEntityTypes() {
+        return indexes.keySet();
+    }
+
+    @Override
+    public boolean isReady(Class entityType) {
+        final TypeIndex index = indexes.get(entityType);
+        if(index == null) {
+            return false;
+        }
+        index.lock.readLock().lock();
+        try{
+            return index.postings != null;
+        }finally{
+            index.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List search(Class entityType, String text) {
+        final TypeIndex index = indexes.get(entityType);
+        if(index == null) {
+            return null;
+        }
+        final Set<String> queryWords = new LinkedHashSet<>();
+        addWords(text, queryWords);
+        if(queryWords.isEmpty()) {
+            return null;
+        }
+        final String lowerCaseText = text.toLowerCase(Locale.ROOT);
+        final List ids = new ArrayList();
+        index.lock.readLock().lock();
+        try{
+            final Postings postings = index.postings;
+            if(postings == null) {
+                return null;
+            }
+            Collection<String> candidateWords = null;
+            int candidateCount = Integer.MAX_VALUE;
+            for(String queryWord : queryWords) {
+                final Collection<String> words = postings.getWordsContaining(queryWord);
+                int count = 0;
+                for(String word : words) {
+                    count += postings.idsByWord.get(word).size();
+                    if(count >= candidateCount || count > maxCandidates) {
+                        break;
+                    }
+                }
+                if(count < candidateCount) {
+                    candidateWords = words;
+                    candidateCount = count;
+                }
+            }
+            if(candidateCount > maxCandidates) {
+                logger.log(Level.FINE, "Searching database for: {0}, as more than {1} {2} are candidates",
+                        new Object[]{text, maxCandidates, entityType.getSimpleName()});
+                return null;
+            }
+            final Set<Object> tested = new HashSet<>(candidateCount * 4 / 3 + 1);
+            for(String word : candidateWords) {
+                for(Object id : postings.idsByWord.get(word)) {
+                    if(tested.add(id) && postings.contains(id, lowerCaseText)) {
+                        ids.add(id);
+                    }
+                }
+            }
+        }finally{
+            index.lock.readLock().unlock();
+        }
+        if(!ids.isEmpty() && ids.get(0) instanceof Comparable) {
+            Collections.sort(ids);
+        }
+        return ids;
+    }
+
+    @Override
+    public void rebuild(Class entityType, Iterable entities) {
+        final TypeIndex index = indexes.get(entityType);
+        if(index == null) {
+            return;
+        }
+        final long tb4 = System.currentTimeMillis();
+        index.lock.writeLock().lock();
+        try{
+            index.writtenDuringRebuild = new HashMap<>();
+        }finally{
+            index.lock.writeLock().unlock();
+        }
+        final Postings postings = new Postings();
+        try{
+            final EntityMemberAccess access = this.getMemberAccess(entityType);
+            for(Object entity : entities) {
+                final Object id = access.getId(entity);
+                if(id != null) {
+                    postings.put(id, index.getTexts(access, entity));
+                }
+            }
+        }catch(RuntimeException e) {
+            index.lock.writeLock().lock();
+            try{
+                index.writtenDuringRebuild = null;
+            }finally{
+                index.lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        index.lock.writeLock().lock();
+        try{
+            final EntityMemberAccess access = this.getMemberAccess(entityType);
+            for(Map.Entry<Object, Object> written : index.writtenDuringRebuild.entrySet()) {
+                if(written.getValue() == null) {
+                    postings.remove(written.getKey());
+                }else{
+                    postings.put(written.getKey(), index.getTexts(access, written.getValue()));
+                }
+            }
+            index.writtenDuringRebuild = null;
+            index.postings = postings;
+        }finally{
+            index.lock.writeLock().unlock();
+        }
+        logger.log(Level.INFO, "Indexed {0} {1} with {2} words, in {3} millis", 
+                new Object[]{postings.textsById.size(), entityType.getSimpleName(), 
+                    postings.idsByWord.size(), System.currentTimeMillis() - tb4});
+    }
+
+    @Override
+    public void update(Object entity) {
+        final TypeIndex index = indexes.get(entity.getClass());
+        if(index != null) {
+            index.write(entity, false);
+        }
+    }
+
+    @Override
+    public void remove(Object entity) {
+        final TypeIndex index = indexes.get(entity.getClass());
+        if(index != null) {
+            index.write(entity, true);
+        }
+    }
+
+    private EntityMemberAccess getMemberAccess(Class entityType) {
+        return puContext.getEntityMemberAccess(entityType);
+    }
+
+    public PersistenceUnitContext getPersistenceUnitContext() {
+        return puContext;
+    }
+}
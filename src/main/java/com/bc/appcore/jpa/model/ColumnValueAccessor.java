@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa.model;
+
+import com.bc.appcore.util.Pair;
+import com.bc.jpa.dao.util.EntityMemberAccess;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the value of a column from entities of a single type, via method 
+ * handles to the getters involved, resolved once when this object is created.
+ * <p>
+ * The value is read from the entity if it has a getter for the column which 
+ * returns null or a value of the column's class. Otherwise it is read from 
+ * the entity related to the column, as by {@link com.bc.appcore.jpa.model.EntityRelation#getTargetEntity(java.lang.Object, java.lang.String)}.
+ * Where the entity has no getter for the column, and the column is of 
+ * another entity related to it, the value is read from the related entity
+ * without first trying the entity. Where any other getter is not found, the 
+ * value is read via the {@link com.bc.jpa.dao.util.EntityMemberAccess EntityMemberAccess}
+ * of the entity's type, as it was before getters were resolved in advance.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 4:36:12 PM
+ */
+public class ColumnValueAccessor {
+
+    private transient static final Logger logger = Logger.getLogger(ColumnValueAccessor.class.getName());
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Class entityType;
+
+    private final String columnName;
+
+    private final Class columnClass;
+
+    private final EntityRelationImpl entityRelation;
+
+    private final Map<Class, EntityMemberAccess> memberAccessMap;
+
+    /**
+     * Reads the column from the entity, or null if not found
+     */
+    private final MethodHandle directGetter;
+
+    /**
+     * The type of the entity related to the column, or null if none
+     */
+    private final Class targetType;
+
+    /**
+     * True if the column is of another entity type related to the entity type
+     */
+    private final boolean otherTarget;
+
+    /**
+     * Reads the related entity from the entity, or null if not found
+     */
+    private final MethodHandle targetGetter;
+
+    /**
+     * Reads the column from the related entity, or null if not found
+     */
+    private final MethodHandle targetColumnGetter;
+
+    /**
+     * @param entityRelation Resolves the getters
+     * @param memberAccessMap The member access of each entity type
+     * @param entityType The type of the entities whose column values are read
+     * @param columnName The name of the column
+     * @param columnClass The class of the column's values
+     */
+    public ColumnValueAccessor(EntityRelationImpl entityRelation, 
+            Map<Class, EntityMemberAccess> memberAccessMap,
+            Class entityType, String columnName, Class columnClass) {
+        this.entityType = Objects.requireNonNull(entityType);
+        this.columnName = Objects.requireNonNull(columnName);
+        this.columnClass = Objects.requireNonNull(columnClass);
+        this.entityRelation = Objects.requireNonNull(entityRelation);
+        this.memberAccessMap = Objects.requireNonNull(memberAccessMap);
+        
+        this.directGetter = toHandle(entityRelation.getMethod(false, entityType, columnName));
+        
+        final Pair<Class, Method> relation = 
+                entityRelation.getRelation(entityType, columnName, null);
+        this.targetType = relation == null ? null : relation.key;
+        this.otherTarget = this.targetType != null && this.targetType != entityType;
+        if(!this.otherTarget) {
+            this.targetGetter = null;
+            this.targetColumnGetter = this.directGetter;
+        }else{
+            this.targetGetter = toHandle(relation.value);
+            this.targetColumnGetter = toHandle(entityRelation.getMethod(false, this.targetType, columnName));
+        }
+        
+        logger.finer(() -> "Compiled: " + this);
+    }
+
+    private static MethodHandle toHandle(Method method) {
+        if(method == null) {
+            return null;
+        }
+        try{
+            if(!method.isAccessible()) {
+                method.setAccessible(true);
+            }
+            return MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+        }catch(IllegalAccessException | RuntimeException e) {
+            logger.log(Level.FINE, "Will use member access, failed to access: " + method, e);
+            return null;
+        }
+    }
+
+    public Object getValue(Object entity) {
+        
+        if(this.directGetter != null) {
+            final Object value = invoke(this.directGetter, entity);
+            if(value == null || this.columnClass.isInstance(value)) {
+                return value;
+            }
+        }else if(!this.otherTarget && this.isDirectlyRelated(entity)) {
+            return this.getMemberAccess(entity).getValue(entity, this.columnName);
+        }
+        
+        if(this.targetType == null) {
+            throw new NullPointerException("Relation is null for: "+entity+"#"+columnName);
+        }
+        
+        final Object target;
+        if(!this.otherTarget) {
+            target = entity;
+        }else{
+            target = this.targetGetter != null ? invoke(this.targetGetter, entity) : 
+                    this.entityRelation.getTargetEntity(entity, this.columnName);
+            if(target == null) {
+                return null;
+            }
+        }
+        
+        if(this.targetColumnGetter != null) {
+            return invoke(this.targetColumnGetter, target);
+        }else{
+            return this.getMemberAccess(target).getValue(target, this.columnName);
+        }
+    }
+
+    private boolean isDirectlyRelated(Object entity) {
+        Object rawValue;
+        try{
+            rawValue = this.getMemberAccess(entity).getValue(entity, this.columnName);
+        }catch(IllegalArgumentException | UnsupportedOperationException e) {
+            rawValue = e;
+        }
+        return rawValue == null || this.columnClass.isAssignableFrom(rawValue.getClass());
+    }
+
+    private EntityMemberAccess getMemberAccess(Object entity) {
+        final EntityMemberAccess memberAccess = this.memberAccessMap.get(entity.getClass());
+        return Objects.requireNonNull(memberAccess, "Unexpected column name: " + columnName);
+    }
+
+    private static Object invoke(MethodHandle getter, Object target) {
+        try{
+            return (Object)getter.invokeExact(target);
+        }catch(RuntimeException | Error e) {
+            throw e;
+        }catch(Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    public Class getEntityType() {
+        return entityType;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + '{' + entityType.getSimpleName() + '#' + columnName + 
+                ", direct: " + (directGetter != null) + 
+                ", target: " + (targetType == null ? null : targetType.getSimpleName()) + '}';
+    }
+}
@@ -32,11 +32,14 @@ import com.bc.reflection.MemberTypeProvider;
 import com.bc.appcore.util.RelationAccess;
 import java.util.Collection;
 import com.bc.appcore.AppCore;
+import com.bc.appcore.jpa.SearchResultCache;
+import com.bc.appcore.jpa.TextIndex;
 import com.bc.appcore.functions.SubListFromEnd;
 import com.bc.appcore.util.Pair;
 import com.bc.jpa.context.PersistenceUnitContext;
 import java.text.MessageFormat;
 import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import com.bc.jpa.dao.Delete;
@@ -105,7 +108,12 @@ public class EntityResultModelImpl<T> implements EntityResultModel<T> {
     
     private final BiConsumer<String, Exception> updateExceptionHandler;
     
-    private final EntityRelation entityRelation;
+    private final EntityRelationImpl entityRelation;
+    
+    /**
+     * For each entity type, the accessor of each column, compiled when first used
+     */
+    private final Map<Class, ColumnValueAccessor[]> columnValueAccessors;
     
     private final BiFunction<List, Integer, List> subListFromEnd;
     
@@ -168,6 +176,8 @@ public class EntityResultModelImpl<T> implements EntityResultModel<T> {
         
         this.subListFromEnd = new SubListFromEnd();
         
+        this.columnValueAccessors = new ConcurrentHashMap<>();
+        
         logger.fine(() -> "Entity updaters keySet: " + this.entityTypeToMemberAccessMap.keySet());
     }
 
@@ -187,40 +197,61 @@ public class EntityResultModelImpl<T> implements EntityResultModel<T> {
     @Override
     public Object get(T entity, int rowIndex, int columnIndex) {
         
-        final String columnName = this.getColumnName(columnIndex);
+        if(columnIndex == this.serialColumnIndex) {
+            
+            return rowIndex + 1;
+        }
         
-        final Object value;
+        final ColumnValueAccessor accessor = this.getColumnValueAccessor(entity.getClass(), columnIndex);
         
-        if(columnName.equals(this.getSerialColumnName()) || 
-                columnName.equals(this.getSerialColumnLabel())) {
-            
-            value = rowIndex + 1;
+        if(accessor == null) {
             
-        }else{
-            
-            final Object target;
-            if(this.isDirectlyRelated(entity, columnIndex)) {
-                target = entity;
-            }else{    
-                target = entityRelation.getTargetEntity(entity, columnName);
-            }
-
-            final EntityMemberAccess updater = this.entityTypeToMemberAccessMap.get(target.getClass());
-
-            this.requireNonNull(updater, columnName);
-
-            final Object updaterValue = updater.getValue(target, columnName);
+            return rowIndex + 1;
+        }
 
-            if(logger.isLoggable(Level.FINEST)) {
-                logger.log(Level.FINEST, rowIndex + " Ref: {0}, entity: {1}, name: {2}, value: {3}", 
-                        new Object[]{entity, target, columnName, updaterValue});
-            }
+        final Object value = accessor.getValue(entity);
 
-            value = updaterValue;
+        if(logger.isLoggable(Level.FINEST)) {
+            logger.log(Level.FINEST, rowIndex + " Ref: {0}, name: {1}, value: {2}", 
+                    new Object[]{entity, accessor.getColumnName(), value});
         }
         
         return value;
     }
+    
+    /**
+     * @param type The type of the entity
+     * @param columnIndex The index of the column
+     * @return The accessor of the column for entities of the type, or null if
+     * the column is the serial column.
+     */
+    private ColumnValueAccessor getColumnValueAccessor(Class type, int columnIndex) {
+        
+        final ColumnValueAccessor [] accessors = this.columnValueAccessors.computeIfAbsent(
+                type, (k) -> new ColumnValueAccessor[this.columnNames.size()]);
+        
+        ColumnValueAccessor accessor = accessors[columnIndex];
+        
+        // The serial column has no accessor, and is looked up each time
+        if(accessor == null) {
+            
+            final String columnName = this.getColumnName(columnIndex);
+            
+            if(columnName.equals(this.getSerialColumnName()) || 
+                    columnName.equals(this.getSerialColumnLabel())) {
+                return null;
+            }
+            
+            // Compiled at most once per thread racing here; all are equivalent
+            accessor = new ColumnValueAccessor(this.entityRelation, 
+                    this.entityTypeToMemberAccessMap, type, columnName, 
+                    this.getColumnClass(columnIndex));
+            
+            accessors[columnIndex] = accessor;
+        }
+        
+        return accessor;
+    }
 
     @Override
     public Object set(T entity, int rowIndex, int columnIndex, Object value) {
@@ -367,9 +398,15 @@ public class EntityResultModelImpl<T> implements EntityResultModel<T> {
                     
                     ++updateCount;
                     
+                    this.updateTextIndex(updateConfig);
+                    
                 }catch(RuntimeException e) {
 
                     this.updateExceptionHandler.accept(updateConfig.targetColumn, e);
+                    
+                }finally{
+                    
+                    this.invalidateSearchResults(updateConfig);
                 }
                 
                 iter.remove();
@@ -415,6 +452,8 @@ public class EntityResultModelImpl<T> implements EntityResultModel<T> {
             case REMOVE:
                 this.remove(targetClass, updateConfig.target); 
                 this.updateEntityRelations(updateConfig.entity, updateConfig.target, updateConfig.actionId);
+                this.invalidateSearchResults(updateConfig);
+                this.updateTextIndex(updateConfig);
                 break;
                 
             default: throw new UnsupportedOperationException(
@@ -422,6 +461,34 @@ public class EntityResultModelImpl<T> implements EntityResultModel<T> {
         }
     }
     
+    /**
+     * Both the target and the entity, whose relations are updated along with 
+     * the target, may no longer match searches which found them.
+     */
+    private void invalidateSearchResults(UpdateConfig updateConfig) {
+        final SearchResultCache cache = app.getSearchResultCache();
+        cache.invalidate(updateConfig.target.getClass());
+        if(updateConfig.entity != null && updateConfig.entity.getClass() != updateConfig.target.getClass()) {
+            cache.invalidate(updateConfig.entity.getClass());
+        }
+    }
+    
+    /**
+     * Only call once the update is written to the database, so that the 
+     * index never holds values the database does not.
+     */
+    private void updateTextIndex(UpdateConfig updateConfig) {
+        final TextIndex textIndex = app.getTextIndex();
+        if(REMOVE.equals(updateConfig.actionId)) {
+            textIndex.remove(updateConfig.target);
+        }else{
+            textIndex.update(updateConfig.target);
+        }
+        if(updateConfig.entity != null && updateConfig.entity != updateConfig.target) {
+            textIndex.update(updateConfig.entity);
+        }
+    }
+    
     private void updateDatabase(UpdateConfig updateConfig) {
         
         final Class targetClass = updateConfig.target.getClass();
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import java.util.Date;
+
+/**
+ * The values of a single column of a table, stored in an array of the 
+ * column's type where the type allows, rather than as boxed objects.
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 2:05:18 PM
+ */
+public interface ColumnValues {
+
+    /**
+     * @param type The type of the values of the column
+     * @param size The number of rows
+     * @return New values, all null, for a column of the type
+     */
+    static ColumnValues newInstance(Class type, int size) {
+        if(type == Integer.class) {
+            return new IntColumnValues(size);
+        }else if(type == Long.class) {
+            return new LongColumnValues(size);
+        }else if(type == Double.class) {
+            return new DoubleColumnValues(size);
+        }else if(type == Date.class || type == java.sql.Date.class || type == java.sql.Time.class) {
+            // Not sub-classes in general, e.g java.sql.Timestamp has nanos
+            return new DateColumnValues(type, size);
+        }else if(type == String.class) {
+            return new StringColumnValues(size);
+        }else{
+            return new ObjectColumnValues(type, size);
+        }
+    }
+
+    /**
+     * @param values The values to copy
+     * @return The values, as objects
+     */
+    static ColumnValues toObjects(ColumnValues values) {
+        final ObjectColumnValues output = new ObjectColumnValues(Object.class, values.size());
+        for(int row=0; row<values.size(); row++) {
+            output.set(row, values.get(row));
+        }
+        return output;
+    }
+
+    Object get(int row);
+
+    /**
+     * @param row The row
+     * @param value The value to set
+     * @return true if set, false if the value may not be held by these values,
+     * in which case they are unchanged.
+     */
+    boolean set(int row, Object value);
+
+    boolean isNull(int row);
+
+    int size();
+
+    Class getType();
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import java.util.Date;
+
+/**
+ * Dates held as their time in milliseconds. Each date read is a new instance
+ * of the column's type.
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 2:20:33 PM
+ */
+public class DateColumnValues extends PrimitiveColumnValues {
+
+    private final long [] values;
+
+    /**
+     * @param type One of <code>java.util.Date</code>, <code>java.sql.Date</code> 
+     * or <code>java.sql.Time</code>
+     * @param size The number of rows
+     */
+    public DateColumnValues(Class type, int size) {
+        super(type, size);
+        if(type != Date.class && type != java.sql.Date.class && type != java.sql.Time.class) {
+            throw new IllegalArgumentException("Unsupported date type: " + type.getName());
+        }
+        this.values = new long[size];
+    }
+
+    @Override
+    protected Object getValue(int row) {
+        final long time = values[row];
+        final Class type = this.getType();
+        if(type == java.sql.Date.class) {
+            return new java.sql.Date(time);
+        }else if(type == java.sql.Time.class) {
+            return new java.sql.Time(time);
+        }else{
+            return new Date(time);
+        }
+    }
+
+    @Override
+    protected void setValue(int row, Object value) {
+        values[row] = ((Date)value).getTime();
+    }
+
+    /**
+     * @param row The row
+     * @return The time of the row in milliseconds, or 0 if the row is null
+     */
+    public long getTime(int row) {
+        return values[row];
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import com.bc.appcore.util.RelationAccess;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import javax.persistence.Entity;
+
+/**
+ * Counts, for each pair of x and y values, the entities related to both, as
+ * {@link com.bc.appcore.table.model.EntityXYCountValues EntityXYCountValues} 
+ * does, but for all pairs in a single pass over the entities. The related 
+ * x and y values of each entity are looked up once, and the count of each 
+ * pair of them incremented.
+ * <p>
+ * The counts are computed on the first call to {@link #getValue(java.lang.Object, java.lang.Object)}
+ * or {@link #getMatrix()}.
+ * Values not in the x or y values given are counted by a separate pass over 
+ * the entities, as by <code>EntityXYCountValues</code>, but only if the 
+ * entities are a {@link java.util.Collection Collection}. Other entities, 
+ * e.g a stream of the results of a query, would be read afresh for each such
+ * value, so such values are rejected with an 
+ * {@link java.lang.IllegalArgumentException IllegalArgumentException}.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 8:14:32 AM
+ * @param <X> The type of the x values
+ * @param <Y> The type of the y values
+ * @param <E> The type of the entities counted
+ */
+public class EntityXYCountMatrix<X, Y, E> implements XYValues<X, Y, Integer> {
+
+    private static final Logger logger = Logger.getLogger(EntityXYCountMatrix.class.getName());
+
+    /**
+     * When counting in parallel, each chunk has at least this many entities
+     */
+    private static final int MIN_CHUNK_SIZE = 1000;
+
+    private static final int [] EMPTY = new int[0];
+
+    private final Iterable<E> entities;
+
+    private final RelationAccess relationAccess;
+
+    private final boolean parallel;
+
+    private final Predicate<Class> relationAccessTestForRecursion;
+
+    private final Map<Object, Integer> xIndexes;
+
+    private final Map<Object, Integer> yIndexes;
+
+    private final Set<Class> xTypes;
+
+    private final Set<Class> yTypes;
+
+    private final List<X> xValues;
+
+    private final List<Y> yValues;
+
+    private final int xCount;
+
+    private final int yCount;
+
+    private volatile XYCountMatrix<X, Y> matrix;
+
+    private EntityXYCountValues<X, Y, E> fallback;
+
+    /**
+     * @param entities The entities to count. Iterated once, unless a 
+     * {@link java.util.Collection Collection} and values other than those given
+     * are looked up.
+     * @param xValues The x values
+     * @param yValues The y values
+     * @param relationAccess Used to find the values related to each entity
+     * @param parallel If true, count chunks of the entities in parallel. The 
+     * entities are first copied into a list, on the calling thread, as they 
+     * may be loaded lazily through an EntityManager which is not thread safe.
+     * Only use if the relations of the entities are already loaded, or may 
+     * be loaded concurrently.
+     */
+    public EntityXYCountMatrix(Iterable<E> entities, List<X> xValues, List<Y> yValues, 
+            RelationAccess relationAccess, boolean parallel) {
+        this.entities = Objects.requireNonNull(entities);
+        this.relationAccess = Objects.requireNonNull(relationAccess);
+        this.parallel = parallel;
+        this.relationAccessTestForRecursion = (cls) -> cls.getAnnotation(Entity.class) != null;
+        this.xIndexes = indexesOf(xValues);
+        this.yIndexes = indexesOf(yValues);
+        this.xTypes = typesOf(xValues);
+        this.yTypes = typesOf(yValues);
+        this.xValues = Objects.requireNonNull(xValues);
+        this.yValues = Objects.requireNonNull(yValues);
+        this.xCount = xValues.size();
+        this.yCount = yValues.size();
+    }
+
+    private static Map<Object, Integer> indexesOf(List values) {
+        final Map<Object, Integer> indexes = new HashMap<>(values.size() * 4 / 3 + 1);
+        for(int i=0; i<values.size(); i++) {
+            final Object value = values.get(i);
+            if(value != null) {
+                indexes.putIfAbsent(value, i);
+            }
+        }
+        return indexes;
+    }
+
+    private static Set<Class> typesOf(List values) {
+        final Set<Class> types = new LinkedHashSet<>();
+        for(Object value : values) {
+            if(value != null) {
+                types.add(value.getClass());
+            }
+        }
+        return types;
+    }
+
+    /**
+     * @param xValue The x value
+     * @param yValue The y value
+     * @return The number of entities related to both values
+     * @throws IllegalArgumentException If either value is not among the values
+     * counted, and the entities are not a {@link java.util.Collection Collection}
+     */
+    @Override
+    public Integer getValue(X xValue, Y yValue) {
+        if(xValue == null || yValue == null) {
+            return 0;
+        }
+        final Integer x = xIndexes.get(xValue);
+        final Integer y = yIndexes.get(yValue);
+        if(x == null || y == null) {
+            if(entities instanceof Collection) {
+                return this.getFallback().getValue(xValue, yValue);
+            }
+            throw new IllegalArgumentException("Not among the values counted, x: " + 
+                    xValue + ", y: " + yValue);
+        }
+        return this.getMatrix().getCount(x, y);
+    }
+
+    /**
+     * @param xIndex The index of the x value
+     * @param yIndex The index of the y value
+     * @return The number of entities related to both values
+     */
+    public int getCount(int xIndex, int yIndex) {
+        return this.getMatrix().getCount(xIndex, yIndex);
+    }
+
+    /**
+     * @return The counts of the x and y values, with their totals
+     */
+    public XYCountMatrix<X, Y> getMatrix() {
+        XYCountMatrix<X, Y> output = matrix;
+        if(output == null) {
+            synchronized(this) {
+                output = matrix;
+                if(output == null) {
+                    final long tb4 = System.currentTimeMillis();
+                    output = matrix = new XYCountMatrix<>(xValues, yValues, this.compute());
+                    logger.log(Level.FINE, "Counted {0} x {1} matrix in {2} millis", 
+                            new Object[]{xCount, yCount, System.currentTimeMillis() - tb4});
+                }
+            }
+        }
+        return output;
+    }
+
+    private int [] compute() {
+        final int size = xCount * yCount;
+        if(size == 0) {
+            return new int[0];
+        }
+        if(!parallel) {
+            final int [] output = new int[size];
+            for(E entity : entities) {
+                this.count(entity, output);
+            }
+            return output;
+        }
+        final List<E> list = this.toList(entities);
+        final int chunkCount = Math.max(1, Math.min(
+                Runtime.getRuntime().availableProcessors() * 4, list.size() / MIN_CHUNK_SIZE));
+        final int chunkSize = (list.size() + chunkCount - 1) / chunkCount;
+        return IntStream.range(0, chunkCount).parallel().mapToObj((chunk) -> {
+            final int [] local = new int[size];
+            final int end = Math.min(list.size(), (chunk + 1) * chunkSize);
+            for(int i = chunk * chunkSize; i < end; i++) {
+                this.count(list.get(i), local);
+            }
+            return local;
+        }).reduce((a, b) -> {
+            for(int i=0; i<a.length; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        }).orElse(new int[size]);
+    }
+
+    private List<E> toList(Iterable<E> iterable) {
+        final List<E> list = iterable instanceof Collection ? 
+                new ArrayList<>(((Collection)iterable).size()) : new ArrayList<>();
+        for(E e : iterable) {
+            list.add(e);
+        }
+        return list;
+    }
+
+    private void count(E entity, int [] addTo) {
+        final int [] xs = this.getRelatedIndexes(entity, xTypes, xIndexes);
+        if(xs.length == 0) {
+            return;
+        }
+        final int [] ys = this.getRelatedIndexes(entity, yTypes, yIndexes);
+        for(int y : ys) {
+            final int offset = y * xCount;
+            for(int x : xs) {
+                ++addTo[offset + x];
+            }
+        }
+    }
+
+    /**
+     * @return The distinct indexes of the values related to the entity
+     */
+    private int [] getRelatedIndexes(E entity, Set<Class> types, Map<Object, Integer> indexes) {
+        int [] found = null;
+        int count = 0;
+        for(Class type : types) {
+            final List related = relationAccess.getChildren(
+                    entity, type, relationAccessTestForRecursion, true);
+            for(Object value : related) {
+                final Integer index = value == null ? null : indexes.get(value);
+                if(index == null || contains(found, count, index)) {
+                    continue;
+                }
+                if(found == null) {
+                    found = new int[Math.max(2, related.size())];
+                }else if(count == found.length) {
+                    final int [] grown = new int[count * 2];
+                    System.arraycopy(found, 0, grown, 0, count);
+                    found = grown;
+                }
+                found[count++] = index;
+            }
+        }
+        if(count == 0) {
+            return EMPTY;
+        }
+        if(count == found.length) {
+            return found;
+        }
+        final int [] output = new int[count];
+        System.arraycopy(found, 0, output, 0, count);
+        return output;
+    }
+
+    private static boolean contains(int [] array, int len, int value) {
+        for(int i=0; i<len; i++) {
+            if(array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized EntityXYCountValues<X, Y, E> getFallback() {
+        if(fallback == null) {
+            fallback = new EntityXYCountValues<>(entities, relationAccess);
+        }
+        return fallback;
+    }
+
+    public int getXCount() {
+        return xCount;
+    }
+
+    public int getYCount() {
+        return yCount;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+}
@@ -27,13 +27,20 @@ import javax.persistence.Entity;
  */
 public class EntityXYCountValues<X, Y, E> implements XYValues<X, Y, Integer> {
 
-    private final List<E> resultList;
+    private final Iterable<E> resultList;
     
     private final RelationAccess relationAccess;
     
     private final Predicate<Class> relationAccessTestForRecursion;
     
-    public EntityXYCountValues(List<E> resultList, RelationAccess relationAccess) {
+    /**
+     * @param resultList The entities to count. May be a view which loads the
+     * entities a chunk at a time, e.g via 
+     * {@link com.bc.appcore.jpa.StreamingSearchResults#iterateAll()}, in which
+     * case each count reads the entities afresh.
+     * @param relationAccess Used to find the values of each entity
+     */
+    public EntityXYCountValues(Iterable<E> resultList, RelationAccess relationAccess) {
         this.resultList = Objects.requireNonNull(resultList);
         this.relationAccess = Objects.requireNonNull(relationAccess);
         this.relationAccessTestForRecursion = (cls) -> cls.getAnnotation(Entity.class) != null;
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 2:16:02 PM
+ */
+public class IntColumnValues extends PrimitiveColumnValues {
+
+    private final int [] values;
+
+    public IntColumnValues(int size) {
+        super(Integer.class, size);
+        this.values = new int[size];
+    }
+
+    @Override
+    protected Object getValue(int row) {
+        return values[row];
+    }
+
+    @Override
+    protected void setValue(int row, Object value) {
+        values[row] = (Integer)value;
+    }
+
+    /**
+     * @param row The row
+     * @return The value of the row, or 0 if the row is null
+     */
+    public int getInt(int row) {
+        return values[row];
+    }
+}
@@ -24,13 +24,18 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.table.AbstractTableModel;
 
 /**
+ * Values are held by column, each column in an array of its type where the 
+ * type allows, e.g <code>int[]</code> for a column of <code>Integer</code>s,
+ * with repeated strings held once. The type of each column is that of its 
+ * first non-null value. A column with values of other types is held as 
+ * objects.
  * @author Chinomso Bassey Ikwuagwu on Jun 14, 2017 11:57:05 AM
+ * @see com.bc.appcore.table.model.ColumnValues
  */
 public class MapTableModel extends AbstractTableModel {
 
@@ -38,12 +43,18 @@ public class MapTableModel extends AbstractTableModel {
 
     private final List<String> columnNames;
     private final List<Class> columnClasses;
-    private final List<Object[]> rows;
+    private final int rowCount;
+    /**
+     * The values of each column other than the serial column
+     */
+    private final ColumnValues [] columns;
     private final String serialColumnName;
+    private final int firstValueColumn;
     
     public MapTableModel(Collection<Map> rows, String serialColumnName) {
         
         this.serialColumnName = serialColumnName;
+        this.firstValueColumn = serialColumnName == null ? 0 : 1;
         
         final Set<String> columns = new LinkedHashSet();
         if(serialColumnName != null) {
@@ -61,19 +72,6 @@ public class MapTableModel extends AbstractTableModel {
 
         logger.log(Level.FINE, "Column names: {0}", columnNames);
         
-        this.rows = new ArrayList(rows.size());
-        
-        final Function<Map, Object[]> mapValuesToArray = (map) -> {
-            
-                final Object [] rowData = new Object[columnNames.size()];
-                for(int column=0; column<rowData.length; column++) {
-                    final String columnName = columnNames.get(column);
-                    rowData[column] = map.get(columnName);
-                }
-                
-                return rowData;
-        };        
-
         final Class [] classes = new Class[this.columnNames.size()];
         
         int updatedClasses = 0;
@@ -85,18 +83,15 @@ public class MapTableModel extends AbstractTableModel {
         
         for(Map rowMap : rows) {
             
-            final Object [] row = mapValuesToArray.apply(rowMap);
-            
-            logger.finer(() -> "\tRow" + Arrays.toString(row)); 
-
-            this.rows.add(row);
+            if(updatedClasses == classes.length) {
+                break;
+            }
             
-            if(updatedClasses < this.columnNames.size()) {
-
-                for(int i=0; i<row.length; i++) {
+            for(int i=this.firstValueColumn; i<classes.length; i++) {
                 
-                    final Object val = row[i];
-                    if(classes[i] == null && val != null) {
+                if(classes[i] == null) {
+                    final Object val = rowMap.get(this.columnNames.get(i));
+                    if(val != null) {
                         classes[i] = val.getClass();
                         ++updatedClasses;
                     }
@@ -112,7 +107,46 @@ public class MapTableModel extends AbstractTableModel {
         
         logger.log(Level.FINE, "Column classes: {0}", this.columnClasses);
         
-        logger.log(Level.FINE, "Row count: {0}", rows.size());
+        this.rowCount = rows.size();
+        
+        this.columns = new ColumnValues[classes.length - this.firstValueColumn];
+        for(int i=0; i<this.columns.length; i++) {
+            this.columns[i] = ColumnValues.newInstance(classes[i + this.firstValueColumn], this.rowCount);
+        }
+        
+        int rowIndex = 0;
+        for(Map rowMap : rows) {
+            
+            for(int i=0; i<this.columns.length; i++) {
+                final Object val = rowMap.get(this.columnNames.get(i + this.firstValueColumn));
+                this.setColumnValue(i, rowIndex, val);
+            }
+            
+            if(logger.isLoggable(Level.FINER)) {
+                logger.log(Level.FINER, "\tRow{0}", rowMap.values());
+            }
+            
+            ++rowIndex;
+        }
+        
+        if(logger.isLoggable(Level.FINE)) {
+            final StringBuilder types = new StringBuilder();
+            for(ColumnValues column : this.columns) {
+                types.append(column.getClass().getSimpleName()).append(' ');
+            }
+            logger.log(Level.FINE, "Row count: {0}, column storage: {1}", 
+                    new Object[]{this.rowCount, types});
+        }
+    }
+    
+    private void setColumnValue(int column, int rowIndex, Object value) {
+        if(!this.columns[column].set(rowIndex, value)) {
+            logger.log(Level.FINE, "Storing column {0} as objects, on value: {1} of type: {2}", 
+                    new Object[]{this.columnNames.get(column + this.firstValueColumn), 
+                        value, value == null ? null : value.getClass().getName()});
+            this.columns[column] = ColumnValues.toObjects(this.columns[column]);
+            this.columns[column].set(rowIndex, value);
+        }
     }
 
     @Override
@@ -127,7 +161,7 @@ public class MapTableModel extends AbstractTableModel {
 
     @Override
     public int getRowCount() {
-        return this.rows.size();
+        return this.rowCount;
     }
 
     @Override
@@ -138,39 +172,40 @@ public class MapTableModel extends AbstractTableModel {
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
         final Object value;
-        if(this.serialColumnName != null) {
-            if(columnIndex == 0) {
-                value = rowIndex + 1;
-            }else{
-                final Object[] row = this.rows.get(rowIndex);
-                value = row[columnIndex-1];
-            }
+        if(this.serialColumnName != null && columnIndex == 0) {
+            value = rowIndex + 1;
         }else{
-            final Object[] row = this.rows.get(rowIndex);
-            value = row[columnIndex];
+            value = this.columns[columnIndex - this.firstValueColumn].get(rowIndex);
         }
         return value;
     }
 
     @Override
     public void setValueAt(Object aValue, int rowIndex, int columnIndex) {
-        if(this.serialColumnName != null) {
-            if(columnIndex == 0) {
-                
-            }else{
-                final Object[] row = this.rows.get(rowIndex);
-                row[columnIndex-1] = aValue;
-                this.onSetValueAt(aValue, rowIndex, columnIndex);
-            }
+        if(this.serialColumnName != null && columnIndex == 0) {
+            
         }else{
-            final Object[] row = this.rows.get(rowIndex);
-            row[columnIndex] = aValue;
+            this.setColumnValue(columnIndex - this.firstValueColumn, rowIndex, aValue);
             this.onSetValueAt(aValue, rowIndex, columnIndex);
         }
     }
     
     protected void onSetValueAt(Object aValue, int rowIndex, int columnIndex) { }
     
+    /**
+     * For scans of a column without reading it cell by cell. The values may
+     * be of a type specific to the column's class, e.g 
+     * {@link com.bc.appcore.table.model.IntColumnValues IntColumnValues}.
+     * @param columnIndex The index of the column
+     * @return The values of the column, or null for the serial column
+     */
+    public ColumnValues getColumnValues(int columnIndex) {
+        if(this.serialColumnName != null && columnIndex == 0) {
+            return null;
+        }
+        return this.columns[columnIndex - this.firstValueColumn];
+    }
+    
     public final int getColumnIndex(String columnName) {
         return columnNames.indexOf(columnName);
     }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import java.util.Objects;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 2:29:47 PM
+ */
+public class ObjectColumnValues implements ColumnValues {
+
+    private final Class type;
+
+    private final Object [] values;
+
+    public ObjectColumnValues(Class type, int size) {
+        this.type = Objects.requireNonNull(type);
+        this.values = new Object[size];
+    }
+
+    @Override
+    public Object get(int row) {
+        return values[row];
+    }
+
+    /**
+     * @return true always. Values not of this object's type are accepted.
+     */
+    @Override
+    public boolean set(int row, Object value) {
+        values[row] = value;
+        return true;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return values[row] == null;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Class getType() {
+        return type;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Values held in a primitive array, with a bit for each row which is null.
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 2:11:40 PM
+ */
+public abstract class PrimitiveColumnValues implements ColumnValues {
+
+    private final Class type;
+
+    private final int size;
+
+    private final BitSet nulls;
+
+    protected PrimitiveColumnValues(Class type, int size) {
+        this.type = Objects.requireNonNull(type);
+        this.size = size;
+        this.nulls = new BitSet(size);
+        this.nulls.set(0, size);
+    }
+
+    private void checkIndex(int row) {
+        if(row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+        }
+    }
+
+    protected abstract Object getValue(int row);
+
+    protected abstract void setValue(int row, Object value);
+
+    @Override
+    public Object get(int row) {
+        this.checkIndex(row);
+        return nulls.get(row) ? null : this.getValue(row);
+    }
+
+    @Override
+    public boolean set(int row, Object value) {
+        this.checkIndex(row);
+        if(value == null) {
+            nulls.set(row);
+            return true;
+        }
+        if(value.getClass() != type) {
+            return false;
+        }
+        this.setValue(row, value);
+        nulls.clear(row);
+        return true;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Class getType() {
+        return type;
+    }
+}
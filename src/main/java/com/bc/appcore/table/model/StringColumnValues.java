@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Strings held as a code for each row, into a dictionary of the distinct 
+ * strings, so that a string repeated in many rows is held once.
+ * <p>
+ * Where most strings are distinct a dictionary costs more than it saves. 
+ * Once the dictionary is larger than half the rows (and a minimum of 
+ * {@value #MIN_MAX_DISTINCT}), new strings are no longer accepted.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 2:24:09 PM
+ */
+public class StringColumnValues implements ColumnValues {
+
+    public static final int MIN_MAX_DISTINCT = 256;
+
+    private static final int NULL = -1;
+
+    private final int [] codes;
+
+    private final List<String> dictionary;
+
+    private final Map<String, Integer> dictionaryCodes;
+
+    private final int maxDistinct;
+
+    public StringColumnValues(int size) {
+        this.codes = new int[size];
+        Arrays.fill(codes, NULL);
+        this.dictionary = new ArrayList<>();
+        this.dictionaryCodes = new HashMap<>();
+        this.maxDistinct = Math.max(MIN_MAX_DISTINCT, size / 2);
+    }
+
+    @Override
+    public Object get(int row) {
+        final int code = codes[row];
+        return code == NULL ? null : dictionary.get(code);
+    }
+
+    @Override
+    public boolean set(int row, Object value) {
+        if(row < 0 || row >= codes.length) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", size: " + codes.length);
+        }
+        if(value == null) {
+            codes[row] = NULL;
+            return true;
+        }
+        if(!(value instanceof String)) {
+            return false;
+        }
+        Integer code = dictionaryCodes.get(value);
+        if(code == null) {
+            if(dictionary.size() >= maxDistinct) {
+                return false;
+            }
+            code = dictionary.size();
+            dictionary.add((String)value);
+            dictionaryCodes.put((String)value, code);
+        }
+        codes[row] = code;
+        return true;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return codes[row] == NULL;
+    }
+
+    /**
+     * Rows with the same string have the same code. Codes are in order of 
+     * first appearance, not of the strings.
+     * @param row The row
+     * @return The code of the row's string, or -1 if the row is null
+     */
+    public int getCode(int row) {
+        return codes[row];
+    }
+
+    /**
+     * @return The number of distinct strings
+     */
+    public int getDistinctCount() {
+        return dictionary.size();
+    }
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    @Override
+    public Class getType() {
+        return String.class;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts for each pair of x and y values, held in a single <code>int</code> 
+ * array. Values not among the x or y values have a count of zero.
+ * <p>
+ * The total of each x value, of each y value, and of all the counts, are 
+ * kept alongside the counts, and updated as each count changes, so that 
+ * none of them needs to be summed when read.
+ * </p>
+ * <p>
+ * Not thread safe. Changes must be made by one thread at a time, and made 
+ * visible to readers by the caller.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 10:02:47 AM
+ * @param <X> The type of the x values
+ * @param <Y> The type of the y values
+ */
+public class XYCountMatrix<X, Y> implements XYValues<X, Y, Integer> {
+
+    private final Map<Object, Integer> xIndexes;
+
+    private final Map<Object, Integer> yIndexes;
+
+    private final int xCount;
+
+    private final int yCount;
+
+    private final int [] counts;
+
+    private final int [] xTotals;
+
+    private final int [] yTotals;
+
+    private int total;
+
+    public XYCountMatrix(List<X> xValues, List<Y> yValues) {
+        this(xValues, yValues, new int[xValues.size() * yValues.size()]);
+    }
+
+    /**
+     * @param xValues The x values
+     * @param yValues The y values
+     * @param counts The count of each pair of values, at offset 
+     * <code>yIndex * xValues.size() + xIndex</code>. Not copied; not to be 
+     * changed after this call, except through this object.
+     */
+    public XYCountMatrix(List<X> xValues, List<Y> yValues, int [] counts) {
+        this.xIndexes = indexesOf(xValues);
+        this.yIndexes = indexesOf(yValues);
+        this.xCount = xValues.size();
+        this.yCount = yValues.size();
+        if(counts.length != xCount * yCount) {
+            throw new IllegalArgumentException("Expected " + (xCount * yCount) + 
+                    " counts, found: " + counts.length);
+        }
+        this.counts = counts;
+        this.xTotals = new int[xCount];
+        this.yTotals = new int[yCount];
+        for(int y=0; y<yCount; y++) {
+            final int offset = y * xCount;
+            int yTotal = 0;
+            for(int x=0; x<xCount; x++) {
+                final int count = counts[offset + x];
+                xTotals[x] += count;
+                yTotal += count;
+            }
+            yTotals[y] = yTotal;
+            total += yTotal;
+        }
+    }
+
+    private static Map<Object, Integer> indexesOf(List values) {
+        final Map<Object, Integer> indexes = new HashMap<>(values.size() * 4 / 3 + 1);
+        for(int i=0; i<values.size(); i++) {
+            final Object value = values.get(i);
+            if(value != null) {
+                indexes.putIfAbsent(value, i);
+            }
+        }
+        return indexes;
+    }
+
+    @Override
+    public Integer getValue(X xValue, Y yValue) {
+        final Integer x = xValue == null ? null : xIndexes.get(xValue);
+        final Integer y = yValue == null ? null : yIndexes.get(yValue);
+        return x == null || y == null ? 0 : this.getCount(x, y);
+    }
+
+    /**
+     * @param xIndex The index of the x value
+     * @param yIndex The index of the y value
+     * @return The count of the pair of values
+     */
+    public int getCount(int xIndex, int yIndex) {
+        return counts[this.offset(xIndex, yIndex)];
+    }
+
+    /**
+     * @param xIndex The index of the x value
+     * @param yIndex The index of the y value
+     * @param delta The amount to add to the count of the pair of values
+     * @return The new count
+     */
+    public int add(int xIndex, int yIndex, int delta) {
+        final int offset = this.offset(xIndex, yIndex);
+        xTotals[xIndex] += delta;
+        yTotals[yIndex] += delta;
+        total += delta;
+        return counts[offset] += delta;
+    }
+
+    /**
+     * @param xIndex The index of the x value
+     * @param yIndex The index of the y value
+     * @param count The new count of the pair of values
+     * @return The previous count
+     */
+    public int set(int xIndex, int yIndex, int count) {
+        final int previous = this.getCount(xIndex, yIndex);
+        this.add(xIndex, yIndex, count - previous);
+        return previous;
+    }
+
+    /**
+     * @param xIndex The index of the x value
+     * @return The sum of the counts of the x value, with each y value
+     */
+    public int getXTotal(int xIndex) {
+        return xTotals[xIndex];
+    }
+
+    /**
+     * @param yIndex The index of the y value
+     * @return The sum of the counts of the y value, with each x value
+     */
+    public int getYTotal(int yIndex) {
+        return yTotals[yIndex];
+    }
+
+    /**
+     * @return The sum of all the counts
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    private int offset(int xIndex, int yIndex) {
+        if(xIndex < 0 || xIndex >= xCount || yIndex < 0 || yIndex >= yCount) {
+            throw new IndexOutOfBoundsException("x index: " + xIndex + ", y index: " + yIndex);
+        }
+        return yIndex * xCount + xIndex;
+    }
+
+    /**
+     * @param xValue The x value
+     * @return The index of the x value, or -1 if not an x value
+     */
+    public int getXIndex(Object xValue) {
+        final Integer index = xValue == null ? null : xIndexes.get(xValue);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param yValue The y value
+     * @return The index of the y value, or -1 if not a y value
+     */
+    public int getYIndex(Object yValue) {
+        final Integer index = yValue == null ? null : yIndexes.get(yValue);
+        return index == null ? -1 : index;
+    }
+
+    public int getXCount() {
+        return xCount;
+    }
+
+    public int getYCount() {
+        return yCount;
+    }
+}
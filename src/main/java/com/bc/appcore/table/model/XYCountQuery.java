@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import com.bc.appcore.jpa.KeysetSearchResults;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+
+/**
+ * Counts, for each pair of x and y values, the entities related to both, 
+ * in the database, via a single query of the form:
+ * <code>SELECT x.id, y.id, COUNT(DISTINCT e) FROM E e JOIN e.x x JOIN e.y y GROUP BY x.id, y.id</code>
+ * <p>
+ * The relations from the entity type to the x and y types are found in the
+ * persistence metamodel, as the shortest path of associations between 
+ * the types. If there is no such path, or more than one of the shortest 
+ * length, the counts are not available, and must be computed in memory.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 21, 2026 10:21:05 AM
+ */
+public class XYCountQuery {
+
+    private static final Logger logger = Logger.getLogger(XYCountQuery.class.getName());
+
+    /**
+     * Paths longer than this number of associations are not searched for
+     */
+    private static final int MAX_PATH_LENGTH = 3;
+
+    private final EntityManager entityManager;
+
+    public XYCountQuery(EntityManager entityManager) {
+        this.entityManager = Objects.requireNonNull(entityManager);
+    }
+
+    /**
+     * @param <X> The type of the x values
+     * @param <Y> The type of the y values
+     * @param entityType The type of the entities to count. All entities of 
+     * the type are counted.
+     * @param xType The type of the x values
+     * @param xValues The x values
+     * @param yType The type of the y values
+     * @param yValues The y values
+     * @return The counts, or null if the relations between the entity type
+     * and the x and y types could not be resolved.
+     */
+    public <X, Y> XYCountMatrix<X, Y> count(Class entityType, 
+            Class<X> xType, List<X> xValues, Class<Y> yType, List<Y> yValues) {
+
+        final List<Attribute> xPath = this.getPath(entityType, xType);
+        final List<Attribute> yPath = xPath == null ? null : this.getPath(entityType, yType);
+        if(xPath == null || yPath == null) {
+            logger.log(Level.FINE, "Relations not resolved from {0} to {1} and {2}", 
+                    new Object[]{entityType.getName(), xType.getName(), yType.getName()});
+            return null;
+        }
+
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        final Root root = cq.from(entityType);
+        final Path xId = this.join(root, xPath).get(KeysetSearchResults.getIdAttribute(entityManager, xType));
+        final Path yId = this.join(root, yPath).get(KeysetSearchResults.getIdAttribute(entityManager, yType));
+        cq.multiselect(xId, yId, cb.countDistinct(root)).groupBy(xId, yId);
+
+        final List<Object[]> rows = entityManager.createQuery(cq).getResultList();
+
+        final PersistenceUnitUtil util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        final Map<Object, X> xById = this.byId(util, xValues);
+        final Map<Object, Y> yById = this.byId(util, yValues);
+        final XYCountMatrix<X, Y> matrix = new XYCountMatrix<>(xValues, yValues);
+        for(Object [] row : rows) {
+            final int x = matrix.getXIndex(xById.get(row[0]));
+            final int y = matrix.getYIndex(yById.get(row[1]));
+            if(x != -1 && y != -1) {
+                matrix.add(x, y, ((Number)row[2]).intValue());
+            }
+        }
+
+        logger.log(Level.FINE, "Counted {0} by {1} and {2} in {3} groups", new Object[]{
+            entityType.getSimpleName(), xType.getSimpleName(), yType.getSimpleName(), rows.size()});
+
+        return matrix;
+    }
+
+    private <T> Map<Object, T> byId(PersistenceUnitUtil util, List<T> values) {
+        final Map<Object, T> byId = new HashMap<>(values.size() * 4 / 3 + 1);
+        for(T value : values) {
+            if(value != null) {
+                byId.put(util.getIdentifier(value), value);
+            }
+        }
+        return byId;
+    }
+
+    private From join(Root root, List<Attribute> path) {
+        From from = root;
+        for(Attribute attribute : path) {
+            from = from.join(attribute.getName());
+        }
+        return from;
+    }
+
+    /**
+     * @param fromType The type to start from
+     * @param toType The type to reach
+     * @return The shortest path of associations from one entity type to the 
+     * other, empty if the types are the same, or null if there is no path, 
+     * or more than one path of the shortest length.
+     */
+    public List<Attribute> getPath(Class fromType, Class toType) {
+        if(fromType.equals(toType)) {
+            return Collections.emptyList();
+        }
+        final Metamodel metamodel = entityManager.getMetamodel();
+        List<List<Attribute>> level = Collections.singletonList(Collections.emptyList());
+        final Set<Class> visited = new HashSet<>();
+        visited.add(fromType);
+        for(int length=1; length<=MAX_PATH_LENGTH; length++) {
+            final List<List<Attribute>> next = new ArrayList<>();
+            final List<List<Attribute>> found = new ArrayList<>();
+            final Set<Class> reached = new HashSet<>();
+            for(List<Attribute> path : level) {
+                final Class type = path.isEmpty() ? fromType : getTargetType(path.get(path.size() - 1));
+                final ManagedType managedType = metamodel.managedType(type);
+                for(Object each : managedType.getAttributes()) {
+                    final Attribute attribute = (Attribute)each;
+                    if(!attribute.isAssociation()) {
+                        continue;
+                    }
+                    final Class target = getTargetType(attribute);
+                    if(target == null || visited.contains(target)) {
+                        continue;
+                    }
+                    final List<Attribute> extended = new ArrayList<>(path);
+                    extended.add(attribute);
+                    if(toType.isAssignableFrom(target)) {
+                        found.add(extended);
+                    }else{
+                        next.add(extended);
+                        reached.add(target);
+                    }
+                }
+            }
+            if(found.size() == 1) {
+                return found.get(0);
+            }
+            if(found.size() > 1) {
+                logger.log(Level.FINE, "Ambiguous relations from {0} to {1}: {2}", 
+                        new Object[]{fromType.getName(), toType.getName(), found.size()});
+                return null;
+            }
+            visited.addAll(reached);
+            level = next;
+        }
+        return null;
+    }
+
+    private static Class getTargetType(Attribute attribute) {
+        if(attribute instanceof PluralAttribute) {
+            return ((PluralAttribute)attribute).getElementType().getJavaType();
+        }else if(attribute instanceof SingularAttribute) {
+            return ((SingularAttribute)attribute).getType().getJavaType();
+        }else{
+            return null;
+        }
+    }
+}
@@ -23,6 +23,12 @@ import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 /**
+ * Where the table's x and y values are counted by an 
+ * {@link com.bc.appcore.table.model.XYCountMatrix XYCountMatrix}, or an 
+ * {@link com.bc.appcore.table.model.EntityXYCountMatrix EntityXYCountMatrix},
+ * counts and sums are read directly from the matrix, which keeps the sums 
+ * up to date as counts change. They are then neither cached nor summed. 
+ * Otherwise each sum is computed from the values of its row or column.
  * @author Chinomso Bassey Ikwuagwu on May 20, 2017 12:29:29 PM
  */
 public class XYCountTableModel<X, Y> extends XYTableModel<X, Y, Integer> {
@@ -31,6 +37,10 @@ public class XYCountTableModel<X, Y> extends XYTableModel<X, Y, Integer> {
     
     private final Collector<Object, ?, Integer> summingInt;
     
+    private XYCountMatrix<X, Y> matrix;
+    
+    private boolean matrixResolved;
+    
     public XYCountTableModel(final XYCountTableMetaData<X, Y> tableMetaData, 
             TableModelDisplayFormat displayFormat, boolean useCache) {
         super(tableMetaData, Integer.class, displayFormat, useCache);
@@ -54,9 +64,81 @@ public class XYCountTableModel<X, Y> extends XYTableModel<X, Y, Integer> {
         return columnName;
     }
 
+    /**
+     * @return The matrix of the table's counts, or null if the counts are not 
+     * in a matrix of the table's x and y values.
+     */
+    public synchronized XYCountMatrix<X, Y> getMatrix() {
+        if(!this.matrixResolved) {
+            final XYValues<X, Y, Integer> xyValues = this.getTableMetaData().getXyValues();
+            final XYCountMatrix<X, Y> found;
+            if(xyValues instanceof XYCountMatrix) {
+                found = (XYCountMatrix<X, Y>)xyValues;
+            }else if(xyValues instanceof EntityXYCountMatrix) {
+                found = ((EntityXYCountMatrix<X, Y, ?>)xyValues).getMatrix();
+            }else{
+                found = null;
+            }
+            final boolean matches = found != null && 
+                    found.getXCount() == this.getTableMetaData().getXValues().size() &&
+                    found.getYCount() == this.getTableMetaData().getYValues().size();
+            this.matrix = matches ? found : null;
+            this.matrixResolved = true;
+        }
+        return this.matrix;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        if(columnIndex != 0 && this.getMatrix() != null) {
+            return this.loadValueAt(rowIndex, columnIndex);
+        }
+        return super.getValueAt(rowIndex, columnIndex);
+    }
+
+    /**
+     * Change a count of the matrix, and with it the sums of its row and column. 
+     * Only counts of a table whose counts are in a matrix may be changed.
+     * @param value The new count
+     * @param rowIndex The row of the count
+     * @param columnIndex The column of the count
+     * @see #getMatrix() 
+     */
+    @Override
+    public void setValueAt(Object value, int rowIndex, int columnIndex) {
+        final XYCountMatrix<X, Y> countMatrix = this.getMatrix();
+        if(countMatrix == null || columnIndex == 0 || 
+                this.isSumRow(rowIndex) || this.isSumColumn(columnIndex)) {
+            throw new UnsupportedOperationException(
+                    "Not a count cell of a matrix, row: " + rowIndex + ", column: " + columnIndex);
+        }
+        countMatrix.set(columnIndex - 1, rowIndex, toInt.applyAsInt(value));
+        this.fireTableCellUpdated(rowIndex, columnIndex);
+        this.fireTableCellUpdated(rowIndex, this.getTableMetaData().getSumColumnIndex());
+        this.fireTableCellUpdated(this.getTableMetaData().getSumRowIndex(), columnIndex);
+    }
+
+    /**
+     * @return The sum of all the counts
+     */
+    public int getTotal() {
+        final XYCountMatrix<X, Y> countMatrix = this.getMatrix();
+        if(countMatrix != null) {
+            return countMatrix.getTotal();
+        }
+        final List sums = this.getRowValues(this.getTableMetaData().getSumRowIndex(), 
+                1, this.getTableMetaData().getSumColumnIndex());
+        return (Integer)this.sum(sums);
+    }
+
     @Override
     public Object loadValueAt(int rowIndex, int columnIndex) {
         
+        final XYCountMatrix<X, Y> countMatrix = columnIndex == 0 ? null : this.getMatrix();
+        if(countMatrix != null) {
+            return this.loadValueAt(countMatrix, rowIndex, columnIndex);
+        }
+        
         final Object value;
         
         if(columnIndex == 0) {
@@ -97,6 +179,17 @@ public class XYCountTableModel<X, Y> extends XYTableModel<X, Y, Integer> {
         return value;
     }
     
+    private Object loadValueAt(XYCountMatrix<X, Y> countMatrix, int rowIndex, int columnIndex) {
+        final boolean sumRow = this.isSumRow(rowIndex);
+        if(this.isSumColumn(columnIndex)) {
+            return sumRow ? null : countMatrix.getYTotal(rowIndex);
+        }else if(sumRow) {
+            return countMatrix.getXTotal(columnIndex - 1);
+        }else{
+            return countMatrix.getCount(columnIndex - 1, rowIndex);
+        }
+    }
+    
     public Object sum(List values) {
         final Integer sum = (Integer)values.stream().collect(summingInt);
         return sum;
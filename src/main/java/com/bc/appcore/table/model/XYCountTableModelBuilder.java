@@ -39,6 +39,25 @@ public interface XYCountTableModelBuilder {
 
     XYCountTableModelBuilder useCache(boolean useCache);
     
+    /**
+     * @param parallel If true, count the search results in parallel. Only use 
+     * if the relations of the results may be loaded concurrently.
+     * @return This builder
+     * @see com.bc.appcore.table.model.EntityXYCountMatrix
+     */
+    XYCountTableModelBuilder parallel(boolean parallel);
+    
+    /**
+     * @param pushDown If true, and the search results are all the rows of 
+     * the result model's entity type, count in the database with a single 
+     * aggregate query, where the relations to the x and y entity types can 
+     * be resolved from the persistence metadata. Otherwise the search 
+     * results are counted in memory.
+     * @return This builder
+     * @see com.bc.appcore.table.model.XYCountQuery
+     */
+    XYCountTableModelBuilder pushDown(boolean pushDown);
+    
     XYCountTableModelBuilder xEntityType(Class xEntityType);
     
     XYCountTableModelBuilder yEntityType(Class yEntityType);
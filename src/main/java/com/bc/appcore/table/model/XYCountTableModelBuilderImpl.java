@@ -17,6 +17,7 @@
 package com.bc.appcore.table.model;
 
 import com.bc.appcore.AppCore;
+import com.bc.appcore.jpa.StreamingSearchResults;
 import com.bc.appcore.util.RelationAccess;
 import com.bc.jpa.dao.search.SearchResults;
 import java.util.ArrayList;
@@ -27,6 +28,9 @@ import java.util.logging.Logger;
 import com.bc.appcore.jpa.model.EntityResultModel;
 import com.bc.jpa.context.PersistenceUnitContext;
 import com.bc.jpa.dao.Select;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
 
 /**
  * @author Chinomso Bassey Ikwuagwu on May 20, 2017 3:34:37 PM
@@ -44,6 +48,8 @@ public class XYCountTableModelBuilderImpl<X, Y>
     private String sumRowName;
     private String sumColumnName;
     private boolean useCache = true;
+    private boolean parallel;
+    private boolean pushDown;
     
     private TableModelDisplayFormat tableModelDisplayFormat;
     
@@ -85,9 +91,11 @@ public class XYCountTableModelBuilderImpl<X, Y>
                     new Object[]{xEntityType.getName(), xValues, yEntityType.getName(), yValues}); 
         }
 
-        this.xyCountValues = new EntityXYCountValues(
-                this.searchResults.getPages(), this.app.getOrException(RelationAccess.class)
-        );
+        this.xyCountValues = this.pushDown ? this.countInDatabase(jpaContext) : null;
+        
+        if(this.xyCountValues == null) {
+            this.xyCountValues = this.countInMemory();
+        }
 
         final XYCountTableModel tableModel = new XYCountTableModel(
                 this, this.tableModelDisplayFormat, this.useCache
@@ -105,6 +113,55 @@ public class XYCountTableModelBuilderImpl<X, Y>
         return tableModel;
     }
     
+    /**
+     * @return The counts, or null if the search results are not all the rows
+     * of the result entity type, the relations to the x and y entity types
+     * could not be resolved, or the queries failed.
+     */
+    private XYValues<X, Y, Integer> countInDatabase(PersistenceUnitContext jpaContext) {
+        final Class resultType = this.resultModel.getEntityType();
+        final EntityManager em = jpaContext.getEntityManager();
+        try{
+            final CriteriaBuilder cb = em.getCriteriaBuilder();
+            final CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+            cq.select(cb.count(cq.from(resultType)));
+            final long total = em.createQuery(cq).getSingleResult();
+            if(total != this.searchResults.getSize()) {
+                logger.log(Level.FINE, "Counting in memory, search results: {0} of {1} {2}", 
+                        new Object[]{this.searchResults.getSize(), total, resultType.getSimpleName()});
+                return null;
+            }
+            return new XYCountQuery(em).count(
+                    resultType, xEntityType, xValues, yEntityType, yValues);
+        }catch(RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to count in database, counting in memory instead", e);
+            return null;
+        }finally{
+            if(em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+    
+    private XYValues<X, Y, Integer> countInMemory() {
+        final Iterable entities;
+        final boolean countInParallel;
+        if(this.searchResults instanceof StreamingSearchResults) {
+            final StreamingSearchResults streaming = (StreamingSearchResults)this.searchResults;
+            entities = () -> streaming.iterateAll();
+            // Counting in parallel would first load all the results into memory
+            countInParallel = false;
+        }else{
+            entities = this.searchResults.getPages();
+            countInParallel = this.parallel;
+        }
+
+        return new EntityXYCountMatrix(
+                entities, this.xValues, this.yValues, 
+                this.app.getOrException(RelationAccess.class), countInParallel
+        );
+    }
+    
     public List<Object[]> ensure(List<Object[]> list) {
         final List<Object[]> output = new ArrayList(list.size());
         for(Object e : list) {
@@ -159,6 +216,18 @@ public class XYCountTableModelBuilderImpl<X, Y>
         return this;
     }
 
+    @Override
+    public XYCountTableModelBuilder parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    @Override
+    public XYCountTableModelBuilder pushDown(boolean pushDown) {
+        this.pushDown = pushDown;
+        return this;
+    }
+
     @Override
     public XYCountTableModelBuilder xEntityType(Class xEntityType) {
         this.xEntityType = xEntityType;
@@ -216,6 +285,14 @@ public class XYCountTableModelBuilderImpl<X, Y>
         return useCache;
     }
 
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public boolean isPushDown() {
+        return pushDown;
+    }
+
     @Override
     public XYValues<X, Y, Integer> getXyValues() {
         return xyCountValues;
@@ -43,7 +43,9 @@ public class XYTableModel<X, Y, Z> extends AbstractTableModel {
         this.tableMetaData = Objects.requireNonNull(tableMetaData);
         this.valuesType = Objects.requireNonNull(valuesType);
         this.useCache = useCache;
-        this.cache = new Object[this.getRowCount()][this.getColumnCount()];
+        // Rows are allocated when first cached, so that a model which serves
+        // most values without the cache holds no boxed copy of them
+        this.cache = useCache ? new Object[this.getRowCount()][] : null;
         this.displayFormat = Objects.requireNonNull(cellDisplayFormat);
     }
 
@@ -84,7 +86,10 @@ public class XYTableModel<X, Y, Z> extends AbstractTableModel {
         final Object value;
         
         if(this.useCache) {
-            final Object [] cacheRow = this.cache[rowIndex];
+            Object [] cacheRow = this.cache[rowIndex];
+            if(cacheRow == null) {
+                cacheRow = this.cache[rowIndex] = new Object[this.getColumnCount()];
+            }
             final Object cachedValue = cacheRow[columnIndex];
             if(cachedValue != null) {
                 value = cachedValue;
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A {@link java.util.function.Consumer Consumer} which can consume many 
+ * elements as a single unit of work.
+ * @author Chinomso Bassey Ikwuagwu on Oct 19, 2026 9:20:14 AM
+ * @param <T> The type of the elements to consume
+ */
+public interface BatchConsumer<T> extends Consumer<T> {
+
+    /**
+     * Consume all the elements, or none of them. 
+     * @param batch The elements to consume, in order
+     * @throws RuntimeException If any of the elements could not be consumed. 
+     * None of the elements should be considered consumed in that case.
+     */
+    void acceptAll(List<T> batch);
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Signals that work should stop, either on request via {@link #cancel()}, or 
+ * once a {@link #timeout(long, java.util.concurrent.TimeUnit) timeout} elapses.
+ * <p>
+ * Long running work should check {@link #isCancelled()} at convenient points,
+ * and register callbacks via {@link #onCancel(java.lang.Runnable)} which free
+ * the resources it holds, e.g close the EntityManager it queries through.
+ * Call {@link #close()} when the work completes, to discard the callbacks 
+ * and any pending timeout.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 10:36:15 PM
+ */
+public class CancellationToken implements AutoCloseable {
+
+    private transient static final Logger logger = Logger.getLogger(CancellationToken.class.getName());
+
+    /**
+     * A token which is never cancelled
+     */
+    public static final CancellationToken NONE = new CancellationToken() {
+        @Override
+        public boolean cancel() { return false; }
+        @Override
+        public CancellationToken timeout(long timeout, TimeUnit timeUnit) { return this; }
+        @Override
+        public void onCancel(Runnable callback) { }
+    };
+
+    private static final class TimerHolder {
+        private static final ScheduledThreadPoolExecutor TIMER;
+        static{
+            TIMER = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+                final Thread thread = new Thread(runnable, CancellationToken.class.getSimpleName() + "_timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            TIMER.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    private volatile boolean cancelled;
+
+    private volatile boolean timedOut;
+
+    private long deadlineNanos;
+
+    private boolean hasDeadline;
+
+    private ScheduledFuture<?> timer;
+
+    private List<Runnable> callbacks;
+
+    public CancellationToken() { }
+
+    /**
+     * Request cancellation, and run the callbacks registered, on this thread.
+     * @return true if this call cancelled the token, false if already cancelled
+     */
+    public boolean cancel() {
+        final List<Runnable> toRun;
+        synchronized(this) {
+            if(cancelled) {
+                return false;
+            }
+            cancelled = true;
+            toRun = callbacks;
+            callbacks = null;
+            if(timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+        }
+        if(toRun != null) {
+            for(Runnable callback : toRun) {
+                try{
+                    callback.run();
+                }catch(RuntimeException e) {
+                    logger.log(Level.WARNING, "Exception running cancellation callback: " + callback, e);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cancel this token once the timeout elapses. If a timeout is already set,
+     * the earlier of both applies.
+     * @param timeout The timeout, from now
+     * @param timeUnit The time unit of the timeout
+     * @return This token
+     */
+    public CancellationToken timeout(long timeout, TimeUnit timeUnit) {
+        final long timeoutNanos = timeUnit.toNanos(timeout);
+        final long deadline = System.nanoTime() + timeoutNanos;
+        synchronized(this) {
+            if(cancelled || (hasDeadline && deadline - deadlineNanos >= 0)) {
+                return this;
+            }
+            hasDeadline = true;
+            deadlineNanos = deadline;
+            if(timer != null) {
+                timer.cancel(false);
+            }
+            timer = TimerHolder.TIMER.schedule(() -> {
+                timedOut = true;
+                this.cancel();
+            }, timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * @param callback Run when this token is cancelled, or at once if already 
+     * cancelled. Should return quickly.
+     */
+    public void onCancel(Runnable callback) {
+        Objects.requireNonNull(callback);
+        synchronized(this) {
+            if(!cancelled) {
+                if(callbacks == null) {
+                    callbacks = new ArrayList<>(2);
+                }
+                callbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    public synchronized boolean removeOnCancel(Runnable callback) {
+        return callbacks != null && callbacks.remove(callback);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return true if this token was cancelled because its timeout elapsed
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * @throws CancellationException If this token is cancelled
+     */
+    public void throwIfCancelled() throws CancellationException {
+        if(cancelled) {
+            throw new CancellationException(timedOut ? "Timed out" : "Cancelled");
+        }
+    }
+
+    /**
+     * @param timeUnit The time unit of the output
+     * @param outputIfNone The value to return if no timeout is set
+     * @return The time left before the timeout elapses, or zero if elapsed
+     */
+    public synchronized long getRemaining(TimeUnit timeUnit, long outputIfNone) {
+        if(!hasDeadline) {
+            return outputIfNone;
+        }
+        return timeUnit.convert(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Discard any pending timeout, keeping the callbacks. Use once the work 
+     * bounded by the timeout completes, while the resources it holds remain 
+     * in use, e.g the EntityManager through which the pages of search 
+     * results are loaded.
+     */
+    public synchronized void clearTimeout() {
+        hasDeadline = false;
+        if(timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+    }
+
+    /**
+     * Discard the callbacks and any pending timeout, without cancelling. 
+     */
+    @Override
+    public synchronized void close() {
+        callbacks = null;
+        if(timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{cancelled=" + cancelled + ", timedOut=" + timedOut + '}';
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tracks consecutive failures of a remote operation, and the time to wait
+ * before trying again.
+ * <ul>
+ *   <li>CLOSED: Operations proceed normally.</li>
+ *   <li>OPEN: After <code>failureThreshold</code> consecutive failures.
+ *   Operations are suspended until the backoff delay elapses.</li>
+ *   <li>HALF_OPEN: The backoff delay has elapsed. The next operation is a
+ *   trial: success closes the circuit, failure opens it again with a longer
+ *   delay.</li>
+ * </ul>
+ * The delay doubles with each consecutive failure, from the initial delay up
+ * to the maximum delay, and is randomly varied by up to the jitter fraction
+ * so that many clients do not retry in step.
+ * @author Chinomso Bassey Ikwuagwu on Oct 19, 2026 5:40:22 PM
+ */
+public class CircuitBreaker {
+
+    private transient static final Logger logger = Logger.getLogger(CircuitBreaker.class.getName());
+
+    public enum State{CLOSED, OPEN, HALF_OPEN}
+
+    private final int failureThreshold;
+
+    private final long initialDelayMillis;
+
+    private final long maxDelayMillis;
+
+    private final double jitter;
+
+    private int consecutiveFailures;
+
+    private long retryTime;
+
+    public CircuitBreaker() {
+        this(3, 500, TimeUnit.MINUTES.toMillis(5), 0.2);
+    }
+
+    /**
+     * @param failureThreshold The number of consecutive failures which open the circuit
+     * @param initialDelayMillis The delay after the first failure
+     * @param maxDelayMillis The maximum delay
+     * @param jitter The fraction, between 0 and 1, by which each delay is randomly varied
+     */
+    public CircuitBreaker(int failureThreshold, long initialDelayMillis, long maxDelayMillis, double jitter) {
+        if(failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold < 1");
+        }
+        if(initialDelayMillis < 0 || maxDelayMillis < initialDelayMillis) {
+            throw new IllegalArgumentException("Invalid delays, initial: " + initialDelayMillis + ", max: " + maxDelayMillis);
+        }
+        if(jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.jitter = jitter;
+    }
+
+    public synchronized State getState() {
+        if(consecutiveFailures < failureThreshold) {
+            return State.CLOSED;
+        }
+        return System.currentTimeMillis() < retryTime ? State.OPEN : State.HALF_OPEN;
+    }
+
+    public synchronized void onSuccess() {
+        if(consecutiveFailures >= failureThreshold) {
+            logger.info("Circuit closed");
+        }
+        consecutiveFailures = 0;
+        retryTime = 0;
+    }
+
+    /**
+     * Record a failure.
+     * @return The delay in milliseconds before the next attempt
+     */
+    public synchronized long onFailure() {
+        ++consecutiveFailures;
+        final int exponent = Math.min(consecutiveFailures - 1, 30);
+        final long delay = Math.min(maxDelayMillis, initialDelayMillis << exponent);
+        final double variation = jitter == 0 ? 0 : ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        final long jittered = Math.max(0, Math.round(delay * (1 + variation)));
+        retryTime = System.currentTimeMillis() + jittered;
+        if(consecutiveFailures == failureThreshold) {
+            logger.log(Level.WARNING, "Circuit opened after {0} consecutive failures", consecutiveFailures);
+        }
+        logger.log(Level.FINE, "Failures: {0}, next attempt in {1} millis",
+                new Object[]{consecutiveFailures, jittered});
+        return jittered;
+    }
+
+    /**
+     * Allow the next attempt immediately, without resetting the failure count.
+     * If the circuit is open, it becomes half open.
+     */
+    public synchronized void allowAttemptNow() {
+        retryTime = 0;
+    }
+
+    /**
+     * @param timeUnit The time unit of the output
+     * @return The time remaining until the next attempt is allowed
+     */
+    public synchronized long getRetryDelay(TimeUnit timeUnit) {
+        return timeUnit.convert(Math.max(0, retryTime - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+}
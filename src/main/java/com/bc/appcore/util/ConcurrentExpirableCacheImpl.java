@@ -0,0 +1,437 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntBiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A thread safe {@link com.bc.appcore.util.ExpirableCache ExpirableCache}.
+ * <p>
+ * Reads never block. An expired entry is never returned, even if it has not
+ * yet been swept. Expired entries are swept by a daemon thread, one tick at a
+ * time, using an {@link com.bc.appcore.util.ExpiryTimerWheel ExpiryTimerWheel}.
+ * </p>
+ * <p>
+ * <b>Bounded mode:</b> When a maximum weight is specified, the total weight of
+ * entries is kept within that maximum by evicting entries according to a
+ * {@link com.bc.appcore.util.SegmentedLruPolicy segmented LRU policy}. Unless 
+ * a weigher is specified, each entry has a weight of 1, so that the maximum 
+ * weight is the maximum number of entries. In bounded mode writes are 
+ * serialized, while reads only record access if the policy is not busy.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 18, 2026 10:48:02 AM
+ */
+public class ConcurrentExpirableCacheImpl<K> extends AbstractMap<K, Expirable> implements ExpirableCache<K> {
+
+    private transient static final Logger logger = Logger.getLogger(ConcurrentExpirableCacheImpl.class.getName());
+
+    private final long timeout;
+
+    private final TimeUnit timeUnit;
+
+    private final ConcurrentMap<K, Expirable> delegate;
+
+    private final ExpiryTimerWheel<K> timerWheel;
+
+    private final ScheduledExecutorService clearExpiredService;
+
+    /**
+     * Null, unless in bounded mode
+     */
+    private final SegmentedLruPolicy<K> policy;
+
+    private final ToIntBiFunction<K, Expirable> weigher;
+
+    private final ReentrantLock policyLock;
+
+    private final ExpirableCacheStatsImpl stats;
+
+    private transient Set<Map.Entry<K, Expirable>> entrySet;
+
+    public ConcurrentExpirableCacheImpl(long timeout, TimeUnit timeUnit) {
+        this(timeout, timeUnit, 1, TimeUnit.SECONDS, 16);
+    }
+
+    public ConcurrentExpirableCacheImpl(long timeout, TimeUnit timeUnit, int initialCapacity) {
+        this(timeout, timeUnit, 1, TimeUnit.SECONDS, initialCapacity);
+    }
+
+    /**
+     * Create a cache bounded to the specified maximum number of entries
+     * @param timeout The default timeout of entries added via {@link #putFor(java.lang.Object, java.lang.Object)}
+     * @param timeUnit The time unit of the default timeout
+     * @param initialCapacity The initial capacity of the cache
+     * @param maximumSize The maximum number of entries
+     */
+    public ConcurrentExpirableCacheImpl(long timeout, TimeUnit timeUnit, 
+            int initialCapacity, long maximumSize) {
+        this(timeout, timeUnit, 1, TimeUnit.SECONDS, initialCapacity, 
+                new SegmentedLruPolicy<>(maximumSize, 0.8f), (key, value) -> 1);
+    }
+
+    /**
+     * Create a cache bounded to the specified maximum weight
+     * @param timeout The default timeout of entries added via {@link #putFor(java.lang.Object, java.lang.Object)}
+     * @param timeUnit The time unit of the default timeout
+     * @param maximumWeight The maximum total weight of entries
+     * @param weigher Returns the weight of each entry. Weights must not be negative.
+     */
+    public ConcurrentExpirableCacheImpl(long timeout, TimeUnit timeUnit, 
+            long maximumWeight, ToIntBiFunction<K, Expirable> weigher) {
+        this(timeout, timeUnit, 1, TimeUnit.SECONDS, 16, 
+                new SegmentedLruPolicy<>(maximumWeight, 0.8f), Objects.requireNonNull(weigher));
+    }
+
+    /**
+     * @param timeout The default timeout of entries added via {@link #putFor(java.lang.Object, java.lang.Object)}
+     * @param timeUnit The time unit of the default timeout
+     * @param tick The interval between sweeps of expired entries
+     * @param tickUnit The time unit of the sweep interval
+     * @param initialCapacity The initial capacity of the cache
+     */
+    public ConcurrentExpirableCacheImpl(long timeout, TimeUnit timeUnit,
+            long tick, TimeUnit tickUnit, int initialCapacity) {
+        this(timeout, timeUnit, tick, tickUnit, initialCapacity, null, null);
+    }
+
+    private ConcurrentExpirableCacheImpl(long timeout, TimeUnit timeUnit,
+            long tick, TimeUnit tickUnit, int initialCapacity,
+            SegmentedLruPolicy<K> policy, ToIntBiFunction<K, Expirable> weigher) {
+        this.policy = policy;
+        this.weigher = weigher;
+        this.policyLock = new ReentrantLock();
+        this.timeout = timeout;
+        this.timeUnit = Objects.requireNonNull(timeUnit);
+        this.delegate = new ConcurrentHashMap<>(initialCapacity);
+        this.stats = new ExpirableCacheStatsImpl(this.delegate);
+        final long tickMillis = Math.max(1, tickUnit.toMillis(tick));
+        final long timeoutMillis = timeUnit.toMillis(timeout);
+        this.timerWheel = new ExpiryTimerWheel<>(tickMillis, timeoutMillis, timeoutMillis);
+        this.clearExpiredService = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            final Thread thread = new Thread(runnable, this.getClass().getName()+"_SweeperThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.clearExpiredService.scheduleWithFixedDelay(
+                this::clearExpired, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        try{
+            com.bc.util.Util.shutdownAndAwaitTermination(this.clearExpiredService, 1, TimeUnit.SECONDS);
+        }catch(Exception e) {
+            logger.log(Level.WARNING, e,
+                    () -> "Encountered exception while shutting down service for clearing expired elements of: "+this.getClass().getName());
+        }
+    }
+
+    /**
+     * Remove expired entries for the ticks elapsed since the last call.
+     * @return The number of entries removed.
+     */
+    protected int clearExpired() {
+        try{
+            final int removed = this.timerWheel.expire(
+                    System.currentTimeMillis(), this.delegate, this::removeMapping);
+            if(removed > 0) {
+                this.stats.recordExpired(removed);
+                logger.log(Level.FINER, "Cleared {0} expired entries", removed);
+            }
+            return removed;
+        }catch(RuntimeException e) {
+            logger.log(Level.WARNING, "Unexpected exception clearing expired "+Expirable.class.getName(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Remove the expired entry, unless that would block. If not removed here
+     * it is removed by the sweeper, when the entry's slot of the timer wheel 
+     * is visited.
+     * @return true if removed
+     */
+    private boolean tryRemoveExpired(K key, Expirable expirable) {
+        if(this.policy == null) {
+            return this.delegate.remove(key, expirable);
+        }
+        if(!this.policyLock.tryLock()) {
+            return false;
+        }
+        try{
+            final boolean removed = this.delegate.remove(key, expirable);
+            if(removed) {
+                this.policy.onRemove(key);
+            }
+            return removed;
+        }finally{
+            this.policyLock.unlock();
+        }
+    }
+
+    /**
+     * Remove the key, if mapped to the value, updating the policy.
+     * @return true if removed
+     */
+    private boolean removeMapping(K key, Expirable expirable) {
+        if(this.policy == null) {
+            return this.delegate.remove(key, expirable);
+        }
+        this.policyLock.lock();
+        try{
+            final boolean removed = this.delegate.remove(key, expirable);
+            if(removed) {
+                this.policy.onRemove(key);
+            }
+            return removed;
+        }finally{
+            this.policyLock.unlock();
+        }
+    }
+
+    public boolean isBounded() {
+        return this.policy != null;
+    }
+
+    /**
+     * @return The total weight of entries in bounded mode, otherwise the number of entries
+     */
+    public long getWeight() {
+        if(this.policy == null) {
+            return this.size();
+        }
+        this.policyLock.lock();
+        try{
+            return this.policy.getWeight();
+        }finally{
+            this.policyLock.unlock();
+        }
+    }
+
+    @Override
+    public ExpirableCacheStats getStats() {
+        return this.stats;
+    }
+
+    @Override
+    public long getDefaultExpirableTimeout(TimeUnit targetTimeUnit) {
+        return targetTimeUnit.convert(this.timeout, this.timeUnit);
+    }
+
+    @Override
+    public <V> Expirable<V> putFor(K id, V value) {
+        final Expirable expirable = Expirable.from(value, this.timeout, this.timeUnit);
+        return this.put(id, expirable);
+    }
+
+    @Override
+    public Expirable put(K key, Expirable value) {
+        Objects.requireNonNull(value);
+        final Expirable previous;
+        if(this.policy == null) {
+            previous = this.delegate.put(key, value);
+        }else{
+            final int weight = this.weigher.applyAsInt(key, value);
+            this.policyLock.lock();
+            try{
+                previous = this.delegate.put(key, value);
+                final List<K> evicted = this.policy.onPut(key, weight);
+                for(K e : evicted) {
+                    this.delegate.remove(e);
+                }
+                if(!evicted.isEmpty()) {
+                    this.stats.recordEvictions(evicted.size());
+                    logger.log(Level.FINER, "Evicted {0} entries", evicted.size());
+                }
+            }finally{
+                this.policyLock.unlock();
+            }
+        }
+        this.timerWheel.schedule(key, value, System.currentTimeMillis());
+        this.stats.recordPut();
+        return previous;
+    }
+
+    @Override
+    public Expirable get(Object key) {
+        final Expirable expirable = this.delegate.get(key);
+        if(expirable == null) {
+            this.stats.recordLookup(false);
+            return null;
+        }
+        if(expirable.isExpired()) {
+            if(this.tryRemoveExpired((K)key, expirable)) {
+                this.stats.recordExpired(1);
+            }
+            this.stats.recordLookup(false);
+            return null;
+        }
+        this.stats.recordLookup(true);
+        // Access is recorded only if the policy is free; a few lost reads do
+        // not matter to the eviction order, blocking the reader does.
+        if(this.policy != null && this.policyLock.tryLock()) {
+            try{
+                this.policy.onAccess((K)key);
+            }finally{
+                this.policyLock.unlock();
+            }
+        }
+        return expirable;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        final Expirable expirable = this.delegate.get(key);
+        return expirable != null && !expirable.isExpired();
+    }
+
+    @Override
+    public Expirable remove(Object key) {
+        final Expirable removed;
+        if(this.policy == null) {
+            removed = this.delegate.remove(key);
+        }else{
+            this.policyLock.lock();
+            try{
+                removed = this.delegate.remove(key);
+                this.policy.onRemove(key);
+            }finally{
+                this.policyLock.unlock();
+            }
+        }
+        if(removed != null && removed.isExpired()) {
+            this.stats.recordExpired(1);
+            this.stats.recordLookup(false);
+            return null;
+        }
+        this.stats.recordLookup(removed != null);
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        this.policyLock.lock();
+        try{
+            this.delegate.clear();
+            if(this.policy != null) {
+                this.policy.clear();
+            }
+        }finally{
+            this.policyLock.unlock();
+        }
+        this.timerWheel.clear();
+    }
+
+    /**
+     * @return The number of entries, including expired entries which have not yet been swept.
+     */
+    @Override
+    public int size() {
+        return this.delegate.size();
+    }
+
+    /**
+     * Removals and updates through this set, its iterator, its entries, and
+     * so the {@link #keySet()} and {@link #values()} views, go through this 
+     * cache, so that in bounded mode the policy stays in step.
+     * @return A view of the entries of this cache, including expired entries 
+     * which have not yet been swept.
+     */
+    @Override
+    public Set<Map.Entry<K, Expirable>> entrySet() {
+        Set<Map.Entry<K, Expirable>> output = this.entrySet;
+        if(output == null) {
+            output = this.entrySet = new EntrySet();
+        }
+        return output;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, Expirable>> {
+        @Override
+        public Iterator<Map.Entry<K, Expirable>> iterator() {
+            final Iterator<Map.Entry<K, Expirable>> iter = delegate.entrySet().iterator();
+            return new Iterator<Map.Entry<K, Expirable>>() {
+                private Map.Entry<K, Expirable> current;
+                @Override
+                public boolean hasNext() {
+                    return iter.hasNext();
+                }
+                @Override
+                public Map.Entry<K, Expirable> next() {
+                    final Map.Entry<K, Expirable> next = iter.next();
+                    current = next;
+                    return new CacheEntry(next.getKey(), next.getValue());
+                }
+                @Override
+                public void remove() {
+                    if(current == null) {
+                        throw new IllegalStateException();
+                    }
+                    removeMapping(current.getKey(), current.getValue());
+                    current = null;
+                }
+            };
+        }
+        @Override
+        public boolean contains(Object o) {
+            return delegate.entrySet().contains(o);
+        }
+        @Override
+        public boolean remove(Object o) {
+            if(!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry e = (Map.Entry)o;
+            return e.getValue() instanceof Expirable && 
+                    removeMapping((K)e.getKey(), (Expirable)e.getValue());
+        }
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+        @Override
+        public void clear() {
+            ConcurrentExpirableCacheImpl.this.clear();
+        }
+    }
+
+    private final class CacheEntry extends AbstractMap.SimpleEntry<K, Expirable> {
+        private CacheEntry(K key, Expirable value) {
+            super(key, value);
+        }
+        @Override
+        public Expirable setValue(Expirable value) {
+            super.setValue(value);
+            return put(this.getKey(), value);
+        }
+    }
+}
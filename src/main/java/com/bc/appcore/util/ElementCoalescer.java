@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+/**
+ * Combines an element being added to a {@link com.bc.appcore.util.TargetQueue TargetQueue}
+ * with the pending element of the same key, so that the queue holds at most 
+ * one element per key in most cases.
+ * @author Chinomso Bassey Ikwuagwu on Oct 19, 2026 11:03:37 AM
+ * @param <T> The type of the queue elements
+ */
+public interface ElementCoalescer<T> {
+    
+    enum Result{
+        /** Add the new element, leaving the pending element as is */
+        KEEP_BOTH, 
+        /** Replace the pending element, in its position, with the combination of both */
+        REPLACE_PENDING, 
+        /** Remove the pending element and do not add the new element */
+        CANCEL_BOTH, 
+        /** Remove the pending element, then add the new element */
+        REMOVE_PENDING
+    }
+    
+    /**
+     * @param element The element whose key is to be returned
+     * @return The key of the element, or null if the element may not be coalesced
+     */
+    Object getKey(T element);
+    
+    /**
+     * @param pending The element of the same key already in the queue
+     * @param next The element being added
+     * @return What to do with both elements
+     */
+    Result getResult(T pending, T next);
+    
+    /**
+     * Called only when {@link #getResult(java.lang.Object, java.lang.Object)} 
+     * returns {@link Result#REPLACE_PENDING}
+     * @param pending The element of the same key already in the queue
+     * @param next The element being added
+     * @return The element to replace the pending element with
+     */
+    default T combine(T pending, T next) {
+        return next;
+    }
+}
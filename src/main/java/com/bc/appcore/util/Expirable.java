@@ -36,6 +36,10 @@ public interface Expirable<T> {
                 return System.currentTimeMillis() > expiryTime;
             }
             @Override
+            public long getExpiryTimeMillis() {
+                return expiryTime;
+            }
+            @Override
             public Optional<T> get() {
                 return Optional.ofNullable(t);
             }
@@ -45,5 +49,14 @@ public interface Expirable<T> {
     
     boolean isExpired();
     
+    /**
+     * @return The time, in milliseconds since the epoch, after which this 
+     * {@link com.bc.appcore.util.Expirable Expirable} is expired or a negative 
+     * number if the expiry time is not known in advance.
+     */
+    default long getExpiryTimeMillis() {
+        return -1L;
+    }
+    
     Optional<T> get();
 }
@@ -27,4 +27,8 @@ public interface ExpirableCache<K> extends Map<K, Expirable>, AutoCloseable {
     long getDefaultExpirableTimeout(TimeUnit timeUnit);
     
     <V> Expirable<V> putFor(K id, V value);
+    
+    default ExpirableCacheStats getStats() {
+        return ExpirableCacheStats.NO_OP;
+    }
 }
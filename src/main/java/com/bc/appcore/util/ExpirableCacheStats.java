@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of an {@link com.bc.appcore.util.ExpirableCache ExpirableCache}.
+ * Lookups are calls to <code>get</code> or <code>remove</code>. A lookup 
+ * of an expired entry counts as a miss.
+ * @author Chinomso Bassey Ikwuagwu on Oct 18, 2026 4:31:10 PM
+ */
+public interface ExpirableCacheStats {
+
+    ExpirableCacheStats NO_OP = new ExpirableCacheStats() {
+        @Override
+        public long getStartTime() { return 0L; }
+        @Override
+        public long getHitCount() { return 0L; }
+        @Override
+        public long getMissCount() { return 0L; }
+        @Override
+        public long getPutCount() { return 0L; }
+        @Override
+        public long getExpiredCount() { return 0L; }
+        @Override
+        public long getEvictionCount() { return 0L; }
+        @Override
+        public long getEntryCount() { return 0L; }
+        @Override
+        public long getEstimatedMemoryBytes() { return 0L; }
+    };
+
+    /**
+     * @return The time in milliseconds since epoch when the statistics started being recorded
+     */
+    long getStartTime();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    long getPutCount();
+
+    /**
+     * @return The number of entries removed because they expired
+     */
+    long getExpiredCount();
+
+    /**
+     * @return The number of entries removed to keep a bounded cache within its limit
+     */
+    long getEvictionCount();
+
+    long getEntryCount();
+
+    /**
+     * @return An estimate of the memory used by the cache entries, excluding
+     * the memory of the keys and values themselves.
+     */
+    long getEstimatedMemoryBytes();
+
+    default long getRequestCount() {
+        return this.getHitCount() + this.getMissCount();
+    }
+
+    default double getHitRate() {
+        final long requestCount = this.getRequestCount();
+        return requestCount == 0 ? 1.0 : (double)this.getHitCount() / requestCount;
+    }
+
+    default double getMissRate() {
+        final long requestCount = this.getRequestCount();
+        return requestCount == 0 ? 0.0 : (double)this.getMissCount() / requestCount;
+    }
+
+    /**
+     * @param timeUnit The time unit of the rate
+     * @return The average number of puts per time unit since statistics started
+     */
+    default double getPutRate(TimeUnit timeUnit) {
+        final long elapsed = System.currentTimeMillis() - this.getStartTime();
+        return elapsed < 1 ? 0.0 : (double)this.getPutCount() * timeUnit.toMillis(1) / elapsed;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live statistics of an {@link com.bc.appcore.util.ExpirableCache ExpirableCache}.
+ * Counters are striped, so recording does not contend between threads.
+ * @author Chinomso Bassey Ikwuagwu on Oct 18, 2026 4:44:52 PM
+ */
+public class ExpirableCacheStatsImpl implements ExpirableCacheStats {
+
+    /**
+     * Approximate bytes per entry: the map node, the Expirable, the
+     * Optional it returns and the timer wheel node.
+     */
+    public static final int ESTIMATED_BYTES_PER_ENTRY = 128;
+
+    private final long startTime;
+
+    private final Map<?, ?> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpirableCacheStatsImpl(Map<?, ?> cache) {
+        this.startTime = System.currentTimeMillis();
+        this.cache = Objects.requireNonNull(cache);
+    }
+
+    void recordLookup(boolean hit) {
+        if(hit) {
+            hits.increment();
+        }else{
+            misses.increment();
+        }
+    }
+
+    void recordPut() {
+        puts.increment();
+    }
+
+    void recordExpired(int count) {
+        expired.add(count);
+    }
+
+    void recordEvictions(int count) {
+        evictions.add(count);
+    }
+
+    @Override
+    public long getStartTime() {
+        return startTime;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    @Override
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getEntryCount() {
+        return cache.size();
+    }
+
+    @Override
+    public long getEstimatedMemoryBytes() {
+        return this.getEntryCount() * ESTIMATED_BYTES_PER_ENTRY;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{entries=" + this.getEntryCount() + 
+                ", hits=" + this.getHitCount() + ", misses=" + this.getMissCount() + 
+                ", hitRate=" + String.format("%.3f", this.getHitRate()) + 
+                ", puts=" + this.getPutCount() + 
+                ", putsPerMinute=" + String.format("%.2f", this.getPutRate(TimeUnit.MINUTES)) + 
+                ", expired=" + this.getExpiredCount() + ", evictions=" + this.getEvictionCount() + 
+                ", estimatedMemoryBytes=" + this.getEstimatedMemoryBytes() + '}';
+    }
+}
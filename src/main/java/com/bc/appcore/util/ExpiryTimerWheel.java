@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiPredicate;
+
+/**
+ * A hashed timer wheel of {@link com.bc.appcore.util.Expirable Expirable}s.
+ * <p>
+ * Each slot of the wheel holds the entries due within one tick. Scheduling
+ * is O(1) and each call to 
+ * {@link #expire(long, java.util.Map, java.util.function.BiPredicate)} 
+ * only visits the slots for the ticks elapsed since the previous call. Entries 
+ * due more than one rotation away are simply re-queued when their slot comes round.
+ * </p>
+ * Entries are never removed from the wheel when the mapping is removed or
+ * replaced. Such stale entries are discarded when their slot is visited.
+ * @author Chinomso Bassey Ikwuagwu on Oct 18, 2026 10:12:31 AM
+ */
+class ExpiryTimerWheel<K> {
+
+    private static final int MAX_SLOTS = 1 << 16;
+
+    private static final class Node<K> {
+        private final K key;
+        private final Expirable expirable;
+        private final long deadline;
+        private Node(K key, Expirable expirable, long deadline) {
+            this.key = key;
+            this.expirable = expirable;
+            this.deadline = deadline;
+        }
+    }
+
+    private final long startTime;
+
+    private final long tickMillis;
+
+    private final long recheckMillis;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<Queue<Node<K>>> slots;
+
+    /**
+     * Only updated by the thread calling 
+     * {@link #expire(long, java.util.Map, java.util.function.BiPredicate)}
+     */
+    private volatile long lastTick;
+
+    /**
+     * @param tickMillis The resolution of the wheel
+     * @param spanMillis The duration the wheel should cover in one rotation.
+     * Typically the default timeout of the cache using this wheel
+     * @param recheckMillis For {@link com.bc.appcore.util.Expirable Expirable}s
+     * whose expiry time is not known, the interval between checks
+     */
+    ExpiryTimerWheel(long tickMillis, long spanMillis, long recheckMillis) {
+        if(tickMillis < 1) {
+            throw new IllegalArgumentException("Tick duration < 1 millisecond");
+        }
+        this.startTime = System.currentTimeMillis();
+        this.tickMillis = tickMillis;
+        this.recheckMillis = Math.max(tickMillis, recheckMillis);
+        final long required = spanMillis / tickMillis + 1;
+        int n = 1;
+        while(n < required && n < MAX_SLOTS) {
+            n <<= 1;
+        }
+        this.mask = n - 1;
+        this.slots = new AtomicReferenceArray<>(n);
+        for(int i=0; i<n; i++) {
+            this.slots.set(i, new ConcurrentLinkedQueue<>());
+        }
+        this.lastTick = 0;
+    }
+
+    void schedule(K key, Expirable expirable, long now) {
+        final long expiryTime = expirable.getExpiryTimeMillis();
+        final long deadline = expiryTime < 0 ? now + recheckMillis : expiryTime;
+        this.schedule(new Node<>(key, expirable, deadline), this.lastTick + 1);
+    }
+
+    private void schedule(Node<K> node, long earliestTick) {
+        long tick = Math.max(this.toTick(node.deadline), earliestTick);
+        while(true) {
+            final int index = (int)(tick & mask);
+            final Queue<Node<K>> slot = this.slots.get(index);
+            slot.add(node);
+            // If the slot was swapped out by expire() after we read it, the
+            // node may have been added after the sweep drained the queue, in 
+            // which case it would never be visited. If we can still take it
+            // back, the sweep did not see it: schedule it again, after the 
+            // tick being swept. Otherwise the sweep has it.
+            if(this.slots.get(index) == slot || !slot.remove(node)) {
+                return;
+            }
+            tick = Math.max(tick, this.toTick(System.currentTimeMillis()) + 1);
+        }
+    }
+
+    /**
+     * Remove from the map all entries expired as at the time specified.
+     * <p>
+     * Only one thread should call this method at a time.
+     * </p>
+     * @param now The current time in milliseconds
+     * @param map The map to look up the current mapping of each scheduled key
+     * @param remove Removes the expired mapping, returning true if removed
+     * @return The number of entries removed
+     */
+    int expire(long now, Map<K, Expirable> map, BiPredicate<K, Expirable> remove) {
+
+        final long currentTick = this.toTick(now);
+        final long from = this.lastTick + 1;
+
+        if(currentTick < from) {
+            return 0;
+        }
+
+        // A full rotation visits every slot; there is no need to go further.
+        final long to = Math.min(currentTick, from + mask);
+
+        int removed = 0;
+
+        for(long tick = from; tick <= to; tick++) {
+
+            final Queue<Node<K>> slot = this.slots.getAndSet(
+                    (int)(tick & mask), new ConcurrentLinkedQueue<>());
+
+            Node<K> node;
+            while((node = slot.poll()) != null) {
+
+                if(map.get(node.key) != node.expirable) {
+                    continue;
+                }
+
+                if(node.expirable.isExpired()) {
+                    if(remove.test(node.key, node.expirable)) {
+                        ++removed;
+                    }
+                }else if(node.deadline > now) {
+                    this.schedule(node, currentTick + 1);
+                }else{
+                    this.schedule(new Node<>(node.key, node.expirable, now + recheckMillis), currentTick + 1);
+                }
+            }
+        }
+
+        this.lastTick = currentTick;
+
+        return removed;
+    }
+
+    void clear() {
+        for(int i=0; i<this.slots.length(); i++) {
+            this.slots.set(i, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    private long toTick(long time) {
+        return Math.max(0, (time - startTime) / tickMillis);
+    }
+}
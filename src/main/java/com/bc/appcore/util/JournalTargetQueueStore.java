@@ -0,0 +1,513 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Persists each change to the queue as a record appended to a journal file,
+ * so the cost of each write is independent of the size of the queue and no
+ * change is lost between checkpoints.
+ * <p>
+ * Record format: <code>type(1) sequence(8) length(4) payload(length) crc32(4)</code>.
+ * The CRC covers all the preceding fields of the record. On load the
+ * journal is replayed up to the first incomplete or corrupt record, and
+ * truncated there. A record which fails to be written is removed from the
+ * end of the journal before the next is appended.
+ * </p>
+ * <p>
+ * At checkpoints the journal is compacted, by rewriting only the current
+ * elements, once it holds more than <code>compactionThreshold</code> records
+ * of removed elements.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 18, 2026 7:31:09 PM
+ * @param <T> The type of the queue elements. Must be {@link java.io.Serializable Serializable}
+ */
+public class JournalTargetQueueStore<T> implements TargetQueueStore<T> {
+
+    private transient static final Logger logger = Logger.getLogger(JournalTargetQueueStore.class.getName());
+
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte REPLACE = 3;
+
+    private static final int MAX_PAYLOAD_LENGTH = 64 * 1024 * 1024;
+
+    private final File file;
+
+    private final TargetQueueStore<T> migrateFrom;
+
+    private final boolean forceOnWrite;
+
+    private final int compactionThreshold;
+
+    /**
+     * The sequence number of the records of each element, by the key of the 
+     * element, in queue order
+     */
+    private final LinkedHashMap<Long, Long> sequences;
+
+    private long nextSequence;
+
+    private long recordCount;
+
+    private FileOutputStream fileOut;
+
+    private DataOutputStream out;
+
+    private boolean closed;
+
+    /**
+     * If not -1, the length to truncate the journal to before appending again
+     */
+    private long truncateTo = -1;
+
+    public JournalTargetQueueStore(File file) {
+        this(file, null, false, 1000);
+    }
+
+    /**
+     * @param file The journal file
+     * @param migrateFrom If the file of this store exists, its elements are
+     * moved to the journal on load, and the file deleted. May be null.
+     * @param forceOnWrite If true each record is forced to the storage device
+     * before returning, otherwise it is only flushed to the operating system.
+     * @param compactionThreshold The number of records of removed elements
+     * which trigger compaction at the next checkpoint.
+     */
+    public JournalTargetQueueStore(File file, TargetQueueStore<T> migrateFrom,
+            boolean forceOnWrite, int compactionThreshold) {
+        this.file = Objects.requireNonNull(file);
+        this.migrateFrom = migrateFrom;
+        this.forceOnWrite = forceOnWrite;
+        this.compactionThreshold = compactionThreshold;
+        this.sequences = new LinkedHashMap<>();
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized List<T> load() {
+
+        final File tempFile = this.getTempFile();
+        if(tempFile.exists() && !tempFile.delete()) {
+            logger.warning(() -> "Failed to delete incomplete compaction file: " + tempFile);
+        }
+
+        final Map<Long, T> replayed = this.replay();
+
+        final List<T> output = new ArrayList<>(replayed.values());
+
+        long key = 0;
+        for(Long sequence : replayed.keySet()) {
+            this.sequences.put(key++, sequence);
+        }
+        this.openForAppend();
+
+        if(migrateFrom != null && migrateFrom.getFile().exists()) {
+            final List<T> migrated = migrateFrom.load();
+            logger.log(Level.INFO, "Migrating {0} elements from: {1}",
+                    new Object[]{migrated.size(), migrateFrom.getFile()});
+            for(T element : migrated) {
+                this.added(output.size(), element);
+                output.add(element);
+            }
+            this.checkpoint(output);
+            if(!migrateFrom.getFile().delete()) {
+                logger.warning(() -> "Failed to delete: " + migrateFrom.getFile());
+            }
+        }
+
+        logger.log(Level.FINE, "Loaded {0} elements from: {1}", new Object[]{output.size(), file});
+
+        return new LinkedList<>(output);
+    }
+
+    private Map<Long, T> replay() {
+
+        final Map<Long, T> live = new LinkedHashMap<>();
+
+        if(!file.exists()) {
+            return live;
+        }
+
+        long validLength = 0;
+        boolean corrupt = false;
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+            final CRC32 crc = new CRC32();
+
+            while(true) {
+
+                final int type = in.read();
+                if(type == -1) {
+                    break;
+                }
+
+                final long sequence;
+                final byte [] payload;
+                try{
+                    sequence = in.readLong();
+                    final int length = in.readInt();
+                    if(length < 0 || length > MAX_PAYLOAD_LENGTH) {
+                        corrupt = true;
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    final int checksum = in.readInt();
+                    if(checksum != this.checksum(crc, (byte)type, sequence, payload)) {
+                        corrupt = true;
+                        break;
+                    }
+                }catch(EOFException e) {
+                    corrupt = true;
+                    break;
+                }
+
+                validLength += 1 + 8 + 4 + payload.length + 4;
+                ++recordCount;
+                if(sequence >= nextSequence) {
+                    nextSequence = sequence + 1;
+                }
+
+                switch(type) {
+                    case ADD:
+                    case REPLACE:
+                        final T element = this.deserialize(payload, sequence);
+                        if(element != null && (type == ADD || live.containsKey(sequence))) {
+                            live.put(sequence, element);
+                        }
+                        break;
+                    case REMOVE:
+                        live.remove(sequence);
+                        break;
+                    default:
+                        logger.warning(() -> "Unexpected record type: " + type + " in: " + file);
+                }
+            }
+        }catch(IOException e) {
+            logger.log(Level.WARNING, "Error reading: " + file, e);
+        }
+
+        if(corrupt) {
+            final long length = validLength;
+            logger.warning(() -> "Incomplete or corrupt record at offset: " + length +
+                    ", truncating: " + file);
+            try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(length);
+            }catch(IOException e) {
+                logger.log(Level.WARNING, "Error truncating: " + file, e);
+            }
+        }
+
+        return live;
+    }
+
+    private T deserialize(byte [] payload, long sequence) {
+        try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return (T)in.readObject();
+        }catch(IOException | ClassNotFoundException e) {
+            logger.log(Level.WARNING, "Failed to read element with sequence: " + sequence +
+                    " from: " + file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void added(long key, T element) {
+        final long sequence = nextSequence++;
+        sequences.put(key, sequence);
+        this.append(ADD, sequence, element);
+    }
+
+    @Override
+    public synchronized void removed(long key) {
+        final Long sequence = sequences.remove(key);
+        if(sequence == null) {
+            logger.warning(() -> "Unknown key: " + key + ", removal not persisted: " + file);
+            return;
+        }
+        this.append(REMOVE, sequence, null);
+    }
+
+    @Override
+    public synchronized void replaced(long key, T element) {
+        final Long sequence = sequences.get(key);
+        if(sequence == null) {
+            logger.warning(() -> "Unknown key: " + key + ", replacement not persisted: " + file);
+            return;
+        }
+        this.append(REPLACE, sequence, element);
+    }
+
+    @Override
+    public synchronized void checkpoint(List<T> elements) {
+        if(closed) {
+            return;
+        }
+        if(recordCount - elements.size() >= compactionThreshold) {
+            logger.log(Level.FINE, "Compacting {0} records to {1} elements",
+                    new Object[]{recordCount, elements.size()});
+            this.closeOutput();
+            this.rewrite(elements);
+        }else if(out != null) {
+            try{
+                out.flush();
+                fileOut.getChannel().force(false);
+            }catch(IOException e) {
+                logger.log(Level.WARNING, "Error syncing: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Replace the journal with one holding only the elements, regardless of 
+     * the compaction threshold. If the elements are not those of the queue,
+     * they have the keys 0 to n-1 afterwards, as if loaded.
+     * @param elements The elements to hold
+     * @return <code>true</code> if the journal was replaced, <code>false</code>
+     * if it was left as it was
+     */
+    public synchronized boolean compact(List<T> elements) {
+        if(closed) {
+            return false;
+        }
+        this.closeOutput();
+        return this.rewrite(elements);
+    }
+
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.closeOutput();
+    }
+
+    /**
+     * Write the elements to a temporary file, replace the journal with it,
+     * then re-open the journal for appending. If this fails, the journal is
+     * left as it was. The elements keep their keys, if as many as the keys.
+     * @return <code>true</code> if the journal was replaced
+     */
+    private boolean rewrite(List<T> elements) {
+        final File tempFile = this.getTempFile();
+        final List<Long> sequenceList = new ArrayList<>(elements.size());
+        boolean rewritten = false;
+        try{
+            try(FileOutputStream fos = new FileOutputStream(tempFile);
+                    DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos))) {
+                for(T element : elements) {
+                    final long sequence = nextSequence++;
+                    sequenceList.add(sequence);
+                    this.write(dos, ADD, sequence, element);
+                }
+                dos.flush();
+                fos.getChannel().force(false);
+            }
+            try{
+                Files.move(tempFile.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }catch(AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            if(sequences.size() == sequenceList.size()) {
+                int i = 0;
+                for(Map.Entry<Long, Long> entry : sequences.entrySet()) {
+                    entry.setValue(sequenceList.get(i++));
+                }
+            }else{
+                sequences.clear();
+                for(int i=0; i<sequenceList.size(); i++) {
+                    sequences.put((long)i, sequenceList.get(i));
+                }
+            }
+            recordCount = elements.size();
+            truncateTo = -1;
+            rewritten = true;
+        }catch(IOException e) {
+            logger.log(Level.WARNING, "Error compacting: " + file, e);
+        }
+        this.reopen();
+        return rewritten;
+    }
+
+    private void openForAppend() {
+        try{
+            if(file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            fileOut = new FileOutputStream(file, true);
+            out = new DataOutputStream(new BufferedOutputStream(fileOut));
+        }catch(IOException e) {
+            logger.log(Level.WARNING, "Error opening: " + file, e);
+        }
+    }
+
+    private void closeOutput() {
+        if(out != null) {
+            try{
+                out.close();
+            }catch(IOException e) {
+                logger.log(Level.WARNING, "Error closing: " + file, e);
+            }
+            out = null;
+            fileOut = null;
+        }
+    }
+
+    private void append(byte type, long sequence, T element) {
+        if(out == null && !this.reopen()) {
+            logger.warning(() -> "Journal not open, change not persisted: " + file);
+            return;
+        }
+        final byte [] record;
+        try{
+            record = this.toRecord(type, sequence, element);
+        }catch(IOException e) {
+            logger.log(Level.WARNING, "Error serializing record for: " + file, e);
+            return;
+        }
+        // Each append is flushed, so the file ends where this record begins
+        long position = -1;
+        try{
+            position = fileOut.getChannel().size();
+            out.write(record);
+            out.flush();
+            if(forceOnWrite) {
+                fileOut.getChannel().force(false);
+            }
+            ++recordCount;
+        }catch(IOException e) {
+            logger.log(Level.WARNING, "Error writing to: " + file, e);
+            if(position != -1) {
+                this.discardFrom(position);
+            }
+        }
+    }
+
+    /**
+     * Remove any part of a failed record from the end of the journal, so that
+     * records appended after it are not lost on replay. If that fails, stop
+     * appending until the journal can be truncated and re-opened.
+     */
+    private void discardFrom(long position) {
+        try{
+            fileOut.getChannel().truncate(position);
+            // Discard whatever of the record is still buffered
+            out = new DataOutputStream(new BufferedOutputStream(fileOut));
+        }catch(IOException e) {
+            logger.log(Level.WARNING, "Error truncating: " + file + ", to: " + position, e);
+            try{
+                fileOut.close();
+            }catch(IOException ignored) { }
+            out = null;
+            fileOut = null;
+            truncateTo = position;
+        }
+    }
+
+    /**
+     * @return true if the journal is open for appending
+     */
+    private boolean reopen() {
+        if(closed) {
+            return false;
+        }
+        if(truncateTo != -1) {
+            try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(truncateTo);
+            }catch(IOException e) {
+                logger.log(Level.WARNING, "Error truncating: " + file + ", to: " + truncateTo, e);
+                return false;
+            }
+            truncateTo = -1;
+        }
+        this.openForAppend();
+        return out != null;
+    }
+
+    private void write(DataOutputStream dos, byte type, long sequence, T element) throws IOException {
+        dos.write(this.toRecord(type, sequence, element));
+    }
+
+    private byte [] toRecord(byte type, long sequence, T element) throws IOException {
+        final byte [] payload = element == null ? new byte[0] : this.serialize(element);
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(1 + 8 + 4 + payload.length + 4);
+        final DataOutputStream recordOut = new DataOutputStream(record);
+        recordOut.writeByte(type);
+        recordOut.writeLong(sequence);
+        recordOut.writeInt(payload.length);
+        recordOut.write(payload);
+        recordOut.writeInt(this.checksum(new CRC32(), type, sequence, payload));
+        return record.toByteArray();
+    }
+
+    private byte [] serialize(T element) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(element);
+        }
+        return bytes.toByteArray();
+    }
+
+    private int checksum(CRC32 crc, byte type, long sequence, byte [] payload) {
+        crc.reset();
+        crc.update(type);
+        for(int i=56; i>=0; i-=8) {
+            crc.update((int)(sequence >>> i));
+        }
+        final int length = payload.length;
+        for(int i=24; i>=0; i-=8) {
+            crc.update(length >>> i);
+        }
+        crc.update(payload, 0, payload.length);
+        return (int)crc.getValue();
+    }
+
+    private File getTempFile() {
+        return new File(file.getPath() + ".tmp");
+    }
+}
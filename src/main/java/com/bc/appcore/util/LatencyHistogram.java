@@ -0,0 +1,194 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of latencies in milliseconds.
+ * <p>
+ * Values below {@link #SUB_BUCKET_COUNT} are counted exactly. Above that, each
+ * power of two is divided into {@link #SUB_BUCKET_COUNT} equal buckets, as in
+ * HdrHistogram, so that percentiles are accurate to within about 3% of the
+ * value, using a fixed amount of memory whatever the range of values.
+ * </p>
+ * <p>
+ * Completions within the last minute are also counted, one slot per second,
+ * to give a recent rate. Slots are reset without locking, so a completion
+ * recorded at the turn of a second may occasionally be missed.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 19, 2026 8:02:15 PM
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Values are clamped to this, about 2 years in milliseconds
+     */
+    public static final long MAX_VALUE = (1L << 36) - 1;
+
+    private static final int WINDOW_SECONDS = 60;
+
+    private final AtomicLongArray counts;
+
+    private final LongAdder totalCount;
+
+    private final LongAdder totalSum;
+
+    private final AtomicLong max;
+
+    private final AtomicLongArray windowCounts;
+
+    private final AtomicLongArray windowEpochs;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+        this.totalCount = new LongAdder();
+        this.totalSum = new LongAdder();
+        this.max = new AtomicLong();
+        this.windowCounts = new AtomicLongArray(WINDOW_SECONDS);
+        this.windowEpochs = new AtomicLongArray(WINDOW_SECONDS);
+    }
+
+    public void record(long millis) {
+
+        final long value = Math.max(0, Math.min(MAX_VALUE, millis));
+
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalSum.add(value);
+        max.accumulateAndGet(value, Math::max);
+
+        final long second = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        final int slot = (int)(second % WINDOW_SECONDS);
+        final long epoch = windowEpochs.get(slot);
+        if(epoch != second && windowEpochs.compareAndSet(slot, epoch, second)) {
+            windowCounts.set(slot, 0);
+        }
+        windowCounts.incrementAndGet(slot);
+    }
+
+    static int indexOf(long value) {
+        if(value < SUB_BUCKET_COUNT) {
+            return (int)value;
+        }
+        final int msb = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = msb - SUB_BUCKET_BITS;
+        final int subBucket = (int)(value >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long lowestValueAt(int index) {
+        final int group = index / SUB_BUCKET_COUNT;
+        final long subBucket = index % SUB_BUCKET_COUNT;
+        return group == 0 ? subBucket : (SUB_BUCKET_COUNT + subBucket) << (group - 1);
+    }
+
+    static long highestValueAt(int index) {
+        final int group = index / SUB_BUCKET_COUNT;
+        return group == 0 ? lowestValueAt(index) : lowestValueAt(index) + (1L << (group - 1)) - 1;
+    }
+
+    /**
+     * @param percentile The percentile, from 0 to 100, e.g 99 for the p99
+     * @param outputIfNone The value to return if nothing has been recorded
+     * @return The highest value in the bucket of the specified percentile,
+     * never more than the maximum recorded value.
+     */
+    public long getValueAtPercentile(double percentile, long outputIfNone) {
+        if(percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, found: " + percentile);
+        }
+        final long count = totalCount.sum();
+        if(count == 0) {
+            return outputIfNone;
+        }
+        final long rank = Math.max(1, (long)Math.ceil(percentile / 100.0 * count));
+        long cumulative = 0;
+        final int length = counts.length();
+        for(int i=0; i<length; i++) {
+            cumulative += counts.get(i);
+            if(cumulative >= rank) {
+                return Math.min(highestValueAt(i), this.getMax());
+            }
+        }
+        return this.getMax();
+    }
+
+    public long getP50(long outputIfNone) {
+        return this.getValueAtPercentile(50, outputIfNone);
+    }
+
+    public long getP90(long outputIfNone) {
+        return this.getValueAtPercentile(90, outputIfNone);
+    }
+
+    public long getP99(long outputIfNone) {
+        return this.getValueAtPercentile(99, outputIfNone);
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean(long outputIfNone) {
+        final long count = totalCount.sum();
+        return count == 0 ? outputIfNone : totalSum.sum() / count;
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * @return The number of values recorded within the last minute
+     */
+    public long getRecentCount() {
+        final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        long count = 0;
+        for(int i=0; i<WINDOW_SECONDS; i++) {
+            if(now - windowEpochs.get(i) < WINDOW_SECONDS) {
+                count += windowCounts.get(i);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param timeUnit The time unit of the rate, e.g {@link TimeUnit#MINUTES} for a rate per minute
+     * @return The rate at which values were recorded within the last minute
+     */
+    public double getRecentRate(TimeUnit timeUnit) {
+        final double perSecond = (double)this.getRecentCount() / WINDOW_SECONDS;
+        return perSecond * timeUnit.toNanos(1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{count=" + this.getCount() +
+                ", mean=" + this.getMean(-1) + ", p50=" + this.getP50(-1) +
+                ", p90=" + this.getP90(-1) + ", p99=" + this.getP99(-1) +
+                ", max=" + this.getMax() + ", recentPerMinute=" +
+                this.getRecentRate(TimeUnit.MINUTES) + '}';
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A {@link com.bc.appcore.util.TargetQueue TargetQueue} which delegates to 
+ * another, and notifies a listener of each element added.
+ * @author Chinomso Bassey Ikwuagwu on Oct 20, 2026 8:47:26 PM
+ * @param <T> The type of the queue elements
+ */
+public class NotifyingTargetQueue<T> implements TargetQueue<T> {
+
+    private final TargetQueue<T> delegate;
+
+    private final Consumer<T> onAdd;
+
+    /**
+     * @param delegate The queue to delegate to
+     * @param onAdd Notified of each element added to the delegate
+     */
+    public NotifyingTargetQueue(TargetQueue<T> delegate, Consumer<T> onAdd) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.onAdd = Objects.requireNonNull(onAdd);
+    }
+
+    @Override
+    public boolean add(T target) {
+        final boolean added = delegate.add(target);
+        if(added) {
+            onAdd.accept(target);
+        }
+        return added;
+    }
+
+    @Override
+    public List<T> getElements() {
+        return delegate.getElements();
+    }
+
+    @Override
+    public int getMark() {
+        return delegate.getMark();
+    }
+
+    @Override
+    public int mark() {
+        return delegate.mark();
+    }
+
+    @Override
+    public int mark(int n) {
+        return delegate.mark(n);
+    }
+
+    @Override
+    public void rollbackToMarkedPosition() {
+        delegate.rollbackToMarkedPosition();
+    }
+
+    @Override
+    public void requestStop() {
+        delegate.requestStop();
+    }
+
+    @Override
+    public boolean isStopRequested() {
+        return delegate.isStopRequested();
+    }
+
+    @Override
+    public boolean isPaused() {
+        return delegate.isPaused();
+    }
+
+    @Override
+    public boolean pause() {
+        return delegate.pause();
+    }
+
+    @Override
+    public boolean resume() {
+        return delegate.resume();
+    }
+
+    @Override
+    public boolean contains(T target) {
+        return delegate.contains(target);
+    }
+
+    @Override
+    public int getElementCount() {
+        return delegate.getElementCount();
+    }
+
+    @Override
+    public CircuitBreaker.State getCircuitState() {
+        return delegate.getCircuitState();
+    }
+
+    @Override
+    public boolean isSuspended() {
+        return delegate.isSuspended();
+    }
+
+    @Override
+    public long getRetryDelay(TimeUnit timeUnit) {
+        return delegate.getRetryDelay(timeUnit);
+    }
+
+    public TargetQueue<T> getDelegate() {
+        return delegate;
+    }
+}
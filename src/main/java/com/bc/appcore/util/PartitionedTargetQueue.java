@@ -0,0 +1,272 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A {@link com.bc.appcore.util.TargetQueue TargetQueue} made up of many
+ * partitions, each with its own worker. Elements are assigned to partitions
+ * by the hash of their key, so elements of the same key are consumed in the
+ * order they were added, while elements of different keys may be consumed
+ * in parallel.
+ * <p>
+ * <b>Note:</b> There is no ordering between partitions. Only partition
+ * elements by keys whose consumption does not depend on each other.
+ * The hash of a key may differ between runs, e.g if the key is or contains a
+ * {@link java.lang.Class Class}, so elements persisted by the partitions
+ * should be re-assigned, via {@link #partition(java.util.Collection, int, java.util.function.Function)},
+ * before the partitions are created.
+ * </p>
+ * Marking is supported only at the end of the queue, i.e via {@link #mark()}.
+ * @author Chinomso Bassey Ikwuagwu on Oct 19, 2026 3:12:08 PM
+ * @param <T> The type of the queue elements
+ */
+public class PartitionedTargetQueue<T> implements TargetQueue<T> {
+
+    private final List<TargetQueue<T>> partitions;
+
+    private final Function<T, Object> partitionKey;
+
+    /**
+     * @param partitions The partitions. Each must have its own worker.
+     * @param partitionKey Returns the key of each element. Elements with a
+     * null key are assigned to the first partition.
+     */
+    public PartitionedTargetQueue(List<TargetQueue<T>> partitions, Function<T, Object> partitionKey) {
+        if(partitions.isEmpty()) {
+            throw new IllegalArgumentException("No partitions");
+        }
+        this.partitions = Collections.unmodifiableList(new ArrayList<>(partitions));
+        this.partitionKey = Objects.requireNonNull(partitionKey);
+    }
+
+    /**
+     * Assign elements to partitions, the same way elements added to a 
+     * partitioned queue are assigned.
+     * @param <T> The type of the elements
+     * @param elements The elements to assign
+     * @param partitionCount The number of partitions
+     * @param partitionKey Returns the key of each element
+     * @return The elements of each partition, in the order given
+     */
+    public static <T> List<List<T>> partition(Collection<T> elements, 
+            int partitionCount, Function<T, Object> partitionKey) {
+        final List<List<T>> output = new ArrayList<>(partitionCount);
+        for(int i=0; i<partitionCount; i++) {
+            output.add(new ArrayList<>());
+        }
+        for(T element : elements) {
+            output.get(getPartitionIndex(partitionKey.apply(element), partitionCount)).add(element);
+        }
+        return output;
+    }
+    
+    private static int getPartitionIndex(Object key, int partitionCount) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), partitionCount);
+    }
+
+    public TargetQueue<T> getPartition(T element) {
+        final Object key = this.partitionKey.apply(element);
+        return this.partitions.get(getPartitionIndex(key, this.partitions.size()));
+    }
+
+    public List<TargetQueue<T>> getPartitions() {
+        return partitions;
+    }
+
+    @Override
+    public List<T> getElements() {
+        final List<T> elements = new ArrayList<>(this.getElementCount());
+        for(TargetQueue<T> partition : this.partitions) {
+            elements.addAll(partition.getElements());
+        }
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * @return The total of the marks of all partitions, or -1 if not marked
+     */
+    @Override
+    public int getMark() {
+        int total = 0;
+        for(TargetQueue<T> partition : this.partitions) {
+            if(!partition.isMarked()) {
+                return -1;
+            }
+            total += partition.getMark();
+        }
+        return total;
+    }
+
+    /**
+     * Mark the end of each partition.
+     * @return The new mark
+     */
+    @Override
+    public synchronized int mark() {
+        return this.markAt(this.getElementCounts(), -1);
+    }
+
+    /**
+     * @param n Either -1, to unmark, or the current element count, to mark
+     * the end of the queue
+     * @return The new mark
+     * @throws UnsupportedOperationException If <code>n</code> is any other value
+     */
+    @Override
+    public synchronized int mark(int n) {
+        if(n < 0) {
+            for(TargetQueue<T> partition : this.partitions) {
+                partition.unmark();
+            }
+            return -1;
+        }
+        return this.markAt(this.getElementCounts(), n);
+    }
+    
+    /**
+     * Each partition is marked at the count taken for it, rather than at 
+     * its end, which may have moved since the counts were taken.
+     * @param counts The element count of each partition
+     * @param n If not -1, the total of the counts
+     * @return The total of the counts
+     * @throws UnsupportedOperationException If <code>n</code> is not -1 and 
+     * does not equal the total of the counts
+     */
+    private int markAt(int [] counts, int n) {
+        int total = 0;
+        for(int count : counts) {
+            total += count;
+        }
+        if(n != -1 && n != total) {
+            throw new UnsupportedOperationException("Partitioned queues may only be marked at the end");
+        }
+        for(int i=0; i<counts.length; i++) {
+            this.partitions.get(i).mark(counts[i]);
+        }
+        return total;
+    }
+    
+    private int [] getElementCounts() {
+        final int [] counts = new int[this.partitions.size()];
+        for(int i=0; i<counts.length; i++) {
+            counts[i] = this.partitions.get(i).getElementCount();
+        }
+        return counts;
+    }
+
+    @Override
+    public synchronized void rollbackToMarkedPosition() {
+        for(TargetQueue<T> partition : this.partitions) {
+            partition.rollbackToMarkedPosition();
+        }
+    }
+
+    @Override
+    public void requestStop() {
+        for(TargetQueue<T> partition : this.partitions) {
+            if(!partition.isStopRequested()) {
+                partition.requestStop();
+            }
+        }
+    }
+
+    @Override
+    public boolean isStopRequested() {
+        return this.partitions.get(0).isStopRequested();
+    }
+
+    @Override
+    public boolean isPaused() {
+        return this.partitions.get(0).isPaused();
+    }
+
+    @Override
+    public boolean pause() {
+        boolean paused = false;
+        for(TargetQueue<T> partition : this.partitions) {
+            paused |= partition.pause();
+        }
+        return paused;
+    }
+
+    @Override
+    public boolean resume() {
+        boolean resumed = false;
+        for(TargetQueue<T> partition : this.partitions) {
+            resumed |= partition.resume();
+        }
+        return resumed;
+    }
+
+    /**
+     * @return The most severe state of all partitions: OPEN, then HALF_OPEN, then CLOSED
+     */
+    @Override
+    public CircuitBreaker.State getCircuitState() {
+        CircuitBreaker.State state = CircuitBreaker.State.CLOSED;
+        for(TargetQueue<T> partition : this.partitions) {
+            final CircuitBreaker.State partitionState = partition.getCircuitState();
+            if(partitionState == CircuitBreaker.State.OPEN) {
+                return partitionState;
+            }
+            if(partitionState == CircuitBreaker.State.HALF_OPEN) {
+                state = partitionState;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * @param timeUnit The time unit of the output
+     * @return The longest retry delay of all partitions
+     */
+    @Override
+    public long getRetryDelay(TimeUnit timeUnit) {
+        long delay = 0;
+        for(TargetQueue<T> partition : this.partitions) {
+            delay = Math.max(delay, partition.getRetryDelay(timeUnit));
+        }
+        return delay;
+    }
+
+    @Override
+    public boolean add(T target) {
+        return this.getPartition(target).add(target);
+    }
+
+    @Override
+    public boolean contains(T target) {
+        return this.getPartition(target).contains(target);
+    }
+
+    @Override
+    public int getElementCount() {
+        int count = 0;
+        for(TargetQueue<T> partition : this.partitions) {
+            count += partition.getElementCount();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import com.bc.appcore.util.PendingDatabaseUpdate.PendingDatabaseUpdateImpl;
+import com.bc.appcore.util.PendingDatabaseUpdate.UpdateType;
+import com.bc.jpa.context.PersistenceUnitContext;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.persistence.PersistenceUnitUtil;
+
+/**
+ * Coalesces {@link com.bc.appcore.util.PendingDatabaseUpdate PendingDatabaseUpdate}s
+ * of the same entity, identified by entity type and id.
+ * <ul>
+ *   <li>PERSIST or MERGE, then MERGE: the pending update takes the latest state</li>
+ *   <li>PERSIST, then PERSIST: the pending PERSIST takes the latest state</li>
+ *   <li>PERSIST, then REMOVE: both are cancelled</li>
+ *   <li>MERGE, then REMOVE: the MERGE is dropped and the REMOVE queued last, 
+ *   after any updates which may have removed references to the entity</li>
+ *   <li>Otherwise both are kept</li>
+ * </ul>
+ * Entities without an id, e.g new entities with generated ids, are not coalesced.
+ * @author Chinomso Bassey Ikwuagwu on Oct 19, 2026 11:26:50 AM
+ */
+public class PendingUpdateCoalescer implements ElementCoalescer<PendingDatabaseUpdate> {
+
+    private transient static final Logger logger = Logger.getLogger(PendingUpdateCoalescer.class.getName());
+    
+    private final PersistenceUnitContext puContext;
+
+    public PendingUpdateCoalescer(PersistenceUnitContext puContext) {
+        this.puContext = Objects.requireNonNull(puContext);
+    }
+
+    @Override
+    public Object getKey(PendingDatabaseUpdate update) {
+        final Object entity = update.getEntity();
+        try{
+            final PersistenceUnitUtil util = puContext.getEntityManagerFactory().getPersistenceUnitUtil();
+            final Object id = util.getIdentifier(entity);
+            return id == null ? null : new Pair<>(entity.getClass(), id);
+        }catch(RuntimeException e) {
+            logger.log(Level.FINE, "Failed to get id of: " + entity, e);
+            return null;
+        }
+    }
+
+    @Override
+    public Result getResult(PendingDatabaseUpdate pending, PendingDatabaseUpdate next) {
+        final UpdateType pendingType = pending.getUpdateType();
+        switch(next.getUpdateType()) {
+            case MERGE:
+                return pendingType == UpdateType.REMOVE ? Result.KEEP_BOTH : Result.REPLACE_PENDING;
+            case PERSIST:
+                return pendingType == UpdateType.PERSIST ? Result.REPLACE_PENDING : Result.KEEP_BOTH;
+            case REMOVE:
+                switch(pendingType) {
+                    case PERSIST: return Result.CANCEL_BOTH;
+                    case MERGE: return Result.REMOVE_PENDING;
+                    default: return Result.KEEP_BOTH;
+                }
+            default:
+                return Result.KEEP_BOTH;
+        }
+    }
+
+    @Override
+    public PendingDatabaseUpdate combine(PendingDatabaseUpdate pending, PendingDatabaseUpdate next) {
+        return new PendingDatabaseUpdateImpl(pending.getUpdateType(), next.getEntity());
+    }
+}
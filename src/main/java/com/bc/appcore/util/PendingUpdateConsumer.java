@@ -17,13 +17,15 @@
 package com.bc.appcore.util;
 
 import com.bc.jpa.context.PersistenceUnitContext;
+import java.util.List;
 import java.util.Objects;
-import java.util.function.Consumer;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
 
 /**
  * @author Chinomso Bassey Ikwuagwu on Nov 8, 2017 7:54:29 PM
  */
-public class PendingUpdateConsumer implements Consumer<PendingDatabaseUpdate> {
+public class PendingUpdateConsumer implements BatchConsumer<PendingDatabaseUpdate> {
     
     private final PersistenceUnitContext puContext;
 
@@ -49,4 +51,57 @@ public class PendingUpdateConsumer implements Consumer<PendingDatabaseUpdate> {
                 throw new UnsupportedOperationException();
         }
     }
+
+    /**
+     * Apply all the updates in a single transaction. For the statements to be 
+     * sent to the database in JDBC batches, batch writing must be enabled 
+     * for the persistence unit, e.g <code>eclipselink.jdbc.batch-writing=JDBC</code>
+     * @param batch The updates to apply
+     */
+    @Override
+    public void acceptAll(List<PendingDatabaseUpdate> batch) {
+        
+        final EntityManager em = puContext.getEntityManager();
+        
+        try{
+            
+            final EntityTransaction t = em.getTransaction();
+            
+            try{
+                
+                t.begin();
+                
+                for(PendingDatabaseUpdate pendingUpdate : batch) {
+                    
+                    final Object entity = pendingUpdate.getEntity();
+                    
+                    final PendingDatabaseUpdate.UpdateType updateType = pendingUpdate.getUpdateType();
+                    switch(updateType) {
+                        case PERSIST: 
+                            em.persist(entity);
+                            break;
+                        case MERGE:
+                            em.merge(entity);
+                            break;
+                        case REMOVE:
+                            em.remove(em.contains(entity) ? entity : em.merge(entity));
+                            break;
+                        default:
+                            throw new UnsupportedOperationException();
+                    }
+                }
+                
+                t.commit();
+                
+            }finally{
+                if(t.isActive()) {
+                    t.rollback();
+                }
+            }
+        }finally{
+            if(em.isOpen()) {
+                em.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segmented LRU eviction policy.
+ * <p>
+ * New entries go to the tail of the probation segment. An entry accessed
+ * while on probation is promoted to the protected segment. When the protected
+ * segment overflows, its least recently used entries are demoted back to
+ * probation. Eviction takes the least recently used entry on probation first,
+ * so entries accessed only once never push out frequently accessed ones.
+ * </p>
+ * This class is not thread safe. Callers are expected to synchronize access.
+ * @author Chinomso Bassey Ikwuagwu on Oct 18, 2026 2:05:44 PM
+ */
+class SegmentedLruPolicy<K> {
+
+    private final long maximumWeight;
+
+    private final long maximumProtectedWeight;
+
+    /**
+     * Key to weight, in order from least to most recently used
+     */
+    private final LinkedHashMap<K, Integer> probation;
+
+    private final LinkedHashMap<K, Integer> protectedSegment;
+
+    private long probationWeight;
+
+    private long protectedWeight;
+
+    /**
+     * @param maximumWeight The maximum total weight of entries
+     * @param protectedRatio The fraction of the maximum weight reserved for
+     * entries accessed more than once. Typically 0.8
+     */
+    SegmentedLruPolicy(long maximumWeight, float protectedRatio) {
+        if(maximumWeight < 1) {
+            throw new IllegalArgumentException("Maximum weight < 1");
+        }
+        if(protectedRatio < 0 || protectedRatio > 1) {
+            throw new IllegalArgumentException("Protected ratio must be between 0 and 1");
+        }
+        this.maximumWeight = maximumWeight;
+        this.maximumProtectedWeight = (long)(maximumWeight * protectedRatio);
+        this.probation = new LinkedHashMap<>();
+        this.protectedSegment = new LinkedHashMap<>();
+    }
+
+    /**
+     * Record an insert or update of the key.
+     * @param key The key
+     * @param weight The weight of the new value
+     * @return The keys which must be evicted to stay within the maximum weight
+     */
+    List<K> onPut(K key, int weight) {
+        if(weight < 0) {
+            throw new IllegalArgumentException("Weight < 0");
+        }
+        final Integer previous = this.protectedSegment.remove(key);
+        if(previous != null) {
+            this.protectedWeight -= previous;
+            this.protectedSegment.put(key, weight);
+            this.protectedWeight += weight;
+            this.demoteOverflow();
+        }else{
+            final Integer onProbation = this.probation.remove(key);
+            if(onProbation != null) {
+                this.probationWeight -= onProbation;
+            }
+            this.probation.put(key, weight);
+            this.probationWeight += weight;
+        }
+        return this.evictOverflow();
+    }
+
+    /**
+     * Record a read of the key
+     * @param key The key
+     */
+    void onAccess(K key) {
+        final Integer onProbation = this.probation.remove(key);
+        if(onProbation != null) {
+            this.probationWeight -= onProbation;
+            this.protectedSegment.put(key, onProbation);
+            this.protectedWeight += onProbation;
+            this.demoteOverflow();
+        }else{
+            final Integer weight = this.protectedSegment.remove(key);
+            if(weight != null) {
+                this.protectedSegment.put(key, weight);
+            }
+        }
+    }
+
+    void onRemove(Object key) {
+        final Integer onProbation = this.probation.remove(key);
+        if(onProbation != null) {
+            this.probationWeight -= onProbation;
+        }else{
+            final Integer weight = this.protectedSegment.remove(key);
+            if(weight != null) {
+                this.protectedWeight -= weight;
+            }
+        }
+    }
+
+    void clear() {
+        this.probation.clear();
+        this.protectedSegment.clear();
+        this.probationWeight = 0;
+        this.protectedWeight = 0;
+    }
+
+    long getWeight() {
+        return this.probationWeight + this.protectedWeight;
+    }
+
+    long getMaximumWeight() {
+        return this.maximumWeight;
+    }
+
+    private void demoteOverflow() {
+        final Iterator<Map.Entry<K, Integer>> iter = this.protectedSegment.entrySet().iterator();
+        while(this.protectedWeight > this.maximumProtectedWeight && iter.hasNext()) {
+            final Map.Entry<K, Integer> eldest = iter.next();
+            iter.remove();
+            this.protectedWeight -= eldest.getValue();
+            this.probation.put(eldest.getKey(), eldest.getValue());
+            this.probationWeight += eldest.getValue();
+        }
+    }
+
+    private List<K> evictOverflow() {
+        if(this.getWeight() <= this.maximumWeight) {
+            return Collections.emptyList();
+        }
+        final List<K> evicted = new ArrayList<>();
+        this.evictOverflow(this.probation, evicted, true);
+        this.evictOverflow(this.protectedSegment, evicted, false);
+        return evicted;
+    }
+
+    private void evictOverflow(LinkedHashMap<K, Integer> segment, List<K> evicted, boolean isProbation) {
+        final Iterator<Map.Entry<K, Integer>> iter = segment.entrySet().iterator();
+        while(this.getWeight() > this.maximumWeight && iter.hasNext()) {
+            final Map.Entry<K, Integer> eldest = iter.next();
+            iter.remove();
+            if(isProbation) {
+                this.probationWeight -= eldest.getValue();
+            }else{
+                this.protectedWeight -= eldest.getValue();
+            }
+            evicted.add(eldest.getKey());
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.AbstractSequentialList;
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A linked list whose nodes may be held on to, so that an element may be 
+ * replaced or removed without scanning the list.
+ * <p>
+ * Elements are only ever added at the end. Each node is numbered in the 
+ * order added, starting from zero, and numbers are never reused. So of two 
+ * nodes in the list, the one with the lower number comes first.
+ * </p>
+ * @author Chinomso Bassey Ikwuagwu on Oct 22, 2026 2:41:18 PM
+ * @param <T> The type of the elements
+ */
+class SequencedLinkedList<T> extends AbstractSequentialList<T> {
+    
+    static final class Node<T> {
+        private T element;
+        private final long seq;
+        private Node<T> prev;
+        private Node<T> next;
+        private boolean linked;
+        private Node(T element, long seq) {
+            this.element = element;
+            this.seq = seq;
+            this.linked = true;
+        }
+        T getElement() {
+            return element;
+        }
+        long getSeq() {
+            return seq;
+        }
+    }
+    
+    private Node<T> first;
+    
+    private Node<T> last;
+    
+    private int size;
+    
+    private long nextSeq;
+    
+    SequencedLinkedList() { }
+    
+    Node<T> append(T element) {
+        final Node<T> node = new Node<>(element, nextSeq++);
+        if(last == null) {
+            first = node;
+        }else{
+            last.next = node;
+            node.prev = last;
+        }
+        last = node;
+        ++size;
+        ++modCount;
+        return node;
+    }
+    
+    Node<T> getFirstNode() {
+        return first;
+    }
+    
+    Node<T> getLastNode() {
+        return last;
+    }
+    
+    /**
+     * Walks from whichever end of the list is nearer the index
+     * @param index The index of the node
+     * @return The node at the index
+     */
+    Node<T> getNode(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        Node<T> node;
+        if(index < size / 2) {
+            node = first;
+            for(int i=0; i<index; i++) {
+                node = node.next;
+            }
+        }else{
+            node = last;
+            for(int i=size-1; i>index; i--) {
+                node = node.prev;
+            }
+        }
+        return node;
+    }
+    
+    /**
+     * @return The number of the next node to be added
+     */
+    long getNextSeq() {
+        return nextSeq;
+    }
+    
+    void set(Node<T> node, T element) {
+        if(!node.linked) {
+            throw new NoSuchElementException();
+        }
+        node.element = element;
+    }
+    
+    void remove(Node<T> node) {
+        if(!node.linked) {
+            throw new NoSuchElementException();
+        }
+        if(node.prev == null) {
+            first = node.next;
+        }else{
+            node.prev.next = node.next;
+        }
+        if(node.next == null) {
+            last = node.prev;
+        }else{
+            node.next.prev = node.prev;
+        }
+        node.prev = node.next = null;
+        node.linked = false;
+        --size;
+        ++modCount;
+    }
+
+    @Override
+    public boolean add(T element) {
+        this.append(element);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        while(first != null) {
+            this.remove(first);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        if(index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return new NodeIterator(index);
+    }
+    
+    private final class NodeIterator implements ListIterator<T> {
+        
+        private Node<T> next;
+        private Node<T> lastReturned;
+        private int nextIndex;
+        private int expectedModCount = modCount;
+        
+        private NodeIterator(int index) {
+            next = index == size ? null : getNode(index);
+            nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public T next() {
+            this.checkForComodification();
+            if(!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.next;
+            ++nextIndex;
+            return lastReturned.element;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public T previous() {
+            this.checkForComodification();
+            if(!this.hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next = next == null ? last : next.prev;
+            --nextIndex;
+            return lastReturned.element;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            this.checkForComodification();
+            if(lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if(next == lastReturned) {
+                next = lastReturned.next;
+            }else{
+                --nextIndex;
+            }
+            SequencedLinkedList.this.remove(lastReturned);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(T element) {
+            this.checkForComodification();
+            if(lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            lastReturned.element = element;
+        }
+
+        /**
+         * Elements may only be added at the end of the list
+         */
+        @Override
+        public void add(T element) {
+            this.checkForComodification();
+            if(next != null) {
+                throw new UnsupportedOperationException();
+            }
+            SequencedLinkedList.this.append(element);
+            ++nextIndex;
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+        
+        private void checkForComodification() {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
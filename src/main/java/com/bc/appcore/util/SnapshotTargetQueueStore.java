@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serializes the entire queue to file at each checkpoint. Changes between
+ * checkpoints are not persisted.
+ * @author Chinomso Bassey Ikwuagwu on Oct 18, 2026 7:15:21 PM
+ * @param <T> The type of the queue elements
+ */
+public class SnapshotTargetQueueStore<T> implements TargetQueueStore<T> {
+
+    private transient static final Logger logger = Logger.getLogger(SnapshotTargetQueueStore.class.getName());
+    
+    private final File file;
+
+    public SnapshotTargetQueueStore(File file) {
+        this.file = Objects.requireNonNull(file);
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public List<T> load() {
+        return (List<T>)this.readSilently(file, new LinkedList<>());
+    }
+
+    @Override
+    public void added(long key, T element) { }
+
+    @Override
+    public void removed(long key) { }
+
+    @Override
+    public void replaced(long key, T element) { }
+
+    @Override
+    public void checkpoint(List<T> elements) {
+        logger.log(Level.FINE, "Saving {0} elements", elements.size());
+        try{
+            writeSilently(new LinkedList<>(elements), file);
+        }catch(RuntimeException e) { 
+            logger.log(Level.WARNING, "Error saving to: " + file, e);
+        }
+    }
+
+    @Override
+    public void close() { }
+    
+    public Object readSilently(File f, Object outputIfNone) {
+        try{
+            return this.readObject(f);
+        }catch(FileNotFoundException e) {
+            logger.warning(e.toString());
+            return outputIfNone;
+        }catch(ClassNotFoundException | IOException e) {
+            logger.log(Level.WARNING, "Error from: " + f, e);
+            return outputIfNone;
+        }
+    }
+
+    public Object readObject(File f) throws ClassNotFoundException, IOException {
+        
+        Object result = null;
+        
+        FileInputStream     fis = null;
+        BufferedInputStream bis = null;
+        ObjectInputStream   ois = null;
+        
+        try {
+
+            fis = new FileInputStream(f);
+            bis = new BufferedInputStream(fis);
+            ois = new ObjectInputStream(bis);
+
+            result = ois.readObject();
+        
+        }catch(IOException e) {
+            
+            throw e;
+        
+        }finally {
+        
+            if (ois != null) try { ois.close(); }catch(IOException e) {}
+            if (bis != null) try { bis.close(); }catch(IOException e) {}
+            if (fis != null) try { fis.close(); }catch(IOException e) {}
+        }
+        
+        return result;
+    }
+
+    public void writeSilently(Object obj, File f) {
+        try{
+            this.writeObject(obj, f);
+        }catch(Exception e) {
+            logger.log(Level.WARNING, "Error writing to: " + f, e);
+        }
+    }
+    
+    public void writeObject(Object obj, File f) throws FileNotFoundException, IOException {
+        
+        FileOutputStream     fos = null;
+        BufferedOutputStream bos = null;
+        ObjectOutputStream oos = null;
+        
+        try{
+            
+            fos = new FileOutputStream(f);
+            bos = new BufferedOutputStream(fos);
+            oos = new ObjectOutputStream(bos);
+
+            oos.writeObject(obj);
+        
+        }catch(IOException e) {
+            
+            throw e;
+        
+        }finally {
+        
+            if (oos != null) try { oos.close(); }catch(IOException e) { logger.log(Level.WARNING, "", e); }
+            if (bos != null) try { bos.close(); }catch(IOException e) { logger.log(Level.WARNING, "", e); }
+            if (fos != null) try { fos.close(); }catch(IOException e) { logger.log(Level.WARNING, "", e); }
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.bc.appcore.util;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Chinomso Bassey Ikwuagwu on Mar 7, 2017 7:18:33 PM
@@ -92,4 +93,28 @@ public interface TargetQueue<T> {
     boolean contains(T target);
     
     int getElementCount();
+    
+    /**
+     * @return The state of the circuit which suspends consumption after 
+     * repeated retryable failures.
+     */
+    default CircuitBreaker.State getCircuitState() {
+        return CircuitBreaker.State.CLOSED;
+    }
+    
+    /**
+     * @return <code>true</code> if consumption is suspended, backing off 
+     * after repeated retryable failures.
+     */
+    default boolean isSuspended() {
+        return this.getCircuitState() == CircuitBreaker.State.OPEN;
+    }
+    
+    /**
+     * @param timeUnit The time unit of the output
+     * @return The time remaining before consumption is retried, or zero
+     */
+    default long getRetryDelay(TimeUnit timeUnit) {
+        return 0L;
+    }
 }
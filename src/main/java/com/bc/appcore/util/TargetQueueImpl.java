@@ -16,19 +16,15 @@
 
 package com.bc.appcore.util;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
@@ -48,27 +44,105 @@ public class TargetQueueImpl<T> implements TargetQueue<T> {
     
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
     
-    private final File file;
+    /**
+     * Signalled when elements are added, on resume and on stop request
+     */
+    private final Condition workAvailable = lock.writeLock().newCondition();
     
-    private final List<T> queue;
+    private long signalTimeNanos;
+    
+    private volatile long lastWakeUpLatencyNanos;
+    
+    private volatile long maxWakeUpLatencyNanos;
+    
+    private final TargetQueueStore<T> store;
+    
+    private final SequencedLinkedList<T> queue;
     
     private final Consumer<T> consumer;
     
     private final Predicate<Throwable> retryOnExceptionTest;
     
+    private final int batchSize;
+    
+    private final long batchWaitMillis;
+    
+    private final ElementCoalescer<T> coalescer;
+    
+    private final CircuitBreaker circuitBreaker;
+    
+    /**
+     * The queue node of the most recent element of each key. Only used when coalescing
+     */
+    private final Map<Object, SequencedLinkedList.Node<T>> pendingByKey;
+    
+    /**
+     * The number of elements at the head of the queue taken for consumption
+     */
+    private int inFlight;
+    
+    /**
+     * The number of the first queue node not taken for consumption
+     */
+    private long inFlightEndSeq;
+    
     private int mark = -1;
     
+    /**
+     * The number of the first queue node at or after the mark
+     */
+    private long markSeq;
+    
     private long lastWrite;
     
     private long interval;
     
     public TargetQueueImpl(File file, Consumer<T> consumer, 
             Predicate<Throwable> retryOnExceptionTest) {
+        this(new SnapshotTargetQueueStore<>(file), consumer, retryOnExceptionTest);
+    }
+    
+    public TargetQueueImpl(TargetQueueStore<T> store, Consumer<T> consumer, 
+            Predicate<Throwable> retryOnExceptionTest) {
+        this(store, consumer, retryOnExceptionTest, 1, 0, null, new CircuitBreaker());
+    }
+    
+    /**
+     * @param store Persists the elements of the queue
+     * @param consumer Consumes the elements of the queue. To consume more than
+     * one element at a time, this should be a {@link com.bc.appcore.util.BatchConsumer BatchConsumer}
+     * @param retryOnExceptionTest Elements whose consumption fails with an 
+     * exception which passes this test are kept in the queue to be retried. 
+     * Other failed elements are discarded. May be null.
+     * @param batchSize The maximum number of elements to consume at a time
+     * @param batchWaitMillis The maximum time to wait for a full batch to 
+     * accumulate, before consuming the elements available.
+     * @param coalescer If not null, each element added is coalesced with the
+     * pending element of the same key. Pending elements before the mark, if 
+     * any, or already taken for consumption, are never coalesced.
+     * @param circuitBreaker Decides how long to back off after consumption 
+     * fails with a retryable exception, before retrying.
+     */
+    public TargetQueueImpl(TargetQueueStore<T> store, Consumer<T> consumer, 
+            Predicate<Throwable> retryOnExceptionTest, int batchSize, long batchWaitMillis,
+            ElementCoalescer<T> coalescer, CircuitBreaker circuitBreaker) {
+        
+        if(batchSize < 1) {
+            throw new IllegalArgumentException("Batch size < 1");
+        }
         
-        this.file = Objects.requireNonNull(file);
-        this.queue = (List<T>)this.readSilently(file, new LinkedList<>());
+        this.store = Objects.requireNonNull(store);
+        this.queue = new SequencedLinkedList<>();
         this.consumer = Objects.requireNonNull(consumer);
         this.retryOnExceptionTest = retryOnExceptionTest;
+        this.batchSize = batchSize;
+        this.batchWaitMillis = batchWaitMillis;
+        this.coalescer = coalescer;
+        this.circuitBreaker = Objects.requireNonNull(circuitBreaker);
+        this.pendingByKey = new HashMap<>();
+        for(T element : store.load()) {
+            this.remember(this.queue.append(element));
+        }
         
         logger.log(Level.INFO, "Queue size: {0}", this.queue.size());
         
@@ -84,56 +158,68 @@ public class TargetQueueImpl<T> implements TargetQueue<T> {
                 
                 while(true) {
                     
-                    if(stopRequested) {
-                        break;
-                    }
-                    if(paused) {
-                        continue;
-                    }
-                    if(queue.isEmpty()) {
-                        continue;
-                    }
-                    
                     try{
-                        final T element;
+                        final List<T> batch;
                         try{
-                            lock.readLock().lock();
-                            element = queue.get(0);
-                        }finally{
-                            lock.readLock().unlock();
-                        }
-
-                        if(element == null) {
-                            continue;
-                        }
-
-                        try{
-
                             lock.writeLock().lock();
                             
-                            final long start = System.currentTimeMillis();
+                            final boolean waited = awaitWork();
                             
-                            consumer.accept(element);
+                            if(stopRequested) {
+                                TargetQueueImpl.this.save();
+                                store.close();
+                                break;
+                            }
                             
-                            interval = 2 * (System.currentTimeMillis() - start);
-
-                            queue.remove(0);
+                            if(waited) {
+                                recordWakeUp();
+                            }
                             
-                        }catch(Exception e) {
+                            awaitBatch();
                             
-                            if(retryOnExceptionTest != null && retryOnExceptionTest.test(e)) {
-                                
-//                                logger.log(Level.INFO, "Communications exception updating remote entity: " + entity, e);
-                                
-                            }else{
-                                
-                                logger.log(Level.WARNING, "Failed to execute: " + element, e);
-                                
-                                queue.remove(0);
+                            if(stopRequested || paused) {
+                                continue;
                             }
+                            
+                            batch = new ArrayList<>(queue.subList(0, Math.min(batchSize, queue.size())));
+                            
+                            inFlight = batch.size();
+                            
+                            inFlightEndSeq = getSeqAt(inFlight);
                         }finally{
                             lock.writeLock().unlock();
                         }
+
+                        if(batch.isEmpty()) {
+                            continue;
+                        }
+
+                        // The lock is not held while consuming, so producers 
+                        // are never blocked by the consumer's I/O
+                        final long start = System.currentTimeMillis();
+
+                        final boolean retry;
+                        try{
+                            retry = consume(batch);
+                        }finally{
+                            try{
+                                lock.writeLock().lock();
+                                inFlight = 0;
+                            }finally{
+                                lock.writeLock().unlock();
+                            }
+                        }
+                        
+                        // Only the time spent writing, not backing off, 
+                        // decides how often the queue is saved
+                        interval = 2 * (System.currentTimeMillis() - start);
+                        
+                        if(retry) {
+                            circuitBreaker.onFailure();
+                            awaitRetry();
+                        }else{
+                            circuitBreaker.onSuccess();
+                        }
                         
                         if(System.currentTimeMillis() - lastWrite > interval) {
                             
@@ -142,6 +228,12 @@ public class TargetQueueImpl<T> implements TargetQueue<T> {
                             lastWrite = System.currentTimeMillis();
                         }
                         
+                    }catch(InterruptedException e) {
+                        
+                        logger.log(Level.WARNING, "Interrupted", e);
+                        
+                        break;
+                        
                     }catch(RuntimeException e) {
                         
                         logger.log(Level.WARNING, "Unexpected error", e);
@@ -153,6 +245,263 @@ public class TargetQueueImpl<T> implements TargetQueue<T> {
         thread.start();
     }
     
+    /**
+     * Park the calling thread until there is work to do or stop is requested.
+     * The caller must hold the write lock.
+     * @return <code>true</code> if the calling thread had to wait
+     * @throws InterruptedException 
+     */
+    private boolean awaitWork() throws InterruptedException {
+        boolean waited = false;
+        while(!stopRequested && (paused || queue.isEmpty())) {
+            waited = true;
+            workAvailable.await();
+        }
+        return waited;
+    }
+    
+    /**
+     * If batching, wait up to the batch wait time for a full batch to accumulate.
+     * The caller must hold the write lock.
+     * @throws InterruptedException 
+     */
+    private void awaitBatch() throws InterruptedException {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(batchWaitMillis);
+        while(nanos > 0 && !stopRequested && !paused && queue.size() < batchSize) {
+            nanos = workAvailable.awaitNanos(nanos);
+        }
+    }
+    
+    /**
+     * Wait until the circuit breaker allows the next attempt, or stop is
+     * requested. Elements added meanwhile do not cut the wait short.
+     * @throws InterruptedException 
+     */
+    private void awaitRetry() throws InterruptedException {
+        try{
+            lock.writeLock().lock();
+            long nanos;
+            while(!stopRequested && (nanos = circuitBreaker.getRetryDelay(TimeUnit.NANOSECONDS)) > 0) {
+                workAvailable.awaitNanos(nanos);
+            }
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Consume the elements at the head of the queue. If the consumer is a
+     * {@link com.bc.appcore.util.BatchConsumer BatchConsumer} the batch is 
+     * consumed at once, falling back to one element at a time if that fails, 
+     * so that a bad element does not hold back the rest of the batch.
+     * The caller must not hold the lock.
+     * @param batch The elements at the head of the queue, taken for consumption
+     * @return <code>true</code> if consumption stopped at a retryable failure
+     */
+    private boolean consume(List<T> batch) {
+        
+        if(batch.size() > 1 && consumer instanceof BatchConsumer) {
+            try{
+                ((BatchConsumer<T>)consumer).acceptAll(batch);
+                this.removeConsumed(batch.size());
+                return false;
+            }catch(Exception e) {
+                if(this.isRetryable(e)) {
+                    logger.log(Level.FINE, "Retryable failure executing batch", e);
+                    return true;
+                }
+                logger.log(Level.FINE, "Failed to execute batch of " + batch.size() + 
+                        ", retrying one at a time", e);
+            }
+        }
+        
+        for(T element : batch) {
+            try{
+                
+                consumer.accept(element);
+                
+                this.removeConsumed(1);
+                
+            }catch(Exception e) {
+
+                if(this.isRetryable(e)) {
+
+                    logger.log(Level.FINE, "Retryable failure executing: " + element, e);
+
+                    return true;
+
+                }else{
+
+                    logger.log(Level.WARNING, "Failed to execute: " + element, e);
+
+                    this.removeConsumed(1);
+                }
+            }
+        }
+        
+        return false;
+    }
+    
+    private boolean isRetryable(Exception e) {
+        return retryOnExceptionTest != null && retryOnExceptionTest.test(e);
+    }
+    
+    private void removeConsumed(int n) {
+        try{
+            lock.writeLock().lock();
+            for(int i=0; i<n; i++) {
+                final SequencedLinkedList.Node<T> node = queue.getFirstNode();
+                this.forget(node);
+                store.removed(node.getSeq());
+            }
+            inFlight -= n;
+            if(this.isMarked()) {
+                mark = Math.max(0, mark - n);
+            }
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * The caller must hold the write lock.
+     * @param index The index of a node, or the size of the queue
+     * @return The number of the node at the index, or of the next node to be
+     * added, if the index is the size of the queue.
+     */
+    private long getSeqAt(int index) {
+        return index >= queue.size() ? queue.getNextSeq() : queue.getNode(index).getSeq();
+    }
+    
+    /**
+     * The caller must hold the write lock.
+     * @return <code>true</code> if the node is neither taken for consumption
+     * nor before the mark, if any
+     */
+    private boolean isCoalescable(SequencedLinkedList.Node<T> node) {
+        if(inFlight > 0 && node.getSeq() < inFlightEndSeq) {
+            return false;
+        }
+        return !this.isMarked() || node.getSeq() >= markSeq;
+    }
+    
+    private void remember(SequencedLinkedList.Node<T> node) {
+        if(coalescer != null) {
+            final Object key = coalescer.getKey(node.getElement());
+            if(key != null) {
+                pendingByKey.put(key, node);
+            }
+        }
+    }
+    
+    /**
+     * Remove the node from the queue, and from the pending nodes if coalescing
+     */
+    private void forget(SequencedLinkedList.Node<T> node) {
+        if(coalescer != null) {
+            final Object key = coalescer.getKey(node.getElement());
+            if(key != null && pendingByKey.get(key) == node) {
+                pendingByKey.remove(key);
+            }
+        }
+        queue.remove(node);
+    }
+    
+    /**
+     * Coalesce the element with the pending element of the same key.
+     * The caller must hold the write lock.
+     * @param element The element being added
+     * @return <code>true</code> if the element was fully dealt with, 
+     * <code>false</code> if the element should be appended to the queue.
+     */
+    private boolean coalesce(T element) {
+        
+        final Object key = coalescer.getKey(element);
+        if(key == null) {
+            return false;
+        }
+        
+        final SequencedLinkedList.Node<T> node = pendingByKey.get(key);
+        
+        if(node == null || !this.isCoalescable(node)) {
+            return false;
+        }
+        
+        final T pending = node.getElement();
+        
+        switch(coalescer.getResult(pending, element)) {
+            case REPLACE_PENDING:
+                final T combined = coalescer.combine(pending, element);
+                queue.set(node, combined);
+                store.replaced(node.getSeq(), combined);
+                logger.log(Level.FINER, "Coalesced: {0}", key);
+                return true;
+            case CANCEL_BOTH:
+                queue.remove(node);
+                store.removed(node.getSeq());
+                pendingByKey.remove(key);
+                logger.log(Level.FINER, "Cancelled: {0}", key);
+                return true;
+            case REMOVE_PENDING:
+                queue.remove(node);
+                store.removed(node.getSeq());
+                pendingByKey.remove(key);
+                return false;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Wake the looper thread. Records the time of the signal so that the 
+     * latency of the wake up can be measured.
+     */
+    private void signalWorkAvailable() {
+        try{
+            lock.writeLock().lock();
+            signalTimeNanos = System.nanoTime();
+            workAvailable.signal();
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void recordWakeUp() {
+        final long latency = System.nanoTime() - signalTimeNanos;
+        lastWakeUpLatencyNanos = latency;
+        if(latency > maxWakeUpLatencyNanos) {
+            maxWakeUpLatencyNanos = latency;
+        }
+        logger.log(Level.FINER, "Looper woke up after {0} micros", TimeUnit.NANOSECONDS.toMicros(latency));
+    }
+    
+    @Override
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+    
+    @Override
+    public long getRetryDelay(TimeUnit timeUnit) {
+        return circuitBreaker.getRetryDelay(timeUnit);
+    }
+    
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    /**
+     * @param timeUnit The time unit of the output
+     * @return The time between the most recent signal (add, resume or stop) 
+     * and the looper thread waking up to process it.
+     */
+    public long getLastWakeUpLatency(TimeUnit timeUnit) {
+        return timeUnit.convert(lastWakeUpLatencyNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public long getMaxWakeUpLatency(TimeUnit timeUnit) {
+        return timeUnit.convert(maxWakeUpLatencyNanos, TimeUnit.NANOSECONDS);
+    }
+    
     @Override
     public int getMark() {
         return this.mark;
@@ -160,27 +509,32 @@ public class TargetQueueImpl<T> implements TargetQueue<T> {
     
     @Override
     public int mark(int n) {
-        this.mark = n;
-        return this.mark;
+        try{
+            lock.writeLock().lock();
+            this.mark = n;
+            if(n >= 0) {
+                this.markSeq = this.getSeqAt(n);
+            }
+            return this.mark;
+        }finally{
+            lock.writeLock().unlock();
+        }
     }
     
     @Override
     public synchronized void rollbackToMarkedPosition() {
         if(this.isMarked()) {
-            final int size;
             try{
-                lock.readLock().lock();
-                size = this.queue.size();
-            }finally{
-                lock.readLock().unlock();
-            }
-            if(this.mark < size) {
-                try{
-                    lock.writeLock().lock();
-                    this.queue.subList(this.mark, size).clear();
-                }finally{
-                    lock.writeLock().unlock();
+                lock.writeLock().lock();
+                final int size = this.queue.size();
+                final int from = Math.max(this.mark, inFlight);
+                for(int i = size - 1; i >= from; i--) {
+                    final SequencedLinkedList.Node<T> node = this.queue.getLastNode();
+                    this.forget(node);
+                    this.store.removed(node.getSeq());
                 }
+            }finally{
+                lock.writeLock().unlock();
             }
             this.unmark();
         }
@@ -195,6 +549,7 @@ public class TargetQueueImpl<T> implements TargetQueue<T> {
     public void requestStop() {
         if(!stopRequested) {
             stopRequested = true;
+            this.signalWorkAvailable();
             this.save();
         }
     }
@@ -222,15 +577,24 @@ public class TargetQueueImpl<T> implements TargetQueue<T> {
         if(stopRequested) { throw new IllegalStateException(); }
         
         logger.fine("Resuming slave updates");
-        return !this.isPaused() ? false : (paused = false);
+        if(!this.isPaused()) {
+            return false;
+        }
+        paused = false;
+        // Whatever paused the queue may have fixed the cause of failure
+        circuitBreaker.allowAttemptNow();
+        this.signalWorkAvailable();
+        return true;
     }
     
     private void save() {
-        logger.log(Level.FINE, "Saving {0} slave updates", this.getElementCount());
         try{
-            writeSilently(queue, file);
+            lock.readLock().lock();
+            store.checkpoint(queue);
         }catch(RuntimeException e) { 
-            logger.log(Level.WARNING, "Error saving to: " + file, e);
+            logger.log(Level.WARNING, "Error saving to: " + store.getFile(), e);
+        }finally{
+            lock.readLock().unlock();
         }
     }
     
@@ -243,7 +607,20 @@ public class TargetQueueImpl<T> implements TargetQueue<T> {
             
             lock.writeLock().lock(); 
             
-            return this.queue.add(element);
+            if(coalescer != null && this.coalesce(element)) {
+                return true;
+            }
+            
+            final SequencedLinkedList.Node<T> node = this.queue.append(element);
+            
+            this.remember(node);
+            
+            store.added(node.getSeq(), element);
+            
+            signalTimeNanos = System.nanoTime();
+            workAvailable.signal();
+            
+            return true;
             
         }finally{
             
@@ -277,84 +654,12 @@ public class TargetQueueImpl<T> implements TargetQueue<T> {
         return this.queue.size();
     }
     
-    public Object readSilently(File f, Object outputIfNone) {
-        try{
-            return this.readObject(f);
-        }catch(FileNotFoundException e) {
-            logger.warning(e.toString());
-            return outputIfNone;
-        }catch(ClassNotFoundException | IOException e) {
-            logger.log(Level.WARNING, "Error from: " + f, e);
-            return outputIfNone;
-        }
-    }
-
-    public Object readObject(File f) throws ClassNotFoundException, IOException {
-        
-        Object result = null;
-        
-        FileInputStream     fis = null;
-        BufferedInputStream bis = null;
-        ObjectInputStream   ois = null;
-        
-        try {
-
-            fis = new FileInputStream(f);
-            bis = new BufferedInputStream(fis);
-            ois = new ObjectInputStream(bis);
-
-            result = ois.readObject();
-        
-        }catch(IOException e) {
-            
-            throw e;
-        
-        }finally {
-        
-            if (ois != null) try { ois.close(); }catch(IOException e) {}
-            if (bis != null) try { bis.close(); }catch(IOException e) {}
-            if (fis != null) try { fis.close(); }catch(IOException e) {}
-        }
-        
-        return result;
-    }
-
-    public void writeSilently(Object obj, File f) {
-        try{
-            this.writeObject(obj, f);
-        }catch(Exception e) {
-            logger.log(Level.WARNING, "Error writing to: " + f, e);
-        }
-    }
-    
-    public void writeObject(Object obj, File f) throws FileNotFoundException, IOException {
-        
-        FileOutputStream     fos = null;
-        BufferedOutputStream bos = null;
-        ObjectOutputStream oos = null;
-        
-        try{
-            
-            fos = new FileOutputStream(f);
-            bos = new BufferedOutputStream(fos);
-            oos = new ObjectOutputStream(bos);
-
-            oos.writeObject(obj);
-        
-        }catch(IOException e) {
-            
-            throw e;
-        
-        }finally {
-        
-            if (oos != null) try { oos.close(); }catch(IOException e) { logger.log(Level.WARNING, "", e); }
-            if (bos != null) try { bos.close(); }catch(IOException e) { logger.log(Level.WARNING, "", e); }
-            if (fos != null) try { fos.close(); }catch(IOException e) { logger.log(Level.WARNING, "", e); }
-        }
+    public File getFile() {
+        return store.getFile();
     }
 
-    public File getFile() {
-        return file;
+    public TargetQueueStore<T> getStore() {
+        return store;
     }
 
     public Consumer getConsumer() {
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Persists the elements of a {@link com.bc.appcore.util.TargetQueue TargetQueue}.
+ * <p>
+ * The queue calls the change methods in the same order in which it applies 
+ * the changes to its elements, while holding its write lock. Each element is
+ * identified by a key: the elements loaded have the keys 0 to n-1, in queue
+ * order, and each element added has a key greater than any before it. So 
+ * elements are found by key, whatever their position in the queue.
+ * </p>
+ * Implementations report I/O errors by logging them, as the queue keeps 
+ * working from memory even when it cannot be persisted.
+ * @author Chinomso Bassey Ikwuagwu on Oct 18, 2026 7:02:40 PM
+ * @param <T> The type of the queue elements
+ */
+public interface TargetQueueStore<T> extends AutoCloseable {
+    
+    File getFile();
+    
+    /**
+     * @return The persisted elements, in queue order
+     */
+    List<T> load();
+    
+    void added(long key, T element);
+    
+    void removed(long key);
+    
+    void replaced(long key, T element);
+    
+    /**
+     * Called periodically and on stop, with all the current elements of the queue.
+     * @param elements The current elements of the queue, in queue order
+     */
+    void checkpoint(List<T> elements);
+    
+    @Override
+    void close();
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bc.appcore.actions;
+
+import com.bc.appcore.AppCore;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 19, 2026 9:14:37 PM
+ */
+public class ActionQueueImplTest {
+
+    private static final class TestAction implements Action<AppCore, Object> {
+        @Override
+        public Object execute(AppCore app, Map<String, Object> params) {
+            return null;
+        }
+    }
+
+    public ActionQueueImplTest() { }
+
+    @Test
+    public void testOrder() {
+        System.out.println("#testOrder");
+        final ActionQueueImpl instance = new ActionQueueImpl();
+        final List<Action> actions = new ArrayList<>();
+        for(int i=0; i<200; i++) {
+            final Action action = new TestAction();
+            actions.add(action);
+            instance.onStarted(action);
+        }
+        for(int i=0; i<199; i++) {
+            instance.onCompleted(actions.get(i));
+            assertSame(actions.get(i + 1), instance.peek());
+        }
+        assertEquals(1, instance.size());
+        assertTrue(instance.isRunning(actions.get(199)));
+        assertFalse(instance.isRunning(actions.get(0)));
+        instance.onCompleted(actions.get(199));
+        assertNull(instance.peek());
+        assertTrue(instance.isEmpty());
+        assertFalse(instance.iterator().hasNext());
+        assertEquals(200, instance.getLatencyHistogram(TestAction.class).getCount());
+    }
+
+    /**
+     * Many threads start and complete hundreds of actions each, while other
+     * threads read the queue. Every action must be running between its start
+     * and completion, and none may remain at the end.
+     */
+    @Test
+    public void testConcurrentStartAndComplete() throws Exception {
+        System.out.println("#testConcurrentStartAndComplete");
+
+        final int writers = 8;
+        final int actionsPerWriter = 20_000;
+        final int inFlightPerWriter = 100;
+
+        final ActionQueueImpl instance = new ActionQueueImpl();
+        final ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+
+        try{
+            final List<Future<?>> writerFutures = new ArrayList<>();
+            for(int w=0; w<writers; w++) {
+                writerFutures.add(executor.submit(() -> {
+                    startSignal.await();
+                    final List<Action> inFlight = new ArrayList<>(inFlightPerWriter);
+                    for(int i=0; i<actionsPerWriter; i++) {
+                        final Action action = new TestAction();
+                        instance.onStarted(action);
+                        if(!instance.isRunning(action) || instance.getStartTimeMillis(action) < 0) {
+                            errors.add("Not running after start: " + action);
+                        }
+                        inFlight.add(action);
+                        if(inFlight.size() == inFlightPerWriter) {
+                            for(Action done : inFlight) {
+                                instance.onCompleted(done);
+                                if(instance.isRunning(done)) {
+                                    errors.add("Running after completion: " + done);
+                                }
+                            }
+                            inFlight.clear();
+                        }
+                    }
+                    for(Action done : inFlight) {
+                        instance.onCompleted(done);
+                    }
+                    return null;
+                }));
+            }
+
+            final List<Future<?>> readerFutures = new ArrayList<>();
+            for(int r=0; r<2; r++) {
+                readerFutures.add(executor.submit(() -> {
+                    startSignal.await();
+                    while(writing.get()) {
+                        instance.peek();
+                        instance.size();
+                        final Iterator<Action> iter = instance.iterator();
+                        while(iter.hasNext()) {
+                            if(iter.next() == null) {
+                                errors.add("Null element");
+                            }
+                        }
+                        instance.isAnyRunning(TestAction.class);
+                    }
+                    return null;
+                }));
+            }
+
+            startSignal.countDown();
+
+            for(Future<?> future : writerFutures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            for(Future<?> future : readerFutures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(0, instance.size());
+        assertTrue(instance.isEmpty());
+        assertNull(instance.peek());
+        assertFalse(instance.isAnyRunning(TestAction.class));
+        assertEquals((long)writers * actionsPerWriter,
+                instance.getLatencyHistogram(TestAction.class).getCount());
+    }
+
+    /**
+     * A shared instance, started on two threads, is running until both 
+     * executions complete, and each execution is timed and cancelled on its own.
+     */
+    @Test
+    public void testSharedInstance() throws Exception {
+        System.out.println("#testSharedInstance");
+        final ActionQueueImpl instance = new ActionQueueImpl();
+        final Action shared = new TestAction();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch complete = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try{
+            final Future<?> other = executor.submit(() -> {
+                instance.onStarted(shared);
+                started.countDown();
+                complete.await();
+                instance.onCompleted(shared);
+                return null;
+            });
+            started.await();
+            
+            instance.onStarted(shared);
+            assertEquals(2, instance.size());
+            assertNotSame(instance.getCancellationToken(shared), 
+                    executor.submit(() -> instance.getCancellationToken(shared)).get());
+            
+            instance.onCompleted(shared);
+            assertTrue(instance.isRunning(shared));
+            assertFalse(instance.getCompletionFuture(shared).isDone());
+            assertEquals(1, instance.getLatencyHistogram(TestAction.class).getCount());
+            
+            complete.countDown();
+            other.get(1, TimeUnit.MINUTES);
+            assertFalse(instance.isRunning(shared));
+            assertTrue(instance.getCompletionFuture(shared).isDone());
+            assertEquals(2, instance.getLatencyHistogram(TestAction.class).getCount());
+            assertTrue(instance.isEmpty());
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.jpa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 23, 2026 1:40:22 PM
+ */
+public class SearchResultCacheImplTest {
+
+    private final Function queryFormatter = Function.identity();
+
+    public SearchResultCacheImplTest() { }
+
+    @Test
+    public void testPutAndGet() {
+        System.out.println("#testPutAndGet");
+        final SearchResultCacheImpl instance = new SearchResultCacheImpl();
+        final List ids = new ArrayList(Arrays.asList(3, 1, 2));
+        assertNull(instance.getIds(Number.class, "a", queryFormatter));
+        assertTrue(instance.putIds(Number.class, "a", queryFormatter, ids, instance.getVersion()));
+        ids.clear();
+        assertEquals(Arrays.asList(3, 1, 2), instance.getIds(Number.class, "a", queryFormatter));
+        // Keyed by the query formatter's identity, the type and the text
+        assertNull(instance.getIds(Number.class, "a", (Function)(q) -> q));
+        assertNull(instance.getIds(Integer.class, "a", queryFormatter));
+        assertNull(instance.getIds(Number.class, "A", queryFormatter));
+        assertEquals(1, instance.getHitCount());
+        assertEquals(4, instance.getMissCount());
+    }
+
+    @Test
+    public void testPutRacingInvalidate() {
+        System.out.println("#testPutRacingInvalidate");
+        final SearchResultCacheImpl instance = new SearchResultCacheImpl();
+        final long version = instance.getVersion();
+        // Written while the search ran
+        instance.invalidate(Integer.class);
+        assertFalse(instance.putIds(Number.class, "a", queryFormatter, Arrays.asList(1), version));
+        assertNull(instance.getIds(Number.class, "a", queryFormatter));
+        assertEquals(0, instance.size());
+
+        final long version2 = instance.getVersion();
+        instance.invalidateAll();
+        assertFalse(instance.putIds(Number.class, "a", queryFormatter, Arrays.asList(1), version2));
+        assertTrue(instance.putIds(Number.class, "a", queryFormatter, Arrays.asList(1), instance.getVersion()));
+    }
+
+    @Test
+    public void testInvalidateRelatedTypes() {
+        System.out.println("#testInvalidateRelatedTypes");
+        final SearchResultCacheImpl instance = new SearchResultCacheImpl();
+        final long version = instance.getVersion();
+        instance.putIds(Number.class, "a", queryFormatter, Arrays.asList(1), version);
+        instance.putIds(Integer.class, "a", queryFormatter, Arrays.asList(1), version);
+        instance.putIds(String.class, "a", queryFormatter, Arrays.asList(1), version);
+        // Both the super type and the type itself
+        instance.invalidate(Integer.class);
+        assertEquals(1, instance.size());
+        assertNotNull(instance.getIds(String.class, "a", queryFormatter));
+        instance.putIds(Integer.class, "a", queryFormatter, Arrays.asList(1), instance.getVersion());
+        // The sub type
+        instance.invalidate(Number.class);
+        assertNull(instance.getIds(Integer.class, "a", queryFormatter));
+        assertEquals(1, instance.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        System.out.println("#testLeastRecentlyUsedEvicted");
+        final SearchResultCacheImpl instance = new SearchResultCacheImpl(2, 1, TimeUnit.MINUTES);
+        instance.putIds(String.class, "a", queryFormatter, Arrays.asList(1), instance.getVersion());
+        instance.putIds(String.class, "b", queryFormatter, Arrays.asList(2), instance.getVersion());
+        assertNotNull(instance.getIds(String.class, "a", queryFormatter));
+        instance.putIds(String.class, "c", queryFormatter, Arrays.asList(3), instance.getVersion());
+        assertEquals(2, instance.size());
+        assertNull(instance.getIds(String.class, "b", queryFormatter));
+        assertNotNull(instance.getIds(String.class, "a", queryFormatter));
+        assertNotNull(instance.getIds(String.class, "c", queryFormatter));
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        System.out.println("#testExpiry");
+        final SearchResultCacheImpl instance = new SearchResultCacheImpl(10, 50, TimeUnit.MILLISECONDS);
+        instance.putIds(String.class, "a", queryFormatter, Arrays.asList(1), instance.getVersion());
+        assertNotNull(instance.getIds(String.class, "a", queryFormatter));
+        Thread.sleep(100);
+        assertNull(instance.getIds(String.class, "a", queryFormatter));
+        assertEquals(0, instance.size());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import java.util.Date;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 23, 2026 11:26:18 AM
+ */
+public class ColumnValuesTest {
+
+    public ColumnValuesTest() { }
+
+    @Test
+    public void testNewInstance() {
+        System.out.println("#testNewInstance");
+        assertTrue(ColumnValues.newInstance(Integer.class, 1) instanceof IntColumnValues);
+        assertTrue(ColumnValues.newInstance(Long.class, 1) instanceof LongColumnValues);
+        assertTrue(ColumnValues.newInstance(Double.class, 1) instanceof DoubleColumnValues);
+        assertTrue(ColumnValues.newInstance(Date.class, 1) instanceof DateColumnValues);
+        assertTrue(ColumnValues.newInstance(String.class, 1) instanceof StringColumnValues);
+        assertTrue(ColumnValues.newInstance(java.sql.Timestamp.class, 1) instanceof ObjectColumnValues);
+    }
+
+    @Test
+    public void testStringDictionaryCap() {
+        System.out.println("#testStringDictionaryCap");
+        final int size = StringColumnValues.MIN_MAX_DISTINCT * 4;
+        final StringColumnValues instance = new StringColumnValues(size);
+        final int maxDistinct = size / 2;
+        for(int row=0; row<maxDistinct; row++) {
+            assertTrue(instance.set(row, "s" + row));
+        }
+        assertEquals(maxDistinct, instance.getDistinctCount());
+
+        // Strings already in the dictionary are accepted, new ones are not
+        assertTrue(instance.set(maxDistinct, "s0"));
+        assertEquals(instance.getCode(0), instance.getCode(maxDistinct));
+        assertFalse(instance.set(maxDistinct + 1, "new"));
+        assertTrue(instance.isNull(maxDistinct + 1));
+        assertEquals(maxDistinct, instance.getDistinctCount());
+
+        final ColumnValues objects = ColumnValues.toObjects(instance);
+        assertTrue(objects.set(maxDistinct + 1, "new"));
+        for(int row=0; row<maxDistinct; row++) {
+            assertEquals("s" + row, objects.get(row));
+        }
+        assertEquals("s0", objects.get(maxDistinct));
+        assertEquals("new", objects.get(maxDistinct + 1));
+    }
+
+    @Test
+    public void testStringTypeMismatch() {
+        System.out.println("#testStringTypeMismatch");
+        final StringColumnValues instance = new StringColumnValues(2);
+        assertTrue(instance.set(0, "a"));
+        assertFalse(instance.set(0, 1));
+        assertEquals("a", instance.get(0));
+        assertTrue(instance.set(0, null));
+        assertTrue(instance.isNull(0));
+        assertEquals(-1, instance.getCode(0));
+    }
+
+    @Test
+    public void testPrimitiveTypeMismatch() {
+        System.out.println("#testPrimitiveTypeMismatch");
+        final IntColumnValues instance = new IntColumnValues(3);
+        assertTrue(instance.isNull(0));
+        assertTrue(instance.set(0, 7));
+        assertFalse(instance.set(0, 7L));
+        assertFalse(instance.set(1, 7.0));
+        assertEquals(7, instance.get(0));
+        assertTrue(instance.isNull(1));
+        // A zero is not a null
+        assertTrue(instance.set(2, 0));
+        assertFalse(instance.isNull(2));
+        assertEquals(0, instance.get(2));
+        assertTrue(instance.set(0, null));
+        assertNull(instance.get(0));
+
+        final ColumnValues objects = ColumnValues.toObjects(instance);
+        assertTrue(objects.set(1, 7L));
+        assertNull(objects.get(0));
+        assertEquals(7L, objects.get(1));
+        assertEquals(0, objects.get(2));
+    }
+
+    @Test
+    public void testRowOutOfBounds() {
+        System.out.println("#testRowOutOfBounds");
+        for(ColumnValues instance : new ColumnValues[]{new IntColumnValues(2), new StringColumnValues(2)}) {
+            try{
+                instance.set(2, null);
+                fail("Expected IndexOutOfBoundsException");
+            }catch(IndexOutOfBoundsException expected) { }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import com.bc.appcore.util.RelationAccess;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 23, 2026 9:12:05 AM
+ */
+public class EntityXYCountMatrixTest {
+
+    /**
+     * An entity related to String (x) and Integer (y) values
+     */
+    private static final class Row {
+        private final List<Object> related = new ArrayList<>();
+    }
+
+    private final List<String> xValues = Arrays.asList("a", "b", "c", "d");
+
+    private final List<Integer> yValues = Arrays.asList(1, 2, 3);
+
+    private final RelationAccess relationAccess = (RelationAccess)Proxy.newProxyInstance(
+            RelationAccess.class.getClassLoader(), new Class[]{RelationAccess.class}, 
+            (proxy, method, args) -> {
+                if(!method.getName().equals("getChildren")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                final List output = new ArrayList();
+                for(Object value : ((Row)args[0]).related) {
+                    if(((Class)args[1]).isInstance(value)) {
+                        output.add(value);
+                    }
+                }
+                return output;
+            });
+
+    public EntityXYCountMatrixTest() { }
+
+    @Test
+    public void testSequential() {
+        System.out.println("#testSequential");
+        this.testAgreesWithEntityXYCountValues(false);
+    }
+
+    @Test
+    public void testParallel() {
+        System.out.println("#testParallel");
+        this.testAgreesWithEntityXYCountValues(true);
+    }
+
+    private void testAgreesWithEntityXYCountValues(boolean parallel) {
+        // Enough rows for the parallel count to use several chunks
+        final List<Row> rows = this.createRows(10_000, new Random(11));
+        final EntityXYCountMatrix<String, Integer, Row> instance = 
+                new EntityXYCountMatrix<>(rows, xValues, yValues, relationAccess, parallel);
+        final EntityXYCountValues<String, Integer, Row> expected = 
+                new EntityXYCountValues<>(rows, relationAccess);
+        final XYCountMatrix<String, Integer> matrix = instance.getMatrix();
+        int total = 0;
+        for(int y=0; y<yValues.size(); y++) {
+            int yTotal = 0;
+            for(int x=0; x<xValues.size(); x++) {
+                final int count = expected.getValue(xValues.get(x), yValues.get(y));
+                assertEquals(count, instance.getValue(xValues.get(x), yValues.get(y)).intValue());
+                assertEquals(count, instance.getCount(x, y));
+                yTotal += count;
+            }
+            assertEquals(yTotal, matrix.getYTotal(y));
+            total += yTotal;
+        }
+        assertEquals(total, matrix.getTotal());
+        assertTrue(total > 0);
+    }
+
+    @Test
+    public void testValuesNotCounted() {
+        System.out.println("#testValuesNotCounted");
+        final List<Row> rows = this.createRows(100, new Random(13));
+        rows.get(0).related.add("e");
+        rows.get(0).related.add(4);
+
+        final EntityXYCountMatrix<String, Integer, Row> fromCollection = 
+                new EntityXYCountMatrix<>(rows, xValues, yValues, relationAccess, false);
+        assertEquals(1, fromCollection.getValue("e", 4).intValue());
+        assertEquals(new EntityXYCountValues<String, Integer, Row>(rows, relationAccess).getValue("e", 1), 
+                fromCollection.getValue("e", 1));
+
+        final Iterable<Row> iterable = () -> rows.iterator();
+        final EntityXYCountMatrix<String, Integer, Row> fromIterable = 
+                new EntityXYCountMatrix<>(iterable, xValues, yValues, relationAccess, false);
+        assertEquals(new EntityXYCountValues<String, Integer, Row>(rows, relationAccess).getValue("a", 1), 
+                fromIterable.getValue("a", 1));
+        try{
+            fromIterable.getValue("e", 4);
+            fail("Expected IllegalArgumentException");
+        }catch(IllegalArgumentException expected) { }
+    }
+
+    private List<Row> createRows(int count, Random random) {
+        final List<Row> rows = new ArrayList<>(count);
+        for(int i=0; i<count; i++) {
+            final Row row = new Row();
+            for(String x : xValues) {
+                if(random.nextInt(3) == 0) {
+                    row.related.add(x);
+                }
+            }
+            for(Integer y : yValues) {
+                if(random.nextBoolean()) {
+                    row.related.add(y);
+                }
+            }
+            // Duplicates are counted once
+            if(!row.related.isEmpty() && random.nextInt(10) == 0) {
+                row.related.add(row.related.get(0));
+            }
+            Collections.shuffle(row.related, random);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
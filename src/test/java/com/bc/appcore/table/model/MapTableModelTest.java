@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 23, 2026 11:58:36 AM
+ */
+public class MapTableModelTest {
+
+    public MapTableModelTest() { }
+
+    @Test
+    public void testValuesUnderSerialColumn() {
+        System.out.println("#testValuesUnderSerialColumn");
+        final List<Map> rows = this.createRows();
+        final MapTableModel instance = new MapTableModel(rows, "S/N");
+        assertEquals(Arrays.asList("S/N", "name", "age", "score"), this.getColumnNames(instance));
+        assertEquals(String.class, instance.getColumnClass(0));
+        assertEquals(String.class, instance.getColumnClass(1));
+        assertEquals(Integer.class, instance.getColumnClass(2));
+        assertEquals(Double.class, instance.getColumnClass(3));
+        assertNull(instance.getColumnValues(0));
+        assertTrue(instance.getColumnValues(2) instanceof IntColumnValues);
+        assertFalse(instance.isCellEditable(0, 0));
+        for(int row=0; row<rows.size(); row++) {
+            assertEquals(row + 1, instance.getValueAt(row, 0));
+        }
+        this.assertValues(rows, instance);
+    }
+
+    @Test
+    public void testValuesWithoutSerialColumn() {
+        System.out.println("#testValuesWithoutSerialColumn");
+        final List<Map> rows = this.createRows();
+        final MapTableModel instance = new MapTableModel(rows, null);
+        assertEquals(Arrays.asList("name", "age", "score"), this.getColumnNames(instance));
+        this.assertValues(rows, instance);
+    }
+
+    @Test
+    public void testSetValueOfOtherType() {
+        System.out.println("#testSetValueOfOtherType");
+        final List<Map> rows = this.createRows();
+        final MapTableModel instance = new MapTableModel(rows, "S/N");
+        final int age = instance.getColumnIndex("age");
+
+        // Stored as objects from then on, under the same column
+        instance.setValueAt("unknown", 1, age);
+        rows.get(1).put("age", "unknown");
+        assertTrue(instance.getColumnValues(age) instanceof ObjectColumnValues);
+        this.assertValues(rows, instance);
+
+        // The serial column is not editable
+        instance.setValueAt("x", 0, 0);
+        assertEquals(1, instance.getValueAt(0, 0));
+    }
+
+    private void assertValues(List<Map> rows, MapTableModel instance) {
+        for(int row=0; row<rows.size(); row++) {
+            for(String columnName : Arrays.asList("name", "age", "score")) {
+                assertEquals(columnName + " of row " + row, rows.get(row).get(columnName), 
+                        instance.getValueAt(row, instance.getColumnIndex(columnName)));
+            }
+        }
+    }
+
+    private List<String> getColumnNames(MapTableModel instance) {
+        final List<String> output = new ArrayList<>();
+        for(int column=0; column<instance.getColumnCount(); column++) {
+            output.add(instance.getColumnName(column));
+        }
+        return output;
+    }
+
+    private List<Map> createRows() {
+        final List<Map> rows = new ArrayList<>();
+        rows.add(this.createRow("name", "Ada", "age", 36));
+        // Missing and null values, keys in another order
+        rows.add(this.createRow("score", 4.5, "age", 41));
+        rows.add(this.createRow("name", null, "score", 3.0, "age", null));
+        rows.add(this.createRow("age", 7, "name", "Ada", "score", 0.0));
+        return rows;
+    }
+
+    private Map createRow(Object... keysAndValues) {
+        final Map row = new LinkedHashMap();
+        for(int i=0; i<keysAndValues.length; i+=2) {
+            row.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.table.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 23, 2026 10:03:41 AM
+ */
+public class XYCountMatrixTest {
+
+    private final List<String> xValues = Arrays.asList("a", "b", "c");
+
+    private final List<String> yValues = Arrays.asList("p", "q");
+
+    public XYCountMatrixTest() { }
+
+    @Test
+    public void testTotalsOfCounts() {
+        System.out.println("#testTotalsOfCounts");
+        // Offset of each count is yIndex * xCount + xIndex
+        final XYCountMatrix<String, String> instance = 
+                new XYCountMatrix<>(xValues, yValues, new int[]{1, 2, 3, 4, 5, 6});
+        assertEquals(5, instance.getXTotal(0));
+        assertEquals(7, instance.getXTotal(1));
+        assertEquals(9, instance.getXTotal(2));
+        assertEquals(6, instance.getYTotal(0));
+        assertEquals(15, instance.getYTotal(1));
+        assertEquals(21, instance.getTotal());
+        assertEquals(6, instance.getValue("c", "q").intValue());
+        assertEquals(0, instance.getValue("z", "q").intValue());
+    }
+
+    @Test
+    public void testTotalsAfterAddAndSet() {
+        System.out.println("#testTotalsAfterAddAndSet");
+        final XYCountMatrix<String, String> instance = new XYCountMatrix<>(xValues, yValues);
+        final int [][] expected = new int[xValues.size()][yValues.size()];
+        final Random random = new Random(5);
+        for(int i=0; i<200; i++) {
+            final int x = random.nextInt(xValues.size());
+            final int y = random.nextInt(yValues.size());
+            if(random.nextBoolean()) {
+                final int delta = random.nextInt(11) - 5;
+                expected[x][y] += delta;
+                assertEquals(expected[x][y], instance.add(x, y, delta));
+            }else{
+                final int count = random.nextInt(20);
+                assertEquals(expected[x][y], instance.set(x, y, count));
+                expected[x][y] = count;
+            }
+            this.assertTotals(expected, instance);
+        }
+    }
+
+    @Test
+    public void testIndexesOutsideTheMatrix() {
+        System.out.println("#testIndexesOutsideTheMatrix");
+        final XYCountMatrix<String, String> instance = new XYCountMatrix<>(xValues, yValues);
+        for(int [] index : new int[][]{{-1, 0}, {3, 0}, {0, -1}, {0, 2}}) {
+            try{
+                instance.add(index[0], index[1], 1);
+                fail("Expected IndexOutOfBoundsException");
+            }catch(IndexOutOfBoundsException expected) { }
+        }
+        assertEquals(0, instance.getTotal());
+        try{
+            new XYCountMatrix<>(xValues, yValues, new int[5]);
+            fail("Expected IllegalArgumentException");
+        }catch(IllegalArgumentException expected) { }
+    }
+
+    private void assertTotals(int [][] expected, XYCountMatrix<String, String> instance) {
+        int total = 0;
+        final int [] yTotals = new int[yValues.size()];
+        for(int x=0; x<xValues.size(); x++) {
+            int xTotal = 0;
+            for(int y=0; y<yValues.size(); y++) {
+                assertEquals(expected[x][y], instance.getCount(x, y));
+                assertEquals(expected[x][y], instance.getValue(xValues.get(x), yValues.get(y)).intValue());
+                xTotal += expected[x][y];
+                yTotals[y] += expected[x][y];
+            }
+            assertEquals(xTotal, instance.getXTotal(x));
+            total += xTotal;
+        }
+        for(int y=0; y<yValues.size(); y++) {
+            assertEquals(yTotals[y], instance.getYTotal(y));
+        }
+        assertEquals(total, instance.getTotal());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bc.appcore.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 23, 2026 2:31:09 PM
+ */
+public class CancellationTokenTest {
+
+    public CancellationTokenTest() { }
+
+    @Test
+    public void testCancel() {
+        System.out.println("#testCancel");
+        final CancellationToken instance = new CancellationToken();
+        final AtomicInteger runs = new AtomicInteger();
+        instance.onCancel(() -> runs.incrementAndGet());
+        final Runnable removed = () -> runs.addAndGet(100);
+        instance.onCancel(removed);
+        assertTrue(instance.removeOnCancel(removed));
+        instance.throwIfCancelled();
+
+        assertTrue(instance.cancel());
+        assertFalse(instance.cancel());
+        assertEquals(1, runs.get());
+        assertTrue(instance.isCancelled());
+        assertFalse(instance.isTimedOut());
+        try{
+            instance.throwIfCancelled();
+            fail("Expected CancellationException");
+        }catch(CancellationException expected) { }
+
+        // Registered after cancel, run at once
+        instance.onCancel(() -> runs.incrementAndGet());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testTimeout() throws InterruptedException {
+        System.out.println("#testTimeout");
+        final CancellationToken instance = new CancellationToken();
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        instance.onCancel(() -> cancelled.countDown());
+        assertEquals(-1, instance.getRemaining(TimeUnit.MILLISECONDS, -1));
+        instance.timeout(1, TimeUnit.MINUTES);
+        // The earlier of both applies
+        instance.timeout(50, TimeUnit.MILLISECONDS);
+        instance.timeout(2, TimeUnit.MINUTES);
+        assertTrue(instance.getRemaining(TimeUnit.MILLISECONDS, -1) <= 50);
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertTrue(instance.isCancelled());
+        assertTrue(instance.isTimedOut());
+        assertEquals(0, instance.getRemaining(TimeUnit.MILLISECONDS, -1));
+    }
+
+    @Test
+    public void testClearTimeout() throws InterruptedException {
+        System.out.println("#testClearTimeout");
+        final CancellationToken instance = new CancellationToken();
+        final AtomicInteger runs = new AtomicInteger();
+        instance.onCancel(() -> runs.incrementAndGet());
+        instance.timeout(50, TimeUnit.MILLISECONDS);
+        instance.clearTimeout();
+        assertEquals(-1, instance.getRemaining(TimeUnit.MILLISECONDS, -1));
+        Thread.sleep(150);
+        assertFalse(instance.isCancelled());
+
+        // The callbacks are kept
+        assertTrue(instance.cancel());
+        assertEquals(1, runs.get());
+        assertFalse(instance.isTimedOut());
+    }
+
+    @Test
+    public void testClose() throws InterruptedException {
+        System.out.println("#testClose");
+        final CancellationToken instance = new CancellationToken();
+        final AtomicInteger runs = new AtomicInteger();
+        instance.onCancel(() -> runs.incrementAndGet());
+        instance.timeout(50, TimeUnit.MILLISECONDS);
+        instance.close();
+        Thread.sleep(150);
+        assertFalse(instance.isCancelled());
+
+        // The callbacks are discarded
+        assertTrue(instance.cancel());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testCallbackException() {
+        System.out.println("#testCallbackException");
+        final CancellationToken instance = new CancellationToken();
+        final AtomicInteger runs = new AtomicInteger();
+        instance.onCancel(() -> { throw new IllegalStateException("Expected"); });
+        instance.onCancel(() -> runs.incrementAndGet());
+        assertTrue(instance.cancel());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testNone() {
+        System.out.println("#testNone");
+        final AtomicInteger runs = new AtomicInteger();
+        CancellationToken.NONE.onCancel(() -> runs.incrementAndGet());
+        CancellationToken.NONE.timeout(0, TimeUnit.MILLISECONDS);
+        assertFalse(CancellationToken.NONE.cancel());
+        assertFalse(CancellationToken.NONE.isCancelled());
+        assertEquals(0, runs.get());
+    }
+}
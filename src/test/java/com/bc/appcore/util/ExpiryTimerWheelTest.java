@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bc.appcore.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 22, 2026 9:04:18 AM
+ */
+public class ExpiryTimerWheelTest {
+
+    public ExpiryTimerWheelTest() { }
+
+    private static <K> BiPredicate<K, Expirable> remover(Map<K, Expirable> map) {
+        return (key, expirable) -> map.remove(key, expirable);
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        System.out.println("#testExpiry");
+        final ExpiryTimerWheel<Integer> instance = new ExpiryTimerWheel<>(5, 1000, 20);
+        final Map<Integer, Expirable> map = new ConcurrentHashMap<>();
+        final long now = System.currentTimeMillis();
+        for(int i=0; i<100; i++) {
+            final Expirable expirable = Expirable.from(i, i < 50 ? 20 : 60_000, TimeUnit.MILLISECONDS);
+            map.put(i, expirable);
+            instance.schedule(i, expirable, now);
+        }
+        assertEquals(0, instance.expire(System.currentTimeMillis(), map, remover(map)));
+        Thread.sleep(60);
+        final int removed = instance.expire(System.currentTimeMillis(), map, remover(map));
+        assertEquals(50, removed);
+        assertEquals(50, map.size());
+        for(int i=50; i<100; i++) {
+            assertTrue(map.containsKey(i));
+        }
+    }
+
+    @Test
+    public void testReplacedEntryIsNotRemoved() throws InterruptedException {
+        System.out.println("#testReplacedEntryIsNotRemoved");
+        final ExpiryTimerWheel<String> instance = new ExpiryTimerWheel<>(5, 1000, 20);
+        final Map<String, Expirable> map = new ConcurrentHashMap<>();
+        final Expirable first = Expirable.from("a", 10, TimeUnit.MILLISECONDS);
+        map.put("a", first);
+        instance.schedule("a", first, System.currentTimeMillis());
+        final Expirable second = Expirable.from("b", 60_000, TimeUnit.MILLISECONDS);
+        map.put("a", second);
+        instance.schedule("a", second, System.currentTimeMillis());
+        Thread.sleep(40);
+        assertEquals(0, instance.expire(System.currentTimeMillis(), map, remover(map)));
+        assertSame(second, map.get("a"));
+    }
+
+    @Test
+    public void testUnknownExpiryTimeIsRechecked() throws InterruptedException {
+        System.out.println("#testUnknownExpiryTimeIsRechecked");
+        final ExpiryTimerWheel<String> instance = new ExpiryTimerWheel<>(5, 1000, 10);
+        final Map<String, Expirable> map = new ConcurrentHashMap<>();
+        final AtomicBoolean expired = new AtomicBoolean();
+        final Expirable expirable = new Expirable() {
+            @Override
+            public boolean isExpired() {
+                return expired.get();
+            }
+            @Override
+            public Optional get() {
+                return Optional.empty();
+            }
+        };
+        map.put("a", expirable);
+        instance.schedule("a", expirable, System.currentTimeMillis());
+        Thread.sleep(30);
+        assertEquals(0, instance.expire(System.currentTimeMillis(), map, remover(map)));
+        expired.set(true);
+        Thread.sleep(30);
+        assertEquals(1, instance.expire(System.currentTimeMillis(), map, remover(map)));
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * Entries scheduled while their slot is being swept must still expire.
+     */
+    @Test
+    public void testScheduleWhileExpiring() throws Exception {
+        System.out.println("#testScheduleWhileExpiring");
+
+        final int writers = 4;
+        final int entriesPerWriter = 20_000;
+        final long ttl = 5;
+
+        final ExpiryTimerWheel<String> instance = new ExpiryTimerWheel<>(1, 64, ttl);
+        final Map<String, Expirable> map = new ConcurrentHashMap<>();
+        final BiPredicate<String, Expirable> remove = remover(map);
+        final ExecutorService executor = Executors.newFixedThreadPool(writers);
+        final CountDownLatch startSignal = new CountDownLatch(1);
+
+        try{
+            final List<Future<?>> futures = new ArrayList<>();
+            for(int w=0; w<writers; w++) {
+                final int writer = w;
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    for(int i=0; i<entriesPerWriter; i++) {
+                        final String key = writer + "_" + i;
+                        final Expirable expirable = Expirable.from(key, ttl, TimeUnit.MILLISECONDS);
+                        map.put(key, expirable);
+                        instance.schedule(key, expirable, System.currentTimeMillis());
+                    }
+                    return null;
+                }));
+            }
+
+            startSignal.countDown();
+
+            boolean writing = true;
+            while(writing) {
+                instance.expire(System.currentTimeMillis(), map, remove);
+                writing = false;
+                for(Future<?> future : futures) {
+                    if(!future.isDone()) {
+                        writing = true;
+                    }
+                }
+            }
+            for(Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+
+        // Long enough for every deadline to pass and each slot to be swept
+        final long end = System.currentTimeMillis() + 200;
+        while(System.currentTimeMillis() < end && !map.isEmpty()) {
+            instance.expire(System.currentTimeMillis(), map, remove);
+            Thread.sleep(1);
+        }
+
+        assertTrue("Never expired: " + map.size(), map.isEmpty());
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bc.appcore.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 22, 2026 10:12:06 AM
+ */
+public class JournalTargetQueueStoreTest {
+
+    private File dir;
+
+    private File file;
+
+    public JournalTargetQueueStoreTest() { }
+
+    @Before
+    public void setUp() throws IOException {
+        dir = java.nio.file.Files.createTempDirectory("journal").toFile();
+        file = new File(dir, "journal.0");
+    }
+
+    @After
+    public void tearDown() {
+        final File [] files = dir.listFiles();
+        if(files != null) {
+            for(File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private JournalTargetQueueStore<Object> newStore(int compactionThreshold) {
+        return new JournalTargetQueueStore<>(file, null, false, compactionThreshold);
+    }
+
+    private List<Object> write(Object... elements) {
+        final JournalTargetQueueStore<Object> store = this.newStore(1000);
+        final List<Object> loaded = store.load();
+        long key = loaded.size();
+        for(Object element : elements) {
+            store.added(key++, element);
+        }
+        store.close();
+        return loaded;
+    }
+
+    private List<Object> reload() {
+        final JournalTargetQueueStore<Object> store = this.newStore(1000);
+        try{
+            return store.load();
+        }finally{
+            store.close();
+        }
+    }
+
+    @Test
+    public void testReplay() {
+        System.out.println("#testReplay");
+        final JournalTargetQueueStore<Object> store = this.newStore(1000);
+        assertEquals(Collections.emptyList(), store.load());
+        store.added(0, "a");
+        store.added(1, "b");
+        store.added(2, "c");
+        store.removed(0);
+        store.replaced(2, "C");
+        store.close();
+        assertEquals(Arrays.asList("b", "C"), this.reload());
+    }
+
+    @Test
+    public void testKeysOfLoadedElements() {
+        System.out.println("#testKeysOfLoadedElements");
+        this.write("a", "b", "c");
+        final JournalTargetQueueStore<Object> store = this.newStore(1000);
+        assertEquals(Arrays.asList("a", "b", "c"), store.load());
+        store.removed(1);
+        store.replaced(2, "C");
+        store.added(3, "d");
+        store.removed(0);
+        store.close();
+        assertEquals(Arrays.asList("C", "d"), this.reload());
+    }
+
+    @Test
+    public void testTornTail() throws IOException {
+        System.out.println("#testTornTail");
+        this.write("a", "b", "c");
+        final long length = file.length();
+        // The first bytes of a record whose write did not complete
+        try(FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{1, 0, 0, 0, 0, 0, 0, 0, 9, 0, 0});
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), this.reload());
+        assertEquals(length, file.length());
+
+        // Records appended after recovery are not lost behind the torn one
+        final JournalTargetQueueStore<Object> store = this.newStore(1000);
+        store.load();
+        store.added(3, "d");
+        store.close();
+        assertEquals(Arrays.asList("a", "b", "c", "d"), this.reload());
+    }
+
+    @Test
+    public void testChecksumMismatch() throws IOException {
+        System.out.println("#testChecksumMismatch");
+        this.write("a");
+        final long firstLength = file.length();
+        this.write("b", "c");
+        // Corrupt the last byte of the payload of the second record
+        final long recordLength = (file.length() - firstLength) / 2;
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            final long offset = firstLength + recordLength - 5;
+            raf.seek(offset);
+            final int b = raf.read();
+            raf.seek(offset);
+            raf.write(b ^ 0xFF);
+        }
+        // Replay stops at the first corrupt record, and truncates there
+        assertEquals(Arrays.asList("a"), this.reload());
+        assertEquals(firstLength, file.length());
+    }
+
+    @Test
+    public void testFailedRecordIsNotWritten() {
+        System.out.println("#testFailedRecordIsNotWritten");
+        final JournalTargetQueueStore<Object> store = this.newStore(1000);
+        store.load();
+        store.added(0, "a");
+        // Not serializable
+        store.added(1, new Object());
+        store.added(2, "b");
+        store.close();
+        assertEquals(Arrays.asList("a", "b"), this.reload());
+    }
+
+    @Test
+    public void testCompaction() {
+        System.out.println("#testCompaction");
+        final JournalTargetQueueStore<Object> store = this.newStore(5);
+        store.load();
+        for(int i=0; i<10; i++) {
+            store.added(i, "e" + i);
+        }
+        for(int i=0; i<8; i++) {
+            store.removed(i);
+        }
+        final long before = file.length();
+        final List<Object> remaining = Arrays.asList("e8", "e9");
+        store.checkpoint(remaining);
+        assertTrue(file.length() < before);
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        // The keys of the elements are kept, with the records rewritten
+        store.removed(8);
+        store.added(10, "e10");
+        store.close();
+        assertEquals(Arrays.asList("e9", "e10"), this.reload());
+    }
+
+    @Test
+    public void testCompactBelowThreshold() {
+        System.out.println("#testCompactBelowThreshold");
+        this.write("a", "b", "c");
+        final JournalTargetQueueStore<Object> store = this.newStore(1000);
+        assertTrue(store.compact(Arrays.asList("x", "y")));
+        store.added(2, "z");
+        store.close();
+        assertEquals(Arrays.asList("x", "y", "z"), this.reload());
+    }
+}
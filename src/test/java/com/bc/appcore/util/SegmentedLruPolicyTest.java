@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bc.appcore.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 22, 2026 9:31:50 AM
+ */
+public class SegmentedLruPolicyTest {
+
+    public SegmentedLruPolicyTest() { }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedOnProbation() {
+        System.out.println("#testEvictsLeastRecentlyUsedOnProbation");
+        final SegmentedLruPolicy<String> instance = new SegmentedLruPolicy<>(3, 0.8f);
+        assertEquals(Collections.emptyList(), instance.onPut("a", 1));
+        assertEquals(Collections.emptyList(), instance.onPut("b", 1));
+        assertEquals(Collections.emptyList(), instance.onPut("c", 1));
+        assertEquals(Arrays.asList("a"), instance.onPut("d", 1));
+        assertEquals(3, instance.getWeight());
+    }
+
+    @Test
+    public void testAccessedEntryOutlivesEntriesUsedOnce() {
+        System.out.println("#testAccessedEntryOutlivesEntriesUsedOnce");
+        final SegmentedLruPolicy<String> instance = new SegmentedLruPolicy<>(3, 0.8f);
+        instance.onPut("a", 1);
+        instance.onAccess("a");
+        instance.onPut("b", 1);
+        instance.onPut("c", 1);
+        assertEquals(Arrays.asList("b"), instance.onPut("d", 1));
+        assertEquals(Arrays.asList("c"), instance.onPut("e", 1));
+    }
+
+    @Test
+    public void testProtectedOverflowIsDemoted() {
+        System.out.println("#testProtectedOverflowIsDemoted");
+        // Protected segment holds a weight of 2
+        final SegmentedLruPolicy<String> instance = new SegmentedLruPolicy<>(4, 0.5f);
+        for(String key : new String[]{"a", "b", "c"}) {
+            instance.onPut(key, 1);
+            instance.onAccess(key);
+        }
+        // "a" was demoted to probation when "c" was promoted, so goes first
+        instance.onPut("d", 1);
+        assertEquals(Arrays.asList("a"), instance.onPut("e", 1));
+    }
+
+    @Test
+    public void testWeights() {
+        System.out.println("#testWeights");
+        final SegmentedLruPolicy<String> instance = new SegmentedLruPolicy<>(10, 0.8f);
+        instance.onPut("a", 4);
+        instance.onPut("b", 4);
+        instance.onPut("a", 2);
+        assertEquals(6, instance.getWeight());
+        instance.onRemove("b");
+        assertEquals(2, instance.getWeight());
+        instance.onRemove("b");
+        assertEquals(2, instance.getWeight());
+        assertEquals(Arrays.asList("a"), instance.onPut("c", 9));
+        assertEquals(9, instance.getWeight());
+        instance.clear();
+        assertEquals(0, instance.getWeight());
+    }
+}
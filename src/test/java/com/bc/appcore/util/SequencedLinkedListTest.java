@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 NUROX Ltd.
+ *
+ * Licensed under the NUROX Ltd Software License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.looseboxes.com/legal/licenses/software.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bc.appcore.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Chinomso Bassey Ikwuagwu on Oct 22, 2026 3:20:44 PM
+ */
+public class SequencedLinkedListTest {
+
+    public SequencedLinkedListTest() { }
+
+    @Test
+    public void testNodes() {
+        System.out.println("#testNodes");
+        final SequencedLinkedList<String> list = new SequencedLinkedList<>();
+        final List<SequencedLinkedList.Node<String>> nodes = new ArrayList<>();
+        for(String s : Arrays.asList("a", "b", "c", "d", "e")) {
+            nodes.add(list.append(s));
+        }
+        list.remove(nodes.get(2));
+        assertEquals(Arrays.asList("a", "b", "d", "e"), list);
+        assertSame(nodes.get(3), list.getNode(2));
+        assertSame(nodes.get(1), list.getNode(1));
+
+        list.remove(list.getFirstNode());
+        list.set(nodes.get(3), "D");
+        assertEquals(Arrays.asList("b", "D", "e"), list);
+        try{
+            list.set(nodes.get(2), "C");
+            fail("Expected NoSuchElementException");
+        }catch(NoSuchElementException expected) { }
+    }
+
+    @Test
+    public void testSeqOrdersNodes() {
+        System.out.println("#testSeqOrdersNodes");
+        final Random random = new Random(7);
+        final SequencedLinkedList<Integer> list = new SequencedLinkedList<>();
+        final List<SequencedLinkedList.Node<Integer>> live = new ArrayList<>();
+        for(int i=0; i<5000; i++) {
+            final int op = random.nextInt(4);
+            if(op < 2 || live.isEmpty()) {
+                live.add(list.append(i));
+            }else if(op == 2) {
+                list.remove(live.remove(random.nextInt(live.size())));
+            }else{
+                // Numbers are not reused when the last node is removed
+                list.remove(live.remove(live.size() - 1));
+            }
+            if(!live.isEmpty()) {
+                final int index = random.nextInt(live.size());
+                assertSame(live.get(index), list.getNode(index));
+                assertTrue(live.get(live.size() - 1).getSeq() < list.getNextSeq());
+            }
+            for(int j=1; j<live.size(); j++) {
+                assertTrue(live.get(j - 1).getSeq() < live.get(j).getSeq());
+            }
+        }
+        assertEquals(live.size(), list.size());
+    }
+
+    @Test
+    public void testListIterator() {
+        System.out.println("#testListIterator");
+        final SequencedLinkedList<String> list = new SequencedLinkedList<>();
+        list.addAll(Arrays.asList("a", "b", "c", "d"));
+        assertEquals("c", list.get(2));
+        assertEquals("c", list.remove(2));
+        assertEquals("d", list.remove(2));
+        final ListIterator<String> iter = list.listIterator(list.size());
+        assertEquals("b", iter.previous());
+        iter.remove();
+        assertEquals(Arrays.asList("a"), list);
+        assertEquals(Arrays.asList("a"), new ArrayList<>(list.subList(0, 1)));
+        try{
+            list.add(0, "z");
+            fail("Expected UnsupportedOperationException");
+        }catch(UnsupportedOperationException expected) { }
+    }
+}